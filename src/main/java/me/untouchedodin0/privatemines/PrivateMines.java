@@ -25,25 +25,14 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import io.papermc.lib.PaperLib;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.PathMatcher;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
-import me.untouchedodin0.kotlin.mine.data.MineData;
-import me.untouchedodin0.kotlin.mine.pregen.PregenMine;
 import me.untouchedodin0.kotlin.mine.storage.MineStorage;
 import me.untouchedodin0.kotlin.mine.storage.PregenStorage;
 import me.untouchedodin0.kotlin.mine.type.MineType;
@@ -53,14 +42,31 @@ import me.untouchedodin0.privatemines.config.MenuConfig;
 import me.untouchedodin0.privatemines.config.MessagesConfig;
 import me.untouchedodin0.privatemines.config.MineConfig;
 import me.untouchedodin0.privatemines.factory.MineFactory;
+import me.untouchedodin0.privatemines.factory.PregenFactory;
+import me.untouchedodin0.privatemines.factory.PregenPool;
 import me.untouchedodin0.privatemines.iterator.SchematicIterator;
+import me.untouchedodin0.privatemines.listener.MaxPlayersListener;
+import me.untouchedodin0.privatemines.listener.MineOccupancyListener;
+import me.untouchedodin0.privatemines.listener.MineProtectionListener;
 import me.untouchedodin0.privatemines.listener.MineResetListener;
+import me.untouchedodin0.privatemines.listener.MinedBlocksListener;
 import me.untouchedodin0.privatemines.listener.PlayerJoinListener;
 import me.untouchedodin0.privatemines.listener.sell.AutoSellListener;
+import me.untouchedodin0.privatemines.listener.sell.InternalSellListener;
 import me.untouchedodin0.privatemines.listener.sell.UPCSellListener;
-import me.untouchedodin0.privatemines.mine.Mine;
+import me.untouchedodin0.privatemines.mine.MineOccupancy;
 import me.untouchedodin0.privatemines.mine.MineTypeManager;
+import me.untouchedodin0.privatemines.mine.TaxLedger;
+import me.untouchedodin0.privatemines.mine.pattern.MinePatterns;
+import me.untouchedodin0.privatemines.mine.reset.MineResetScheduler;
+import me.untouchedodin0.privatemines.playershops.SellEngine;
+import me.untouchedodin0.privatemines.storage.MineLoader;
+import me.untouchedodin0.privatemines.storage.MinePersistence;
+import me.untouchedodin0.privatemines.storage.MineStore;
 import me.untouchedodin0.privatemines.storage.SchematicStorage;
+import me.untouchedodin0.privatemines.storage.StorageType;
+import me.untouchedodin0.privatemines.storage.YamlMineStore;
+import me.untouchedodin0.privatemines.storage.sql.MineRepository;
 import me.untouchedodin0.privatemines.storage.sql.SQLite;
 import me.untouchedodin0.privatemines.utils.Utils;
 import me.untouchedodin0.privatemines.utils.adapter.LocationAdapter;
@@ -68,6 +74,7 @@ import me.untouchedodin0.privatemines.utils.adapter.PathAdapter;
 import me.untouchedodin0.privatemines.utils.addons.Service;
 import me.untouchedodin0.privatemines.utils.placeholderapi.PrivateMinesExpansion;
 import me.untouchedodin0.privatemines.utils.slime.SlimeUtils;
+import me.untouchedodin0.privatemines.utils.world.MineChunkManager;
 import me.untouchedodin0.privatemines.utils.world.MineWorldManager;
 import net.kyori.adventure.platform.bukkit.BukkitAudiences;
 import net.milkbowl.vault.economy.Economy;
@@ -76,7 +83,6 @@ import org.bstats.charts.SingleLineChart;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.RegisteredServiceProvider;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -85,7 +91,6 @@ import redempt.redlib.commandmanager.ArgType;
 import redempt.redlib.commandmanager.CommandParser;
 import redempt.redlib.config.ConfigManager;
 import redempt.redlib.inventorygui.InventoryGUI;
-import redempt.redlib.misc.LocationUtils;
 import redempt.redlib.misc.Task;
 import redempt.redlib.sql.SQLHelper;
 
@@ -110,7 +115,17 @@ public class PrivateMines extends JavaPlugin {
   private MineStorage mineStorage;
   private PregenStorage pregenStorage;
   private MineWorldManager mineWorldManager;
+  private MineChunkManager mineChunkManager;
   private MineTypeManager mineTypeManager;
+  private MineResetScheduler mineResetScheduler;
+  private MineOccupancy mineOccupancy;
+  private MinePatterns minePatterns;
+  private PregenFactory pregenFactory;
+  private PregenPool pregenPool;
+  private TaxLedger taxLedger;
+  private SellEngine sellEngine;
+  private MinePersistence minePersistence;
+  private MineStore mineStore;
   private ConfigManager configManager;
   private SlimeUtils slimeUtils;
   private static Economy econ = null;
@@ -119,9 +134,8 @@ public class PrivateMines extends JavaPlugin {
   private BukkitAudiences adventure;
   private WorldBorderUtils worldBorderUtils;
   private Gson gson;
-  String matString;
-  double percent;
   boolean pregenMode;
+  private boolean internalSell;
 
   public static PrivateMines getPrivateMines() {
     return privateMines;
@@ -134,31 +148,29 @@ public class PrivateMines extends JavaPlugin {
     saveDefaultConfig();
     saveResource("menus.yml", false);
     saveResource("messages.yml", false);
-    saveResource("donottouch.json", false);
 
     privateMines = this;
 
     this.mineWorldManager = new MineWorldManager();
+    this.mineChunkManager = new MineChunkManager(mineWorldManager.getMinesWorld());
     this.mineFactory = new MineFactory();
     this.mineStorage = new MineStorage();
     this.pregenStorage = new PregenStorage();
     this.mineTypeManager = new MineTypeManager(this);
+    this.mineResetScheduler = new MineResetScheduler();
+    this.mineOccupancy = new MineOccupancy(this);
+    this.minePatterns = new MinePatterns();
+    this.pregenFactory = new PregenFactory();
+    this.pregenPool = new PregenPool(this);
+    this.minePersistence = new MinePersistence(this);
+    this.taxLedger = new TaxLedger(this);
+    this.sellEngine = new SellEngine(taxLedger);
 
     GsonBuilder gsonBuilder = new GsonBuilder();
     gsonBuilder.registerTypeAdapter(Location.class, new LocationAdapter());
     gsonBuilder.registerTypeAdapter(Path.class, new PathAdapter());
     this.gson = gsonBuilder.create();
 
-    File file = new File("plugins/PrivateMines/donottouch.json");
-    try {
-      try (FileReader fileReader = new FileReader(file)) {
-        Location currentLocation = gson.fromJson(fileReader, Location.class);
-        mineWorldManager.setCurrentLocation(currentLocation);
-      }
-    } catch (IOException e) {
-      throw new RuntimeException(e);
-    }
-
     if (RedLib.MID_VERSION >= 19) {
       worldBorderUtils = new WorldBorderUtils();
     }
@@ -175,9 +187,6 @@ public class PrivateMines extends JavaPlugin {
         .parse()
         .register("privatemines", new PrivateMinesCommand());
 
-    if (Config.enableTax) {
-      registerSellListener();
-    }
     registerListeners();
     setupSchematicUtils();
 
@@ -215,6 +224,7 @@ public class PrivateMines extends JavaPlugin {
     this.Y_LEVEL = Config.mineYLevel;
     this.MINE_DISTANCE = Config.mineDistance;
 
+    registerSellListener();
     MineConfig.getMineTypes().forEach((s, mineType) -> mineTypeManager.registerMineType(mineType));
     MineConfig.mineTypes.forEach((name, mineType) -> {
       File schematicFile = new File("plugins/PrivateMines/schematics/" + mineType.getFile());
@@ -243,8 +253,31 @@ public class PrivateMines extends JavaPlugin {
             + "`corner1` TEXT," + "`corner2` TEXT," + "`fullMin` TEXT," + "`fullMax` TEXT,"
             + "`spawn` TEXT," + "`open` BOOLEAN);");
 
-    Task.syncDelayed(() -> loadMines(false));
+    if (Config.storageType == StorageType.SQLITE) {
+      MineRepository mineRepository = new MineRepository(this);
+      mineRepository.open();
+      this.mineStore = mineRepository;
+    } else {
+      this.mineStore = new YamlMineStore(this, minesDirectory, Config.mineSnapshot);
+    }
+
+    mineResetScheduler.start();
+    minePersistence.start();
+    taxLedger.start();
+    sellEngine.start();
+    if (Config.nativeProtection) {
+      getServer().getPluginManager().registerEvents(new MineProtectionListener(), this);
+    }
+    if (Config.limitMinePlayers) {
+      getServer().getPluginManager().registerEvents(new MaxPlayersListener(), this);
+    }
+    if (Config.mineIdleEviction > 0) {
+      Task.syncRepeating(() -> mineStorage.evictIdle(Config.mineIdleEviction * 60_000L), 1200L,
+          1200L);
+    }
+    Task.syncDelayed(this::loadMines);
     Task.syncDelayed(this::loadPregenMines);
+    pregenPool.start();
 //            Task.asyncDelayed(this::loadAddons);
 
     AtomicInteger atomicInteger = new AtomicInteger(1);
@@ -294,18 +327,27 @@ public class PrivateMines extends JavaPlugin {
 
   @Override
   public void onDisable() {
-    GsonBuilder gsonBuilder = new GsonBuilder();
-    gsonBuilder.registerTypeAdapter(Location.class, new LocationAdapter());
-    gson = gsonBuilder.create();
-
-    File file = new File("plugins/PrivateMines/donottouch.json");
-    Location currentLocation = mineWorldManager.getCurrentLocation();
-    String currentLocationJson = gson.toJson(currentLocation);
+    if (mineResetScheduler != null) {
+      mineResetScheduler.stop();
+    }
+    if (pregenPool != null) {
+      pregenPool.stop();
+    }
+    if (pregenFactory != null) {
+      pregenFactory.shutdown();
+    }
+    if (mineChunkManager != null) {
+      mineChunkManager.releaseAll();
+    }
+    if (sellEngine != null) {
+      sellEngine.shutdown();
+    }
+    if (taxLedger != null) {
+      taxLedger.shutdown();
+    }
 
-    try {
-      Files.writeString(file.toPath(), currentLocationJson);
-    } catch (IOException e) {
-      throw new RuntimeException(e);
+    if (mineWorldManager != null) {
+      mineWorldManager.getSlotAllocator().save();
     }
 
     if (adventure != null) {
@@ -320,6 +362,12 @@ public class PrivateMines extends JavaPlugin {
             getDescription().getVersion()));
     saveMines();
     savePregenMines();
+    if (minePersistence != null) {
+      minePersistence.shutdown();
+    }
+    if (mineStore != null) {
+      mineStore.close();
+    }
   }
 
   public void setupSchematicUtils() {
@@ -340,157 +388,27 @@ public class PrivateMines extends JavaPlugin {
     return true;
   }
 
-  public void loadMines(boolean convert) {
-    final PathMatcher jsonMatcher = FileSystems.getDefault()
-        .getPathMatcher("glob:**/*.yml"); // Credits to Brister Mitten
-    Path path = getMinesDirectory();
-    Map<Material, Double> customMaterials = new HashMap<>();
-    var ref = new Object() {
-      Material material;
-    };
-
-    try (Stream<Path> paths = Files.walk(path).filter(jsonMatcher::matches)) {
-      paths.forEach(streamPath -> {
-        File file = streamPath.toFile();
-        Mine mine = new Mine(privateMines);
-        getLogger().info("Loading file " + file.getName() + "....");
-        YamlConfiguration yml = YamlConfiguration.loadConfiguration(file);
-
-        String ownerString = yml.getString("mineOwner");
-        UUID owner = null;
-        if (ownerString != null) {
-          owner = UUID.fromString(ownerString);
-        }
-        String mineTypeName = yml.getString("mineType");
-        MineType mineType = mineTypeManager.getMineType(mineTypeName);
-        Location corner1 = LocationUtils.fromString(yml.getString("corner1"));
-        Location corner2 = LocationUtils.fromString(yml.getString("corner2"));
-        Location fullRegionMin = LocationUtils.fromString(yml.getString("fullRegionMin"));
-        Location fullRegionMax = LocationUtils.fromString(yml.getString("fullRegionMax"));
-        Location spawn = LocationUtils.fromString(yml.getString("spawn"));
-        Location mineLocation = LocationUtils.fromString(yml.getString("mineLocation"));
-        boolean isOpen = yml.getBoolean("isOpen");
-        int maxPlayers = yml.getInt("maxPlayers");
-        int maxMineSize = yml.getInt("maxMineSize");
-
-        double tax = yml.getDouble("tax");
-        String materialsString = yml.getString("materials");
-
-        if (materialsString != null) {
-          materialsString = materialsString.substring(1, materialsString.length() - 1);
-          String[] pairs = materialsString.split(",");
-
-          Pattern materialRegex = Pattern.compile("[a-zA-Z]+_[a-zA-Z]+");
-          Pattern singleMaterialRegex = Pattern.compile("[a-zA-Z]+");
-          Pattern percentRegex = Pattern.compile("[0-9]+.[0-9]+");
-
-          for (String string : pairs) {
-            boolean containsUnderscore = string.contains("_");
-            Matcher materialMatcher = materialRegex.matcher(string);
-            Matcher singleMaterialMatcher = singleMaterialRegex.matcher(string);
-            Matcher percentPatcher = percentRegex.matcher(string);
-            if (containsUnderscore) {
-              if (materialMatcher.find()) {
-                matString = materialMatcher.group();
-                ref.material = Material.valueOf(matString);
-              }
-            } else {
-              if (singleMaterialMatcher.find()) {
-                matString = singleMaterialMatcher.group();
-                ref.material = Material.valueOf(matString);
-              }
-            }
-
-            if (percentPatcher.find()) {
-              percent = Double.parseDouble(percentPatcher.group());
-            }
-            customMaterials.put(ref.material, percent);
-          }
-
-          MineData mineData = null;
-          if (owner != null) {
-            mineData = new MineData(owner, corner1, corner2, fullRegionMin, fullRegionMax,
-                mineLocation, spawn, mineType, isOpen, tax);
-          }
-
-          if (!customMaterials.isEmpty()) {
-            mineData.setMaterials(customMaterials);
-          }
-          mineData.setMaxMineSize(mineType.getMaxMineSize());
-          mine.setMineData(mineData);
-          mineStorage.addMine(owner, mine);
-        } else {
-          MineData mineData = null;
-          if (owner != null) {
-            mineData = new MineData(owner, corner1, corner2, fullRegionMin, fullRegionMax,
-                mineLocation, spawn, mineType, isOpen, tax);
-          }
-          if (mineData != null) {
-            mineData.setMaxMineSize(mineType.getMaxMineSize());
-          }
-          mine.setMineData(mineData);
-          getLogger().info("mine type load log: " + mineData.getMineType());
-          mineStorage.addMine(owner, mine);
-          getLogger().info("Loaded file " + file.getName() + "!");
-        }
-      });
-    } catch (IOException e) {
-      throw new RuntimeException(e);
-    }
-
+  public void loadMines() {
+    new MineLoader(this).loadAll();
   }
 
   public void loadPregenMines() {
-    final PathMatcher jsonMatcher = FileSystems.getDefault()
-        .getPathMatcher("glob:**/*.yml"); // Credits to Brister Mitten
-    Path path = getPregenMines();
-
-    CompletableFuture.runAsync(() -> {
-      try (Stream<Path> paths = Files.walk(path).filter(jsonMatcher::matches)) {
-        paths.forEach(streamPath -> {
-          File file = streamPath.toFile();
-          getLogger().info("Loading pregen mine file: " + file);
-          YamlConfiguration yml = YamlConfiguration.loadConfiguration(file);
-
-          Location location = LocationUtils.fromString(yml.getString("location"));
-          Location spawnLocation = LocationUtils.fromString(yml.getString("spawnLocation"));
-          Location lowerRails = LocationUtils.fromString(yml.getString("lowerRails"));
-          Location upperRails = LocationUtils.fromString(yml.getString("upperRails"));
-          Location fullMin = LocationUtils.fromString(yml.getString("fullMin"));
-          Location fullMax = LocationUtils.fromString(yml.getString("fullMax"));
-
-          PregenMine pregenMine = new PregenMine();
-          pregenMine.setLocation(location);
-          pregenMine.setSpawnLocation(spawnLocation);
-          pregenMine.setLowerRails(lowerRails);
-          pregenMine.setUpperRails(upperRails);
-          pregenMine.setFullMin(fullMin);
-          pregenMine.setFullMax(fullMax);
-          pregenStorage.addMine(pregenMine);
-
-          try {
-            Files.delete(file.toPath());
-          } catch (IOException e) {
-            throw new RuntimeException(e);
-          }
-        });
-      } catch (IOException e) {
-        throw new RuntimeException(e);
-      }
-    });
+    pregenPool.load();
   }
 
   public void saveMines() {
     getMineStorage().getMines().forEach((uuid, mine) -> {
       Player player = Bukkit.getOfflinePlayer(uuid).getPlayer();
       if (player != null) {
-        mine.saveMineData(player, mine.getMineData());
+        minePersistence.markDirty(mine);
       }
     });
   }
 
   public void savePregenMines() {
-    getPregenStorage().getMines().forEach(PregenMine::save);
+    if (pregenPool != null) {
+      pregenPool.save();
+    }
   }
 
   public void loadAddons() {
@@ -604,6 +522,10 @@ public class PrivateMines extends JavaPlugin {
     return mineWorldManager;
   }
 
+  public MineChunkManager getMineChunkManager() {
+    return mineChunkManager;
+  }
+
   public Path getMinesDirectory() {
     return minesDirectory;
   }
@@ -624,26 +546,77 @@ public class PrivateMines extends JavaPlugin {
     return mineTypeManager;
   }
 
+  public MineResetScheduler getMineResetScheduler() {
+    return mineResetScheduler;
+  }
+
+  public MineOccupancy getMineOccupancy() {
+    return mineOccupancy;
+  }
+
+  public MinePatterns getMinePatterns() {
+    return minePatterns;
+  }
+
+  public PregenFactory getPregenFactory() {
+    return pregenFactory;
+  }
+
+  public PregenPool getPregenPool() {
+    return pregenPool;
+  }
+
+  public TaxLedger getTaxLedger() {
+    return taxLedger;
+  }
+
+  public SellEngine getSellEngine() {
+    return sellEngine;
+  }
+
+  public MinePersistence getMinePersistence() {
+    return minePersistence;
+  }
+
+  public MineStore getMineStore() {
+    return mineStore;
+  }
+
   public static Economy getEconomy() {
     return econ;
   }
 
   public void registerSellListener() {
     if (Bukkit.getPluginManager().isPluginEnabled("UltraPrisonCore")) {
-      getLogger().info("Registering Ultra Prison Core as the sell listener...");
-      getServer().getPluginManager().registerEvents(new UPCSellListener(), this);
+      if (Config.enableTax) {
+        getLogger().info("Registering Ultra Prison Core as the sell listener...");
+        getServer().getPluginManager().registerEvents(new UPCSellListener(), this);
+      }
       return;
     } else if (Bukkit.getPluginManager().isPluginEnabled("AutoSell")) {
-      getLogger().info("Registering AutoSell as the sell listener...");
-      getServer().getPluginManager().registerEvents(new AutoSellListener(), this);
+      if (Config.enableTax) {
+        getLogger().info("Registering AutoSell as the sell listener...");
+        getServer().getPluginManager().registerEvents(new AutoSellListener(), this);
+      }
       return;
     }
     getLogger().info("Using the internal sell system!");
+    this.internalSell = true;
+    getServer().getPluginManager().registerEvents(new InternalSellListener(), this);
+  }
+
+  /**
+   * @return whether the internal sell system is used, which is the case when neither
+   * UltraPrisonCore nor AutoSell is installed
+   */
+  public boolean isInternalSell() {
+    return internalSell;
   }
 
   private void registerListeners() {
-//    getServer().getPluginManager().registerEvents(new MaxPlayersListener(), this);
     getServer().getPluginManager().registerEvents(new MineResetListener(), this);
+    getServer().getPluginManager().registerEvents(new MinedBlocksListener(), this);
+    getServer().getPluginManager().registerEvents(new MineOccupancyListener(), this);
   }
 
   public SQLHelper getSqlHelper() {
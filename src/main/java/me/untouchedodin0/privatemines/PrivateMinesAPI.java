@@ -29,6 +29,7 @@ import org.bukkit.Location;
 
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class PrivateMinesAPI {
 
@@ -36,10 +37,21 @@ public class PrivateMinesAPI {
     MineStorage mineStorage = privateMines.getMineStorage();
     MineFactory mineFactory = privateMines.getMineFactory();
 
+    /**
+     * Gets the mine, the mine of an offline owner is read from its file and waited for. Use
+     * {@link #loadMine(UUID)} to not wait on the main thread.
+     */
     public Mine getMine(UUID uuid) {
         if (!mineStorage.hasMine(uuid)) return null;
         return mineStorage.get(uuid);
     }
+
+    /**
+     * Loads the mine if it isn't loaded yet, the future completes on the main thread.
+     */
+    public CompletableFuture<Mine> loadMine(UUID uuid) {
+        return mineStorage.load(uuid);
+    }
     public Mine getAtLocation(Location location) {
         return mineStorage.getClosest(location);
     }
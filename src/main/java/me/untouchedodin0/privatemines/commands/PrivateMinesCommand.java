@@ -25,12 +25,6 @@
 package me.untouchedodin0.privatemines.commands;
 
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,9 +32,7 @@ import java.util.Objects;
 import java.util.UUID;
 import me.untouchedodin0.kotlin.menu.Menu;
 import me.untouchedodin0.kotlin.mine.data.MineData;
-import me.untouchedodin0.kotlin.mine.pregen.PregenMine;
 import me.untouchedodin0.kotlin.mine.storage.MineStorage;
-import me.untouchedodin0.kotlin.mine.storage.PregenStorage;
 import me.untouchedodin0.kotlin.mine.type.MineType;
 import me.untouchedodin0.kotlin.utils.AudienceUtils;
 import me.untouchedodin0.privatemines.PrivateMines;
@@ -48,13 +40,13 @@ import me.untouchedodin0.privatemines.WorldBorderUtils;
 import me.untouchedodin0.privatemines.config.MenuConfig;
 import me.untouchedodin0.privatemines.config.MessagesConfig;
 import me.untouchedodin0.privatemines.factory.MineFactory;
-import me.untouchedodin0.privatemines.factory.PregenFactory;
 import me.untouchedodin0.privatemines.mine.Mine;
 import me.untouchedodin0.privatemines.mine.MineTypeManager;
-import me.untouchedodin0.privatemines.playershops.Shop;
-import me.untouchedodin0.privatemines.playershops.ShopBuilder;
+import me.untouchedodin0.privatemines.mine.reset.MineResetScheduler;
 import me.untouchedodin0.privatemines.utils.SQLUtils;
+import me.untouchedodin0.privatemines.utils.conversion.MineMigration;
 import me.untouchedodin0.privatemines.utils.inventory.PublicMinesMenu;
+import me.untouchedodin0.privatemines.utils.world.MineChunkManager;
 import me.untouchedodin0.privatemines.utils.world.MineWorldManager;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -68,8 +60,6 @@ import org.bukkit.entity.Player;
 import redempt.redlib.commandmanager.CommandHook;
 import redempt.redlib.misc.ChatPrompt;
 import redempt.redlib.misc.LocationUtils;
-import redempt.redlib.misc.Task;
-import redempt.redlib.sql.SQLHelper;
 
 @SuppressWarnings("unused")
 public class PrivateMinesCommand {
@@ -78,6 +68,7 @@ public class PrivateMinesCommand {
   MineStorage mineStorage = privateMines.getMineStorage();
   MineTypeManager mineTypeManager = privateMines.getMineTypeManager();
   AudienceUtils audienceUtils = new AudienceUtils();
+  MineMigration mineMigration = new MineMigration(privateMines);
 
   @CommandHook("main")
   public void main(CommandSender sender) {
@@ -91,8 +82,6 @@ public class PrivateMinesCommand {
   public void give(CommandSender commandSender, OfflinePlayer target, MineType mineType) {
     MineFactory mineFactory = new MineFactory();
     MineWorldManager mineWorldManager = privateMines.getMineWorldManager();
-    Location location = mineWorldManager.getNextFreeLocation();
-    mineWorldManager.setCurrentLocation(location);
     MineType defaultMineType = mineTypeManager.getDefaultMineType();
 
     if (target.getPlayer() != null) {
@@ -101,6 +90,7 @@ public class PrivateMinesCommand {
           audienceUtils.sendMessage(player, MessagesConfig.playerAlreadyOwnsAMine);
         }
       } else {
+        Location location = mineWorldManager.getNextFreeLocation();
         mineFactory.create(target.getPlayer(), location,
             Objects.requireNonNullElse(mineType, defaultMineType), true);
         if (commandSender instanceof Player player) {
@@ -117,13 +107,15 @@ public class PrivateMinesCommand {
         audienceUtils.sendMessage(player, MessagesConfig.playerDoesntOwnMine);
       }
     } else {
-      Mine mine = mineStorage.get(target.getUniqueId());
-      if (mine != null) {
-        mine.delete(true);
-        if (commandSender instanceof Player player) {
-          audienceUtils.sendMessage(player, target, MessagesConfig.deletedPlayersMine);
+      // The owner can be offline, their mine is loaded first if it isn't.
+      mineStorage.load(target.getUniqueId()).thenAccept(mine -> {
+        if (mine != null) {
+          mine.delete(true);
+          if (commandSender instanceof Player player) {
+            audienceUtils.sendMessage(player, target, MessagesConfig.deletedPlayersMine);
+          }
         }
-      }
+      });
     }
   }
 
@@ -194,11 +186,12 @@ public class PrivateMinesCommand {
     if (!mineStorage.hasMine(player.getUniqueId())) {
       audienceUtils.sendMessage(player, MessagesConfig.dontOwnMine);
     } else {
-      Mine mine = mineStorage.get(player.getUniqueId());
-      audienceUtils.sendMessage(player, MessagesConfig.teleportedToOwnMine);
-      if (mine != null) {
-        mine.teleport(player);
-      }
+      mineStorage.load(player.getUniqueId()).thenAccept(mine -> {
+        if (mine != null) {
+          mine.teleport(player);
+          audienceUtils.sendMessage(player, MessagesConfig.teleportedToOwnMine);
+        }
+      });
     }
   }
 
@@ -207,15 +200,17 @@ public class PrivateMinesCommand {
     if (!mineStorage.hasMine(target.getUniqueId())) {
       audienceUtils.sendMessage(player, MessagesConfig.playerDoesntOwnMine);
     } else {
-      Mine mine = mineStorage.get(target.getUniqueId());
-      if (mine != null) {
+      mineStorage.load(target.getUniqueId()).thenAccept(mine -> {
+        if (mine == null || !player.isOnline()) {
+          return;
+        }
         if (mine.getMineData().isOpen()) {
           mine.teleport(player);
           audienceUtils.sendMessage(player, target, MessagesConfig.visitingMine);
         } else {
           player.sendMessage(ChatColor.RED + "Mine closed!");
         }
-      }
+      });
     }
   }
 
@@ -236,6 +231,7 @@ public class PrivateMinesCommand {
       }
 
       mineData = mine.getMineData();
+      privateMines.getMinePatterns().invalidate(mineData.getMaterials());
       mineData.setMaterials(map);
       mine.setMineData(mineData);
       mine.saveMineData(target, mineData);
@@ -244,6 +240,26 @@ public class PrivateMinesCommand {
     }
   }
 
+  @CommandHook("sell")
+  public void sell(Player player) {
+    if (!privateMines.isInternalSell()) {
+      player.sendMessage(ChatColor.RED + "Selling is handled by another plugin on this server!");
+      return;
+    }
+    Mine mine = mineStorage.getAt(player.getLocation());
+    if (mine == null) {
+      player.sendMessage(ChatColor.RED + "You're not in any mines!");
+      return;
+    }
+
+    double earned = privateMines.getSellEngine().sellInventory(player, mine);
+    if (earned <= 0) {
+      player.sendMessage(ChatColor.RED + "You don't have anything this mine buys!");
+    } else {
+      player.sendMessage(ChatColor.GREEN + String.format("Sold your blocks for $%.2f!", earned));
+    }
+  }
+
   @CommandHook("tax")
   public void tax(Player player, double tax) {
     Mine mine = mineStorage.get(player);
@@ -362,6 +378,19 @@ public class PrivateMinesCommand {
     }
   }
 
+  @CommandHook("resetqueue")
+  public void resetQueue(CommandSender commandSender) {
+    MineResetScheduler mineResetScheduler = privateMines.getMineResetScheduler();
+    commandSender.sendMessage(ChatColor.GREEN + String.format(
+        "Scheduled mines: %d, resets due: %d, lag: %d ticks, progressive resets: %d, tick: %.1fms",
+        mineResetScheduler.getScheduledCount(), mineResetScheduler.getQueueDepth(),
+        mineResetScheduler.getLag(), mineResetScheduler.getProgressiveResetCount(),
+        mineResetScheduler.getAverageTickMillis()));
+    MineChunkManager mineChunkManager = privateMines.getMineChunkManager();
+    commandSender.sendMessage(ChatColor.GREEN + String.format("Chunks held: %d by %d operations",
+        mineChunkManager.getHeldChunks(), mineChunkManager.getLeaseCount()));
+  }
+
   @CommandHook("debug")
   public void debug(Player player) {
     PublicMinesMenu menu = new PublicMinesMenu();
@@ -370,9 +399,18 @@ public class PrivateMinesCommand {
   }
 
   @CommandHook("pregen")
-  public void pregen(Player player, int amount) {
-    PregenFactory pregenFactory = new PregenFactory();
-    pregenFactory.generate(player, amount);
+  public void pregen(CommandSender commandSender, int amount) {
+    privateMines.getPregenFactory().generate(commandSender, amount);
+  }
+
+  @CommandHook("pregenstatus")
+  public void pregenStatus(CommandSender commandSender) {
+    privateMines.getPregenFactory().sendStatus(commandSender);
+  }
+
+  @CommandHook("pregencancel")
+  public void pregenCancel(CommandSender commandSender) {
+    privateMines.getPregenFactory().cancel(commandSender);
   }
 
   @CommandHook("claim")
@@ -383,124 +421,21 @@ public class PrivateMinesCommand {
       player.sendMessage(ChatColor.RED + "You already own a mine!");
       return;
     }
-    PregenStorage pregenStorage = privateMines.getPregenStorage();
-    boolean isAllRedeemed = pregenStorage.isAllRedeemed();
-
-    if (isAllRedeemed) {
+    if (privateMines.getPregenPool().claim(player, mineTypeManager.getDefaultMineType())) {
+      audienceUtils.sendMessage(player, MessagesConfig.teleportedToOwnMine);
+    } else {
       player.sendMessage(ChatColor.RED + "All the mines have been redeemed, please contact an");
       player.sendMessage(ChatColor.RED + "admin and ask them to redeem some more mines!");
-    } else {
-      PregenMine pregenMine = pregenStorage.getAndRemove();
-
-      if (pregenMine != null) {
-        Location location = pregenMine.getLocation();
-        Location spawnLocation = pregenMine.getSpawnLocation();
-        Location lowerRails = pregenMine.getLowerRails();
-        Location upperRails = pregenMine.getUpperRails();
-        Location fullMin = pregenMine.getFullMin();
-        Location fullMax = pregenMine.getFullMax();
-        File file = pregenMine.getFile();
-
-        UUID uuid = player.getUniqueId();
-
-        if (spawnLocation != null) {
-          spawnLocation.getBlock().setType(Material.AIR);
-        }
-
-        MineType mineType = mineTypeManager.getDefaultMineType();
-
-        Map<Material, Double> prices = new HashMap<>();
-        Map<Material, Double> materials = mineType.getMaterials();
-        if (materials != null) {
-          prices.putAll(materials);
-        }
-        Shop shop = new ShopBuilder().setOwner(uuid).setPrices(prices).build();
-
-        Mine mine = new Mine(privateMines);
-        assert upperRails != null;
-        assert lowerRails != null;
-        assert fullMin != null;
-        assert fullMax != null;
-        assert location != null;
-        assert spawnLocation != null;
-
-        MineData mineData = new MineData(uuid, upperRails, lowerRails, fullMin, fullMax, location,
-            spawnLocation, mineType, shop);
-
-        mine.setMineData(mineData);
-        mine.saveMineData(player, mineData);
-        mineStorage.addMine(player.getUniqueId(), mine);
-        mine.reset();
-        mine.createWorldGuardRegions();
-
-        try {
-          if (file != null) {
-            Files.delete(file.toPath());
-          }
-        } catch (IOException e) {
-          throw new RuntimeException(e);
-        }
-
-        Task.syncDelayed(() -> pregenMine.teleport(player), 5L);
-        audienceUtils.sendMessage(player, MessagesConfig.teleportedToOwnMine);
-      }
     }
   }
 
   @CommandHook("convert")
   public void convert(Player player) {
-    player.sendMessage("" + ChatColor.RED + ChatColor.BOLD + "NOT WORKING YET!");
     ChatPrompt.prompt(player, ChatColor.YELLOW
         + "Are you sure you want to convert the mines to SQL? Type Yes to carry on the process "
         + "or No to cancel the process.", str -> {
       if (str.equalsIgnoreCase("Yes")) {
-        player.sendMessage(ChatColor.GREEN + "Starting conversion...");
-        SQLHelper sqlHelper = privateMines.getSqlHelper();
-        Connection connection = sqlHelper.getConnection();
-        String query = "INSERT INTO privatemines values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-        // 13
-
-        try {
-          PreparedStatement preparedStatement = connection.prepareStatement(query);
-          preparedStatement.setString(1, "1");
-          preparedStatement.setString(2, "2");
-          preparedStatement.setString(3, "3");
-          preparedStatement.setString(4, "4");
-          preparedStatement.setString(5, "5");
-          preparedStatement.setString(6, "6");
-          preparedStatement.setString(7, "7");
-          preparedStatement.setString(8, "8");
-          preparedStatement.setString(9, "9");
-          preparedStatement.setString(10, "10");
-          preparedStatement.setString(11, "11");
-          preparedStatement.setString(12, "12");
-          preparedStatement.setString(13, "13");
-
-          int res = preparedStatement.executeUpdate();
-
-//                    connection.commit();
-//                    connection.close();
-        } catch (SQLException e) {
-          throw new RuntimeException(e);
-        }
-
-        player.sendMessage("connection " + connection);
-
-        try {
-          connection.commit();
-          connection.close();
-        } catch (SQLException e) {
-          throw new RuntimeException(e);
-        }
-
-//                sqlHelper.executeUpdate("UPDATE privatemines SET mineOwner=? mineType=? mineLocation=? corner1=? corner2=? fullRegionMin=? fullRegionMax=? spawn=? tax=? isOpen=? maxPlayers=? maxMineSize=? materials=?", "owner", "type", "minelocation", "corner1", "corner2", "fullmin", "fullmax", "spawn", 5.0, false, 1, 1, "materials");
-//                sqlHelper.commit();
-//
-//                player.sendMessage("" + sqlHelper);
-//                sqlHelper.execute("INSERT INTO privatemines (mineOwner, mineType, mineLocation, corner1, corner2, fullRegionMin, fullRegionMax, spawn, tax, isOpen, maxPlayers, maxMineSize, materials) VALUES(mineOwner, mineType, mineLocation, corner1, corner2, fullRegionMin, fullRegionMax, spawn, tax, isOpen, maxPlayers, maxMineSize, materials);");
-
-//                privateMines.convertToSQL(player);
+        mineMigration.start(player);
       } else {
         player.sendMessage(ChatColor.RED + "Cancelled the process.");
       }
@@ -511,6 +446,7 @@ public class PrivateMinesCommand {
   public void reload(Player player) {
     privateMines.getConfigManager().reload();
     privateMines.getConfigManager().load();
+    privateMines.getMinePatterns().clear();
   }
 
   @CommandHook("setborder")
@@ -24,6 +24,7 @@
 
 package me.untouchedodin0.privatemines.config;
 
+import me.untouchedodin0.privatemines.storage.StorageType;
 import org.bukkit.Material;
 import redempt.redlib.config.annotations.Comment;
 
@@ -57,10 +58,52 @@ public class Config {
     public static boolean giveMineOnFirstJoin = false;
     @Comment("Used for giving mines before the server has released")
     public static boolean preLoginGiveMine = false;
+    @Comment("Should visitors be sent away when a mine is over its max players?")
+    @Comment("(A max players of 0 or less means the mine has no limit)")
+    public static boolean limitMinePlayers = false;
     @Comment("Should we only replace air blocks when the mine resets?")
+    @Comment("(Only the blocks mined since the last reset are refilled, blocks changed some other")
+    @Comment("way such as by explosions or other plugins stay until the next full reset)")
     public static boolean onlyReplaceAir = true;
+    @Comment("The amount of resets that only replace air before the whole mine is refilled again")
+    @Comment("(0 or less never refills the whole mine once it has been filled)")
+    public static int fullResetInterval = 10;
+    @Comment("The maximum amount of blocks the mine resets may change in a single tick")
+    @Comment("(Resets that don't fit are moved to the next tick, one reset always runs per tick)")
+    public static int resetBlocksPerTick = 100000;
+    @Comment("Should large mines be reset a few layers per tick from the top down?")
+    public static boolean progressiveReset = true;
+    @Comment("The amount of blocks a mine needs before it's reset progressively")
+    public static int progressiveResetMinimumVolume = 250000;
+    @Comment("The maximum amount of schematic blocks kept in memory for pasting mines")
+    public static int schematicCacheBlocks = 20000000;
+    @Comment("The amount of mines pasted at the same time by /privatemines pregen")
+    public static int pregenWorkers = 2;
+    @Comment("The amount of pregenerated mines of the default mine type kept ready, 0 turns it off")
+    public static int pregenPoolSize = 0;
+    @Comment("The pool is only refilled while a tick takes less milliseconds than this, 50 is 20 TPS")
+    public static double pregenPoolMaxTickMillis = 52.0;
+    @Comment("How often in seconds the changed mines are written to their files")
+    public static int saveInterval = 30;
+    @Comment("The amount of threads used to load the mine files, 0 uses one per CPU core")
+    public static int loadThreads = 0;
+    @Comment("Should the mines also be saved to a binary snapshot which loads much faster?")
+    @Comment("(The mine files are still used whenever they were changed since the snapshot)")
+    public static boolean mineSnapshot = true;
+    @Comment("Where the mines are saved, YAML or SQLITE")
+    @Comment("(Changing this doesn't move the existing mines, use /privatemines convert for that)")
+    public static StorageType storageType = StorageType.YAML;
+    @Comment("How many minutes the mine of an offline owner stays loaded after it was last used")
+    @Comment("(Set to 0 to keep every mine loaded all the time)")
+    public static int mineIdleEviction = 30;
+    @Comment("The amount of mines written per transaction by /privatemines convert")
+    public static int convertBatchSize = 500;
     @Comment("Should we upgrade the mine upon reaching the outside border?")
     public static boolean borderUpgrade = true;
+    @Comment("Should the mines world be protected by PrivateMines instead of WorldGuard regions?")
+    @Comment("(The regions are still created, turn off WorldGuard's region protection for the")
+    @Comment("mines world to skip its region lookups on every block change)")
+    public static boolean nativeProtection = false;
 
     @Comment("Which locale should we use?")
     public static String locale = "en_US";
@@ -72,6 +115,11 @@ public class Config {
     public static boolean enableTax = true;
     @Comment("Should we send tax messages to the owner of the mine?")
     public static boolean sendTaxMessages = true;
+    @Comment("How often in seconds the collected tax is paid out to the mine owners")
+    public static int taxSettleInterval = 60;
+    @Comment("Should blocks mined in a mine be sold straight away by the internal sell system?")
+    @Comment("(Only used when neither UltraPrisonCore nor AutoSell is installed)")
+    public static boolean internalAutoSell = false;
     @Comment("Should mines be closed by default?")
     public static boolean defaultClosed = true;
 }
@@ -29,9 +29,6 @@ import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
 import com.sk89q.worldedit.bukkit.adapter.UnsupportedVersionEditException;
 import com.sk89q.worldedit.extent.clipboard.Clipboard;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormat;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormats;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardReader;
 import com.sk89q.worldedit.function.operation.Operation;
 import com.sk89q.worldedit.function.operation.Operations;
 import com.sk89q.worldedit.function.pattern.Pattern;
@@ -43,15 +40,10 @@ import com.sk89q.worldedit.regions.selector.CuboidRegionSelector;
 import com.sk89q.worldedit.session.ClipboardHolder;
 import com.sk89q.worldedit.world.World;
 import com.sk89q.worldguard.WorldGuard;
-import com.sk89q.worldguard.protection.flags.Flag;
-import com.sk89q.worldguard.protection.flags.Flags;
-import com.sk89q.worldguard.protection.flags.InvalidFlagFormat;
-import com.sk89q.worldguard.protection.flags.registry.FlagRegistry;
 import com.sk89q.worldguard.protection.managers.RegionManager;
 import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
 import com.sk89q.worldguard.protection.regions.RegionContainer;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
@@ -67,12 +59,14 @@ import me.untouchedodin0.privatemines.PrivateMines;
 import me.untouchedodin0.privatemines.config.Config;
 import me.untouchedodin0.privatemines.events.PrivateMineCreationEvent;
 import me.untouchedodin0.privatemines.iterator.SchematicIterator;
+import me.untouchedodin0.privatemines.mine.FlagPlan;
 import me.untouchedodin0.privatemines.mine.Mine;
+import me.untouchedodin0.privatemines.mine.MineTypeManager;
 import me.untouchedodin0.privatemines.playershops.Shop;
 import me.untouchedodin0.privatemines.playershops.ShopBuilder;
 import me.untouchedodin0.privatemines.storage.SchematicStorage;
 import me.untouchedodin0.privatemines.utils.SQLUtils;
-import me.untouchedodin0.privatemines.utils.Utils;
+import me.untouchedodin0.privatemines.utils.world.MineChunkManager;
 import net.md_5.bungee.api.ChatColor;
 import net.md_5.bungee.api.chat.ClickEvent;
 import net.md_5.bungee.api.chat.TextComponent;
@@ -100,8 +94,9 @@ public class MineFactory {
     UUID uuid = player.getUniqueId();
     File schematicFile = new File("plugins/PrivateMines/schematics/" + mineType.getFile());
     Mine mine = new Mine(privateMines);
-    Map<String, Boolean> flags = mineType.getFlags();
-    Map<String, Boolean> fullFlags = mineType.getFullFlags();
+    MineTypeManager mineTypeManager = privateMines.getMineTypeManager();
+    FlagPlan flagPlan = mineTypeManager.getFlagPlan(mineType);
+    FlagPlan fullFlagPlan = mineTypeManager.getFullFlagPlan(mineType);
 
     Map<Material, Double> prices = new HashMap<>();
     int maxPlayers = mineType.getMaxPlayers();
@@ -120,7 +115,6 @@ public class MineFactory {
     String mineRegionName = String.format("mine-%s", player.getUniqueId());
     String fullRegionName = String.format("full-mine-%s", player.getUniqueId());
 
-    ClipboardFormat clipboardFormat = ClipboardFormats.findByFile(schematicFile);
     BlockVector3 vector = BlockVector3.at(location.getBlockX(), location.getBlockY(),
         location.getBlockZ());
 
@@ -128,9 +122,14 @@ public class MineFactory {
     SchematicIterator.MineBlocks mineBlocks = storage.getMineBlocksMap().get(schematicFile);
 
     Task.asyncDelayed(() -> {
-      if (clipboardFormat != null) {
-        try (ClipboardReader clipboardReader = clipboardFormat.getReader(
-            new FileInputStream(schematicFile))) {
+      try {
+        Clipboard clipboard = storage.getClipboard(schematicFile);
+        if (clipboard == null) {
+          return;
+        }
+        // Waiting here is fine, this runs off the main thread.
+        try (MineChunkManager.Lease chunks = privateMines.getMineChunkManager()
+            .acquire(MineChunkManager.getPasteRegion(location, clipboard)).join()) {
           World world = BukkitAdapter.adapt(Objects.requireNonNull(location.getWorld()));
           if (Bukkit.getPluginManager().isPluginEnabled("FastAsyncWorldEdit")) {
             editSession = WorldEdit.getInstance().newEditSessionBuilder().world(world)
@@ -140,7 +139,6 @@ public class MineFactory {
           }
           LocalSession localSession = new LocalSession();
 
-          Clipboard clipboard = clipboardReader.read();
           ClipboardHolder clipboardHolder = new ClipboardHolder(clipboard);
 
 //                    mb0|0,50,-150
@@ -225,6 +223,8 @@ public class MineFactory {
                 lrailsV, urailsV);
             ProtectedCuboidRegion fullWorldGuardRegion = new ProtectedCuboidRegion(fullRegionName,
                 newRegion.getMinimumPoint(), newRegion.getMaximumPoint());
+            flagPlan.apply(miningWorldGuardRegion);
+            fullFlagPlan.apply(fullWorldGuardRegion);
             RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
             RegionManager regionManager = container.get(world);
             if (regionManager != null) {
@@ -232,53 +232,6 @@ public class MineFactory {
               regionManager.addRegion(fullWorldGuardRegion);
             }
 
-            /**
-             This sadly has to be called synchronously else it'll throw a
-             {@link java.lang.IllegalStateException}
-             This is due to how WorldGuard handles their flags...
-             @see com.sk89q.worldguard.bukkit.protection.events.flags.FlagContextCreateEvent
-             */
-            Task.syncDelayed(() -> {
-              FlagRegistry flagRegistry = WorldGuard.getInstance().getFlagRegistry();
-
-              if (flags != null) {
-                flags.forEach((s, aBoolean) -> {
-                  Flag<?> flag = Flags.fuzzyMatchFlag(flagRegistry, s);
-                  if (aBoolean) {
-                    try {
-                      Utils.setFlag(miningWorldGuardRegion, flag, "allow");
-                    } catch (InvalidFlagFormat e) {
-                      e.printStackTrace();
-                    }
-                  } else {
-                    try {
-                      Utils.setFlag(miningWorldGuardRegion, flag, "deny");
-                    } catch (InvalidFlagFormat e) {
-                      e.printStackTrace();
-                    }
-                  }
-                });
-              }
-              if (fullFlags != null) {
-                fullFlags.forEach((string, aBoolean) -> {
-                  Flag<?> flag = Flags.fuzzyMatchFlag(flagRegistry, string);
-                  if (aBoolean) {
-                    try {
-                      Utils.setFlag(fullWorldGuardRegion, flag, "allow");
-                    } catch (InvalidFlagFormat e) {
-                      e.printStackTrace();
-                    }
-                  } else {
-                    try {
-                      Utils.setFlag(fullWorldGuardRegion, flag, "deny");
-                    } catch (InvalidFlagFormat e) {
-                      throw new RuntimeException(e);
-                    }
-                  }
-                });
-              }
-            });
-
             MineData mineData = new MineData(uuid, urailsL, lrailsL, fullMin, fullMax, location,
                 spawnL, mineType, shop);
             mineData.setMaxPlayers(maxPlayers);
@@ -325,9 +278,9 @@ public class MineFactory {
           });
           privateMines.getLogger().info("Mine creation time: " + microseconds + " milliseconds");
           SQLUtils.insert(mine);
-        } catch (IOException ioException) {
-          ioException.printStackTrace();
         }
+      } catch (IOException ioException) {
+        ioException.printStackTrace();
       }
     });
   }
@@ -337,7 +290,7 @@ public class MineFactory {
     UUID uuid = player.getUniqueId();
     File schematicFile = new File("plugins/PrivateMines/schematics/" + mineType.getFile());
     Mine mine = new Mine(privateMines);
-    Map<String, Boolean> flags = mineType.getFlags();
+    FlagPlan flagPlan = privateMines.getMineTypeManager().getFlagPlan(mineType);
     Map<Material, Double> prices = new HashMap<>();
     int maxPlayers = mineType.getMaxPlayers();
 
@@ -350,16 +303,15 @@ public class MineFactory {
     String mineRegionName = String.format("mine-%s", player.getUniqueId());
     String fullRegionName = String.format("mine-full-%s", player.getUniqueId());
 
-    ClipboardFormat clipboardFormat = ClipboardFormats.findByFile(schematicFile);
     BlockVector3 vector = BlockVector3.at(location.getBlockX(), location.getBlockY(),
         location.getBlockZ());
     SchematicStorage storage = privateMines.getSchematicStorage();
     SchematicIterator.MineBlocks mineBlocks = storage.getMineBlocksMap().get(schematicFile);
 
     Task.asyncDelayed(() -> {
-      if (clipboardFormat != null) {
-        try (ClipboardReader clipboardReader = clipboardFormat.getReader(
-            new FileInputStream(schematicFile))) {
+      try {
+        Clipboard clipboard = storage.getClipboard(schematicFile);
+        if (clipboard != null) {
           World world = BukkitAdapter.adapt(Objects.requireNonNull(location.getWorld()));
           if (Bukkit.getPluginManager().isPluginEnabled("FastAsyncWorldEdit")) {
             editSession = WorldEdit.getInstance().newEditSessionBuilder().world(world)
@@ -369,7 +321,6 @@ public class MineFactory {
           }
           LocalSession localSession = new LocalSession();
 
-          Clipboard clipboard = clipboardReader.read();
           ClipboardHolder clipboardHolder = new ClipboardHolder(clipboard);
 
 //                    mb0|0,50,-150
@@ -436,6 +387,7 @@ public class MineFactory {
                 lrailsV, urailsV);
             ProtectedCuboidRegion fullWorldGuardRegion = new ProtectedCuboidRegion(fullRegionName,
                 newRegion.getMinimumPoint(), newRegion.getMaximumPoint());
+            flagPlan.apply(miningWorldGuardRegion);
             RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
             RegionManager regionManager = container.get(world);
             if (regionManager != null) {
@@ -443,34 +395,6 @@ public class MineFactory {
               regionManager.addRegion(fullWorldGuardRegion);
             }
 
-            /**
-             This sadly has to be called synchronously else it'll throw a
-             {@link java.lang.IllegalStateException}
-             This is due to how WorldGuard handles their flags...
-             @see com.sk89q.worldguard.bukkit.protection.events.flags.FlagContextCreateEvent
-             */
-            Task.syncDelayed(() -> {
-              if (flags != null) {
-                flags.forEach((s, aBoolean) -> {
-                  Flag<?> flag = Flags.fuzzyMatchFlag(WorldGuard.getInstance().getFlagRegistry(),
-                      s);
-                  if (aBoolean) {
-                    try {
-                      Utils.setFlag(miningWorldGuardRegion, flag, "allow");
-                    } catch (InvalidFlagFormat e) {
-                      e.printStackTrace();
-                    }
-                  } else {
-                    try {
-                      Utils.setFlag(miningWorldGuardRegion, flag, "deny");
-                    } catch (InvalidFlagFormat e) {
-                      e.printStackTrace();
-                    }
-                  }
-                });
-              }
-            });
-
             MineData mineData = new MineData(uuid, urailsL, lrailsL, fullMin, fullMax, location,
                 spongeL, mineType, shop);
 
@@ -516,9 +440,9 @@ public class MineFactory {
             player.teleport(spongeL);
             Bukkit.getPluginManager().callEvent(privateMineCreationEvent);
           });
-        } catch (IOException ioException) {
-          ioException.printStackTrace();
         }
+      } catch (IOException ioException) {
+        ioException.printStackTrace();
       }
     });
     return mine;
@@ -22,15 +22,11 @@
 package me.untouchedodin0.privatemines.factory;
 
 import com.sk89q.worldedit.EditSession;
-import com.sk89q.worldedit.LocalSession;
 import com.sk89q.worldedit.WorldEdit;
 import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
 import com.sk89q.worldedit.bukkit.adapter.UnsupportedVersionEditException;
 import com.sk89q.worldedit.extent.clipboard.Clipboard;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormat;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormats;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardReader;
 import com.sk89q.worldedit.function.operation.Operation;
 import com.sk89q.worldedit.function.operation.Operations;
 import com.sk89q.worldedit.math.BlockVector3;
@@ -39,40 +35,59 @@ import com.sk89q.worldedit.regions.Region;
 import com.sk89q.worldedit.session.ClipboardHolder;
 import com.sk89q.worldedit.world.World;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 import me.untouchedodin0.kotlin.mine.pregen.PregenMine;
 import me.untouchedodin0.kotlin.mine.storage.PregenStorage;
 import me.untouchedodin0.kotlin.mine.type.MineType;
 import me.untouchedodin0.privatemines.PrivateMines;
+import me.untouchedodin0.privatemines.config.Config;
 import me.untouchedodin0.privatemines.iterator.SchematicIterator;
 import me.untouchedodin0.privatemines.mine.MineTypeManager;
 import me.untouchedodin0.privatemines.storage.SchematicStorage;
-import me.untouchedodin0.privatemines.utils.ChunkUtils;
+import me.untouchedodin0.privatemines.utils.world.MineChunkManager;
 import me.untouchedodin0.privatemines.utils.world.MineWorldManager;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.Chunk;
 import org.bukkit.Location;
-import org.bukkit.entity.Player;
+import org.bukkit.command.CommandSender;
 import redempt.redlib.misc.Task;
 
+/**
+ * Pastes pregenerated mines with at most {@link Config#pregenWorkers} pastes running at once.
+ * <p>
+ * The chunks a mine is pasted into are held through the {@link MineChunkManager} from right
+ * before its paste starts until it has finished, every paste uses its own EditSession. All the
+ * state of a run is only touched on the main thread, the pastes report back through
+ * {@link Task#syncDelayed}.
+ */
 public class PregenFactory {
 
   PrivateMines privateMines = PrivateMines.getPrivateMines();
-  EditSession editSession;
   MineWorldManager mineWorldManager = privateMines.getMineWorldManager();
+  MineChunkManager mineChunkManager = privateMines.getMineChunkManager();
   MineTypeManager mineTypeManager = privateMines.getMineTypeManager();
   PregenStorage pregenStorage = privateMines.getPregenStorage();
 
   List<Location> generatedLocations = new ArrayList<>();
-  AtomicInteger generated = new AtomicInteger(1);
 
+  private final Deque<Location> pending = new ArrayDeque<>();
+  private CommandSender requester;
+  private MineType mineType;
+  private boolean background;
+  private Task feeder;
+  private int total;
+  private int inFlight;
+  private int completed;
+  private int failed;
+  private long startedAt;
+  private boolean cancelled;
+  private Runnable next;
 
   public void generateLocations(int amount) {
     for (int i = 0; i < amount; i++) {
@@ -80,50 +95,257 @@ public class PregenFactory {
     }
   }
 
-  public void generate(Player player, int amount) {
-    long start = System.currentTimeMillis();
-    int correct = amount++;
+  public void generate(CommandSender sender, int amount) {
+    generate(sender, amount, mineTypeManager.getDefaultMineType(), false);
+  }
+
+  /**
+   * Pregenerates mines of the type.
+   *
+   * @param sender     who is told about the progress, can be null
+   * @param background if new pastes should only be started while the server isn't busy, see
+   *                   {@link Config#pregenPoolMaxTickMillis}. A run that isn't in the background
+   *                   stops a background run and starts once its pastes are done
+   */
+  public void generate(CommandSender sender, int amount, MineType mineType, boolean background) {
+    if (isRunning() && (background || !this.background)) {
+      if (sender != null) {
+        sender.sendMessage(ChatColor.RED + "Mines are already being generated, use "
+            + "/privatemines pregen status to check on them!");
+      }
+      return;
+    }
 
-    generateLocations(correct);
-    MineType defaultType = mineTypeManager.getDefaultMineType();
-    File schematicFile = new File("plugins/PrivateMines/schematics/" + defaultType.getFile());
+    File schematicFile = new File("plugins/PrivateMines/schematics/" + mineType.getFile());
 
     if (!schematicFile.exists()) {
       privateMines.getLogger().warning("Schematic file does not exist: " + schematicFile.getName());
       return;
     }
 
-    ClipboardFormat clipboardFormat = ClipboardFormats.findByFile(schematicFile);
     SchematicStorage schematicStorage = privateMines.getSchematicStorage();
     SchematicIterator.MineBlocks mineBlocks = schematicStorage.getMineBlocksMap()
         .get(schematicFile);
 
-    for (Location location : generatedLocations) {
-      Collection<Chunk> chunks = ChunkUtils.around(location.getChunk(), 25);
-
-      chunks.forEach(chunk -> {
-        chunk.load(true);
-        chunk.setForceLoaded(true);
-      });
-
-      BlockVector3 vector = BlockVector3.at(location.getBlockX(), location.getBlockY(),
-          location.getBlockZ());
-
-      Task.asyncDelayed(() -> {
-        if (clipboardFormat != null) {
-          try (ClipboardReader clipboardReader = clipboardFormat.getReader(
-              new FileInputStream(schematicFile))) {
-            World world = BukkitAdapter.adapt(Objects.requireNonNull(location.getWorld()));
-            if (Bukkit.getPluginManager().isPluginEnabled("FastAsyncWorldEdit")) {
-              editSession = WorldEdit.getInstance().newEditSessionBuilder().world(world)
-                  .fastMode(true).build();
-            } else {
-              editSession = WorldEdit.getInstance().newEditSession(world);
+    Task.asyncDelayed(() -> {
+      try {
+        Clipboard clipboard = schematicStorage.getClipboard(schematicFile);
+        if (clipboard != null) {
+          Task.syncDelayed(
+              () -> start(sender, amount, mineType, background, clipboard, mineBlocks));
+        }
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    });
+  }
+
+  /**
+   * Stops handing out new pastes, the pastes that are already running are left to finish.
+   */
+  public void cancel(CommandSender sender) {
+    if (!isRunning()) {
+      sender.sendMessage(ChatColor.RED + "No mines are being generated!");
+      return;
+    }
+    this.cancelled = true;
+    this.next = null;
+    dropPending();
+    sender.sendMessage(ChatColor.YELLOW + String.format(
+        "Cancelled the pregen, waiting for %d pastes to finish.", inFlight));
+  }
+
+  public void sendStatus(CommandSender sender) {
+    if (!isRunning()) {
+      sender.sendMessage(ChatColor.RED + "No mines are being generated!");
+      return;
+    }
+    sender.sendMessage(ChatColor.GREEN + String.format(
+        "Generated %d/%d mines, %d failed, %d pasting, %.1f mines/min, %d chunks held",
+        completed, total, failed, inFlight, getMinesPerMinute(),
+        mineChunkManager.getHeldChunks()));
+  }
+
+  /**
+   * Cancels the run, the chunks still held are released by the {@link MineChunkManager}.
+   */
+  public void shutdown() {
+    if (feeder != null) {
+      feeder.cancel();
+      this.feeder = null;
+    }
+    this.cancelled = true;
+    this.next = null;
+    pending.clear();
+  }
+
+  public boolean isRunning() {
+    return feeder != null;
+  }
+
+  public boolean isBackground() {
+    return isRunning() && background;
+  }
+
+  private void start(CommandSender sender, int amount, MineType mineType, boolean background,
+      Clipboard clipboard, SchematicIterator.MineBlocks mineBlocks) {
+    if (isRunning()) {
+      if (!background && this.background) {
+        // The background run only tops up the pool, it can carry on later.
+        this.cancelled = true;
+        dropPending();
+        this.next = () -> start(sender, amount, mineType, false, clipboard, mineBlocks);
+        if (sender != null) {
+          sender.sendMessage(ChatColor.YELLOW + String.format(
+              "Stopped the background pregen, starting once its %d pastes finish.", inFlight));
+        }
+      }
+      return;
+    }
+    generatedLocations.clear();
+    generateLocations(amount);
+    pending.addAll(generatedLocations);
+
+    this.requester = sender;
+    this.mineType = mineType;
+    this.background = background;
+    this.total = amount;
+    this.completed = 0;
+    this.failed = 0;
+    this.cancelled = false;
+    this.startedAt = System.currentTimeMillis();
+    this.feeder = Task.syncRepeating(() -> feed(clipboard, mineBlocks), 0L, 1L);
+  }
+
+  private void feed(Clipboard clipboard, SchematicIterator.MineBlocks mineBlocks) {
+    int workers = Math.max(1, Config.pregenWorkers);
+    boolean busy = background && privateMines.getMineResetScheduler().getAverageTickMillis()
+        > Config.pregenPoolMaxTickMillis;
+
+    while (!cancelled && !busy && inFlight < workers && !pending.isEmpty()) {
+      Location location = pending.poll();
+      inFlight++;
+
+      mineChunkManager.acquire(MineChunkManager.getPasteRegion(location, clipboard))
+          .whenComplete((lease, throwable) -> {
+            if (throwable != null) {
+              privateMines.getLogger().log(Level.WARNING,
+                  "Failed to load the chunks to pregen a mine at " + location, throwable);
+              Task.syncDelayed(() -> finish(location, null, null));
+              return;
             }
-            LocalSession localSession = new LocalSession();
+            Task.asyncDelayed(() -> {
+              PregenMine pregenMine = paste(location, clipboard, mineBlocks);
+              Task.syncDelayed(() -> finish(location, lease, pregenMine));
+            });
+          });
+    }
 
-            Clipboard clipboard = clipboardReader.read();
-            ClipboardHolder clipboardHolder = new ClipboardHolder(clipboard);
+    if (inFlight == 0 && (pending.isEmpty() || cancelled)) {
+      complete();
+    }
+  }
+
+  private void finish(Location location, MineChunkManager.Lease lease, PregenMine pregenMine) {
+    if (lease != null) {
+      lease.close();
+    }
+    inFlight--;
+
+    if (pregenMine == null) {
+      // The slot can be handed out again, the next paste there overwrites anything left behind.
+      mineWorldManager.releaseLocation(location);
+      failed++;
+      return;
+    }
+    pregenMine.setMineType(mineType.getName());
+    pregenStorage.addMine(pregenMine);
+    privateMines.getPregenPool().markDirty();
+    completed++;
+
+    int step = Math.max(1, total / 10);
+    if (requester != null && completed % step == 0 && completed != total) {
+      requester.sendMessage(ChatColor.GREEN + String.format("Generated %d/%d mines (%.1f mines/min)",
+          completed, total, getMinesPerMinute()));
+    }
+  }
+
+  private void complete() {
+    feeder.cancel();
+    this.feeder = null;
+
+    long time = System.currentTimeMillis() - startedAt;
+    long millis = time % 1000;
+    long second = (time / 1000) % 60;
+    long minute = (time / (1000 * 60)) % 60;
+    long hour = (time / (1000 * 60 * 60)) % 24;
+    String formatted = String.format("%02d:%02d:%02d.%d", hour, minute, second, millis);
+
+    String message = String.format("%s %d mines in %s (%.1f mines/min)",
+        cancelled ? "Cancelled after generating" : "Finished generating", completed, formatted,
+        getMinesPerMinute());
+    if (failed > 0) {
+      message += String.format(", %d failed", failed);
+    }
+    if (requester != null) {
+      requester.sendMessage(ChatColor.GREEN + message);
+    }
+    privateMines.getLogger().info(ChatColor.stripColor(message));
+
+    if (next != null) {
+      Runnable queued = next;
+      this.next = null;
+      queued.run();
+    }
+  }
+
+  /**
+   * Drops the locations that weren't pasted yet and gives their slots back.
+   */
+  private void dropPending() {
+    pending.forEach(mineWorldManager::releaseLocation);
+    pending.clear();
+  }
+
+  private double getMinesPerMinute() {
+    long elapsed = Math.max(1L, System.currentTimeMillis() - startedAt);
+    return completed * 60000.0 / elapsed;
+  }
+
+  /**
+   * Pastes the schematic at the location.
+   *
+   * @return the pregenerated mine or null if the paste failed
+   */
+  private PregenMine paste(Location location, Clipboard clipboard,
+      SchematicIterator.MineBlocks mineBlocks) {
+    BlockVector3 vector = BlockVector3.at(location.getBlockX(), location.getBlockY(),
+        location.getBlockZ());
+    World world = BukkitAdapter.adapt(Objects.requireNonNull(location.getWorld()));
+    ClipboardHolder clipboardHolder = new ClipboardHolder(clipboard);
+
+    EditSession editSession;
+    if (Bukkit.getPluginManager().isPluginEnabled("FastAsyncWorldEdit")) {
+      editSession = WorldEdit.getInstance().newEditSessionBuilder().world(world).fastMode(true)
+          .build();
+    } else {
+      editSession = WorldEdit.getInstance().newEditSession(world);
+    }
+
+    try (editSession) {
+      Operation operation = clipboardHolder.createPaste(editSession).to(vector)
+          .ignoreAirBlocks(true).build();
+      Operations.complete(operation);
+    } catch (WorldEditException worldEditException) {
+      if (worldEditException.getCause() instanceof UnsupportedVersionEditException) {
+        privateMines.getLogger().warning(
+            "WorldEdit version " + WorldEdit.getVersion() + " is not supported,"
+                + "if this issue persists, please try using FastAsyncWorldEdit.");
+      } else {
+        worldEditException.printStackTrace();
+      }
+      return null;
+    }
 
 //                    mb0|0,50,-150
 //                    mb1|13,48,-144
@@ -136,93 +358,50 @@ public class PregenFactory {
 //                    751,110,763 Lower Rails Sponge - mb0 + mb2 -> 763 - 0 +-12 = 751
 //                    776,138,735 Upper Rails Sponge - mb0 + mb1 -> 763 - 0 + 13 = 776
 
-            BlockVector3 lrailsV = vector.subtract(mineBlocks.getSpawnLocation())
-                .add(mineBlocks.getCorner2().add(0, 0, 1));
-            BlockVector3 urailsV = vector.subtract(mineBlocks.getSpawnLocation())
-                .add(mineBlocks.getCorner1().add(0, 0, 1));
-
-            BlockVector3 clipboardOffset = clipboard.getRegion().getMinimumPoint()
-                .subtract(clipboard.getOrigin());
-            Region region = clipboard.getRegion();
-
-            Vector3 min = vector.toVector3()
-                .add(clipboardHolder.getTransform().apply(clipboardOffset.toVector3()));
-            Vector3 max = min.add(clipboardHolder.getTransform()
-                .apply(region.getMaximumPoint().subtract(region.getMinimumPoint()).toVector3()));
-
-            Location spongeL = new Location(location.getWorld(), vector.getBlockX(),
-                vector.getBlockY(), vector.getBlockZ() + 1);
-
-            Location lrailsL = new Location(location.getWorld(), lrailsV.getBlockX(),
-                lrailsV.getBlockY(), lrailsV.getBlockZ());
-            Location urailsL = new Location(location.getWorld(), urailsV.getBlockX(),
-                urailsV.getBlockY(), urailsV.getBlockZ());
-
-            Location fullMinL = new Location(location.getWorld(), min.getBlockX(), min.getBlockY(),
-                min.getBlockZ());
-            Location fullMaxL = new Location(location.getWorld(), max.getBlockX(), max.getBlockY(),
-                max.getBlockZ());
-
-            PregenMine pregenMine = new PregenMine();
-
-            pregenMine.setLocation(location);
-            pregenMine.setSpawnLocation(spongeL);
-            pregenMine.setLowerRails(lrailsL);
-            pregenMine.setUpperRails(urailsL);
-            pregenMine.setFullMin(fullMinL);
-            pregenMine.setFullMax(fullMaxL);
-//                        pregenMine.save();
-
-            pregenStorage.addMine(pregenMine);
-
-            localSession.setClipboard(clipboardHolder);
-
-            Operation operation = clipboardHolder.createPaste(editSession).to(vector)
-                .ignoreAirBlocks(true).build();
-
-            try {
-              Operations.complete(operation);
-              editSession.close();
-            } catch (WorldEditException worldEditException) {
-              if (worldEditException.getCause() instanceof UnsupportedVersionEditException) {
-                privateMines.getLogger().warning(
-                    "WorldEdit version " + WorldEdit.getVersion() + " is not supported,"
-                        + "if this issue persists, please try using FastAsyncWorldEdit.");
-                return;
-              }
-              worldEditException.printStackTrace();
-            }
-          } catch (IOException e) {
-            throw new RuntimeException(e);
-          }
-        }
-      });
-
-      player.sendMessage(
-          ChatColor.GREEN + "Finished Generating Mine #" + generated.getAndIncrement());
-    }
-
-    if (generated.get() == amount) {
-      long finished = System.currentTimeMillis();
-      long time = finished - start;
-
-      long millis = time % 1000;
-      long second = (time / 1000) % 60;
-      long minute = (time / (1000 * 60)) % 60;
-      long hour = (time / (1000 * 60 * 60)) % 24;
-      String formatted = String.format("%02d:%02d:%02d.%d", hour, minute, second, millis);
-      player.sendMessage(
-          ChatColor.GREEN + String.format("Finished generating the mines in %s!", formatted));
-    }
+    BlockVector3 lrailsV = vector.subtract(mineBlocks.getSpawnLocation())
+        .add(mineBlocks.getCorner2().add(0, 0, 1));
+    BlockVector3 urailsV = vector.subtract(mineBlocks.getSpawnLocation())
+        .add(mineBlocks.getCorner1().add(0, 0, 1));
+
+    BlockVector3 clipboardOffset = clipboard.getRegion().getMinimumPoint()
+        .subtract(clipboard.getOrigin());
+    Region region = clipboard.getRegion();
+
+    Vector3 min = vector.toVector3()
+        .add(clipboardHolder.getTransform().apply(clipboardOffset.toVector3()));
+    Vector3 max = min.add(clipboardHolder.getTransform()
+        .apply(region.getMaximumPoint().subtract(region.getMinimumPoint()).toVector3()));
+
+    Location spongeL = new Location(location.getWorld(), vector.getBlockX(),
+        vector.getBlockY(), vector.getBlockZ() + 1);
+
+    Location lrailsL = new Location(location.getWorld(), lrailsV.getBlockX(),
+        lrailsV.getBlockY(), lrailsV.getBlockZ());
+    Location urailsL = new Location(location.getWorld(), urailsV.getBlockX(),
+        urailsV.getBlockY(), urailsV.getBlockZ());
+
+    Location fullMinL = new Location(location.getWorld(), min.getBlockX(), min.getBlockY(),
+        min.getBlockZ());
+    Location fullMaxL = new Location(location.getWorld(), max.getBlockX(), max.getBlockY(),
+        max.getBlockZ());
+
+    PregenMine pregenMine = new PregenMine();
+
+    pregenMine.setLocation(location);
+    pregenMine.setSpawnLocation(spongeL);
+    pregenMine.setLowerRails(lrailsL);
+    pregenMine.setUpperRails(urailsL);
+    pregenMine.setFullMin(fullMinL);
+    pregenMine.setFullMax(fullMaxL);
+    return pregenMine;
   }
 
   public void purge() {
-    pregenStorage.getMines().clear();
+    pregenStorage.clear();
+    privateMines.getPregenPool().markDirty();
   }
 
   public List<Location> getGeneratedLocations() {
     return generatedLocations;
   }
 }
-
-
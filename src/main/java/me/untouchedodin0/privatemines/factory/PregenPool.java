@@ -0,0 +1,328 @@
+package me.untouchedodin0.privatemines.factory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import me.untouchedodin0.kotlin.mine.data.BlockBox;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.kotlin.mine.pregen.PregenMine;
+import me.untouchedodin0.kotlin.mine.storage.PregenStorage;
+import me.untouchedodin0.kotlin.mine.type.MineType;
+import me.untouchedodin0.privatemines.PrivateMines;
+import me.untouchedodin0.privatemines.config.Config;
+import me.untouchedodin0.privatemines.mine.Mine;
+import me.untouchedodin0.privatemines.mine.MineTypeManager;
+import me.untouchedodin0.privatemines.playershops.Shop;
+import me.untouchedodin0.privatemines.playershops.ShopBuilder;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import redempt.redlib.misc.LocationUtils;
+import redempt.redlib.misc.Task;
+
+/**
+ * Keeps a stock of pregenerated mines of the default mine type, the only type mines are handed out
+ * as, so a mine can be given straight away instead of being pasted while the player waits.
+ * <p>
+ * Every few seconds the pool checks if fewer than {@link Config#pregenPoolSize} mines are ready
+ * and has the {@link PregenFactory} paste the missing ones in the background, which only starts
+ * new pastes while the average tick takes less than {@link Config#pregenPoolMaxTickMillis}.
+ * <p>
+ * The ready mines are kept in one binary file holding the mine type and six packed block positions
+ * per mine. It's rewritten off the main thread whenever the pool changes.
+ */
+public class PregenPool {
+
+  private static final int VERSION = 1;
+  private static final long CHECK_INTERVAL = 200L;
+
+  private final PrivateMines privateMines;
+  private final Path file;
+  private final AtomicBoolean saveQueued = new AtomicBoolean();
+  private volatile boolean loaded;
+  private Task task;
+
+  public PregenPool(PrivateMines privateMines) {
+    this.privateMines = privateMines;
+    this.file = privateMines.getDataFolder().toPath().resolve("pregen.dat");
+  }
+
+  public void start() {
+    if (task == null && Config.pregenPoolSize > 0) {
+      this.task = Task.syncRepeating(this::refill, CHECK_INTERVAL, CHECK_INTERVAL);
+    }
+  }
+
+  public void stop() {
+    if (task != null) {
+      task.cancel();
+      this.task = null;
+    }
+  }
+
+  private void refill() {
+    PregenFactory pregenFactory = privateMines.getPregenFactory();
+    if (!loaded || pregenFactory.isRunning()
+        || privateMines.getMineResetScheduler().getAverageTickMillis()
+        > Config.pregenPoolMaxTickMillis) {
+      return;
+    }
+
+    MineTypeManager mineTypeManager = privateMines.getMineTypeManager();
+    if (mineTypeManager.getMineTypes().isEmpty()) {
+      return;
+    }
+    MineType mineType = mineTypeManager.getDefaultMineType();
+    int missing = Config.pregenPoolSize - privateMines.getPregenStorage().count(mineType.getName());
+    File schematicFile = new File("plugins/PrivateMines/schematics/" + mineType.getFile());
+    if (missing > 0 && schematicFile.exists()) {
+      pregenFactory.generate(null, missing, mineType, true);
+    }
+  }
+
+  /**
+   * Gives the player a ready mine of the type.
+   *
+   * @return false if there was no mine of the type left
+   */
+  public boolean claim(Player player, MineType mineType) {
+    PregenStorage pregenStorage = privateMines.getPregenStorage();
+    MineTypeManager mineTypeManager = privateMines.getMineTypeManager();
+
+    PregenMine pregenMine;
+    while ((pregenMine = pregenStorage.getAndRemove(mineType.getName())) != null) {
+      markDirty();
+      Location location = pregenMine.getLocation();
+      Location spawnLocation = pregenMine.getSpawnLocation();
+      Location lowerRails = pregenMine.getLowerRails();
+      Location upperRails = pregenMine.getUpperRails();
+      Location fullMin = pregenMine.getFullMin();
+      Location fullMax = pregenMine.getFullMax();
+      if (location == null || spawnLocation == null || lowerRails == null || upperRails == null
+          || fullMin == null || fullMax == null) {
+        privateMines.getLogger().warning("Skipped a pregenerated mine with missing locations");
+        continue;
+      }
+
+      MineType type = mineType;
+      if (pregenMine.getMineType() != null) {
+        MineType pasted = mineTypeManager.getMineType(pregenMine.getMineType());
+        if (pasted != null) {
+          type = pasted;
+        }
+      }
+
+      UUID uuid = player.getUniqueId();
+      Map<Material, Double> prices = new HashMap<>();
+      if (type.getMaterials() != null) {
+        prices.putAll(type.getMaterials());
+      }
+      Shop shop = new ShopBuilder().setOwner(uuid).setPrices(prices).build();
+
+      spawnLocation.getBlock().setType(Material.AIR);
+
+      MineData mineData = new MineData(uuid, upperRails, lowerRails, fullMin, fullMax, location,
+          spawnLocation, type);
+      mineData.setShop(shop);
+      mineData.setMaxPlayers(type.getMaxPlayers());
+      mineData.setOpen(!Config.defaultClosed);
+
+      Mine mine = new Mine(privateMines);
+      mine.setMineData(mineData);
+      mine.saveMineData(player, mineData);
+      privateMines.getMineStorage().addMine(uuid, mine);
+      mine.reset();
+      mine.createWorldGuardRegions();
+
+      PregenMine claimed = pregenMine;
+      Task.syncDelayed(() -> claimed.teleport(player), 5L);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Loads the pool off the main thread, mines still saved as one file each by older versions are
+   * moved into it. A file that can't be read is moved aside so it isn't overwritten by the next
+   * save.
+   */
+  public CompletableFuture<Void> load() {
+    return CompletableFuture.runAsync(() -> {
+      PregenStorage pregenStorage = privateMines.getPregenStorage();
+      try {
+        if (Files.exists(file)) {
+          read().forEach(pregenStorage::addMine);
+        }
+        List<PregenMine> legacy = readLegacy(privateMines.getPregenMines());
+        if (!legacy.isEmpty()) {
+          legacy.forEach(pregenStorage::addMine);
+          save();
+          deleteLegacy(privateMines.getPregenMines());
+          privateMines.getLogger().info(String.format(
+              "Moved %d pregenerated mines into %s", legacy.size(), file.getFileName()));
+        }
+        this.loaded = true;
+      } catch (IOException e) {
+        privateMines.getLogger().log(Level.SEVERE, "Failed to load the pregenerated mines", e);
+        moveAside();
+      }
+    });
+  }
+
+  private void moveAside() {
+    Path broken = file.resolveSibling(file.getFileName() + ".broken");
+    try {
+      if (Files.exists(file)) {
+        Files.move(file, broken, StandardCopyOption.REPLACE_EXISTING);
+        privateMines.getLogger().warning(String.format("Moved %s to %s, the pool starts out empty",
+            file.getFileName(), broken.getFileName()));
+      }
+      this.loaded = true;
+    } catch (IOException e) {
+      privateMines.getLogger().log(Level.SEVERE, String.format(
+          "Failed to move %s aside, the pool won't be saved", file.getFileName()), e);
+    }
+  }
+
+  public void markDirty() {
+    if (saveQueued.compareAndSet(false, true)) {
+      Task.asyncDelayed(this::save);
+    }
+  }
+
+  /**
+   * Writes the pool now, the writes queued by {@link #markDirty()} end up doing the same.
+   */
+  public synchronized void save() {
+    saveQueued.set(false);
+    // Saving before the file was read would drop the mines in it.
+    if (!loaded) {
+      return;
+    }
+
+    List<PregenMine> mines = privateMines.getPregenStorage().getMines();
+    World world = privateMines.getMineWorldManager().getMinesWorld();
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (DataOutputStream output = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(temp)))) {
+      output.writeInt(VERSION);
+      output.writeUTF(world.getName());
+      output.writeInt(mines.size());
+      for (PregenMine pregenMine : mines) {
+        output.writeUTF(pregenMine.getMineType() == null ? "" : pregenMine.getMineType());
+        writeLocation(output, pregenMine.getLocation());
+        writeLocation(output, pregenMine.getSpawnLocation());
+        writeLocation(output, pregenMine.getLowerRails());
+        writeLocation(output, pregenMine.getUpperRails());
+        writeLocation(output, pregenMine.getFullMin());
+        writeLocation(output, pregenMine.getFullMax());
+      }
+    } catch (IOException e) {
+      privateMines.getLogger().log(Level.SEVERE, "Failed to save the pregenerated mines", e);
+      return;
+    }
+
+    try {
+      try {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      privateMines.getLogger().log(Level.SEVERE, "Failed to save the pregenerated mines", e);
+    }
+  }
+
+  private List<PregenMine> read() throws IOException {
+    try (DataInputStream input = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      int version = input.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unknown pregen file version " + version);
+      }
+      World world = Bukkit.getWorld(input.readUTF());
+      if (world == null) {
+        world = privateMines.getMineWorldManager().getMinesWorld();
+      }
+
+      int count = input.readInt();
+      List<PregenMine> mines = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        PregenMine pregenMine = new PregenMine();
+        String mineType = input.readUTF();
+        pregenMine.setMineType(mineType.isEmpty() ? null : mineType);
+        pregenMine.setLocation(readLocation(input, world));
+        pregenMine.setSpawnLocation(readLocation(input, world));
+        pregenMine.setLowerRails(readLocation(input, world));
+        pregenMine.setUpperRails(readLocation(input, world));
+        pregenMine.setFullMin(readLocation(input, world));
+        pregenMine.setFullMax(readLocation(input, world));
+        mines.add(pregenMine);
+      }
+      return mines;
+    }
+  }
+
+  private static List<PregenMine> readLegacy(Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> paths = Files.list(directory)) {
+      return paths.filter(path -> path.getFileName().toString().endsWith(".yml")).map(path -> {
+        YamlConfiguration yml = YamlConfiguration.loadConfiguration(path.toFile());
+        PregenMine pregenMine = new PregenMine();
+        pregenMine.setLocation(LocationUtils.fromString(yml.getString("location")));
+        pregenMine.setSpawnLocation(LocationUtils.fromString(yml.getString("spawnLocation")));
+        pregenMine.setLowerRails(LocationUtils.fromString(yml.getString("lowerRails")));
+        pregenMine.setUpperRails(LocationUtils.fromString(yml.getString("upperRails")));
+        pregenMine.setFullMin(LocationUtils.fromString(yml.getString("fullMin")));
+        pregenMine.setFullMax(LocationUtils.fromString(yml.getString("fullMax")));
+        return pregenMine;
+      }).collect(Collectors.toList());
+    }
+  }
+
+  private static void deleteLegacy(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.list(directory)) {
+      for (Path path : paths.filter(path -> path.getFileName().toString().endsWith(".yml"))
+          .toList()) {
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+
+  private static void writeLocation(DataOutputStream output, Location location)
+      throws IOException {
+    output.writeLong(location == null ? Long.MIN_VALUE : BlockBox.pack(location));
+  }
+
+  private static Location readLocation(DataInputStream input, World world) throws IOException {
+    long packed = input.readLong();
+    if (packed == Long.MIN_VALUE) {
+      return null;
+    }
+    return new Location(world, BlockBox.unpackX(packed), BlockBox.unpackY(packed),
+        BlockBox.unpackZ(packed));
+  }
+}
@@ -22,13 +22,9 @@
 package me.untouchedodin0.privatemines.iterator;
 
 import com.sk89q.worldedit.extent.clipboard.Clipboard;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormat;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormats;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardReader;
 import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.world.block.BlockType;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import me.untouchedodin0.privatemines.config.Config;
 import me.untouchedodin0.privatemines.storage.SchematicStorage;
@@ -52,13 +48,9 @@ public class SchematicIterator {
     MineBlocks mineBlocks = new MineBlocks();
     mineBlocks.corners = new BlockVector3[2];
 
-    Clipboard clipboard;
-    ClipboardFormat clipboardFormat = ClipboardFormats.findByFile(file);
-
-    if (clipboardFormat != null) {
-      try (ClipboardReader clipboardReader = clipboardFormat.getReader(new FileInputStream(file))) {
-        clipboard = clipboardReader.read();
-
+    try {
+      Clipboard clipboard = schematicStorage.getClipboard(file);
+      if (clipboard != null) {
         Material cornerMaterial = Config.mineCorner;
         Material spawnMaterial = Config.spawnPoint;
         Material npcMaterial = Config.sellNpc;
@@ -111,9 +103,9 @@ public class SchematicIterator {
         quarry = null;
         corner1 = null;
         corner2 = null;
-      } catch (IOException e) {
-        e.printStackTrace();
       }
+    } catch (IOException e) {
+      e.printStackTrace();
     }
     return mineBlocks;
   }
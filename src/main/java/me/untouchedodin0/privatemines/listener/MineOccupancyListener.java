@@ -0,0 +1,54 @@
+package me.untouchedodin0.privatemines.listener;
+
+import me.untouchedodin0.privatemines.PrivateMines;
+import me.untouchedodin0.privatemines.mine.MineOccupancy;
+import org.bukkit.Location;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+public class MineOccupancyListener implements Listener {
+
+  PrivateMines privateMines = PrivateMines.getPrivateMines();
+  MineOccupancy mineOccupancy = privateMines.getMineOccupancy();
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onMove(PlayerMoveEvent event) {
+    Location from = event.getFrom();
+    Location to = event.getTo();
+
+    // Most move events are the player turning their head or moving within the same block.
+    if (to == null || (from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY()
+        && from.getBlockZ() == to.getBlockZ() && from.getWorld() == to.getWorld())) {
+      return;
+    }
+    mineOccupancy.update(event.getPlayer(), to);
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onTeleport(PlayerTeleportEvent event) {
+    if (event.getTo() != null) {
+      mineOccupancy.update(event.getPlayer(), event.getTo());
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onRespawn(PlayerRespawnEvent event) {
+    mineOccupancy.update(event.getPlayer(), event.getRespawnLocation());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onJoin(PlayerJoinEvent event) {
+    mineOccupancy.update(event.getPlayer(), event.getPlayer().getLocation());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onQuit(PlayerQuitEvent event) {
+    mineOccupancy.remove(event.getPlayer());
+  }
+}
@@ -0,0 +1,91 @@
+package me.untouchedodin0.privatemines.listener;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.kotlin.mine.storage.MineStorage;
+import me.untouchedodin0.privatemines.PrivateMines;
+import me.untouchedodin0.privatemines.mine.Mine;
+import me.untouchedodin0.privatemines.utils.world.MineWorldManager;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+
+/**
+ * Protects the mines world without going through WorldGuard's region queries, used when
+ * nativeProtection is turned on.
+ * <p>
+ * The mines never overlap, so the mine at a block comes straight from the grid index of the mine
+ * storage. Inside the mining region the owner, their friends and, while the mine is open, anyone
+ * who isn't banned may break blocks, placing them also needs the mine type to allow block-place.
+ * The rest of the full region is the mine structure and nothing outside the mines can be changed
+ * either. Players with {@value #BYPASS_PERMISSION} aren't checked.
+ */
+public class MineProtectionListener implements Listener {
+
+  public static final String BYPASS_PERMISSION = "privatemines.protection.bypass";
+
+  PrivateMines privateMines = PrivateMines.getPrivateMines();
+  MineStorage mineStorage = privateMines.getMineStorage();
+  MineWorldManager mineWorldManager = privateMines.getMineWorldManager();
+
+  @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+  public void onBlockBreak(BlockBreakEvent event) {
+    if (!canChange(event.getPlayer(), event.getBlock(), false)) {
+      event.setCancelled(true);
+    }
+  }
+
+  @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+  public void onBlockPlace(BlockPlaceEvent event) {
+    if (!canChange(event.getPlayer(), event.getBlock(), true)) {
+      event.setCancelled(true);
+    }
+  }
+
+  private boolean canChange(Player player, Block block, boolean place) {
+    World world = block.getWorld();
+    if (!Objects.equals(world, mineWorldManager.getMinesWorld())
+        || player.hasPermission(BYPASS_PERMISSION)) {
+      return true;
+    }
+
+    int x = block.getX();
+    int y = block.getY();
+    int z = block.getZ();
+    UUID owner = mineStorage.getOwnerAt(x, y, z);
+    // Nobody can have been let in while the mine wasn't loaded, it's loaded for the next try.
+    Mine mine = owner == null ? null : mineStorage.getLoaded(owner);
+    return canChange(player.getUniqueId(), mine == null ? null : mine.getMineData(), x, y, z,
+        place);
+  }
+
+  /**
+   * @param mineData the loaded mine whose full region contains the block, null if there's no mine
+   * or it isn't loaded
+   */
+  static boolean canChange(UUID player, MineData mineData, int x, int y, int z, boolean place) {
+    if (mineData == null || !mineData.getMiningRegion().contains(x, y, z)
+        || !hasAccess(player, mineData)) {
+      return false;
+    }
+    if (place) {
+      Map<String, Boolean> flags = mineData.getMineType().getFlags();
+      return flags != null && Boolean.TRUE.equals(flags.get("block-place"));
+    }
+    return true;
+  }
+
+  static boolean hasAccess(UUID player, MineData mineData) {
+    if (player.equals(mineData.getMineOwner()) || mineData.getFriends().contains(player)) {
+      return true;
+    }
+    return mineData.isOpen() && !mineData.getBannedPlayers().contains(player);
+  }
+}
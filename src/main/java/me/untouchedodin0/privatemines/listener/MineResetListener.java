@@ -46,7 +46,6 @@ public class MineResetListener implements Listener {
 
       if (mine != null) {
         mine.startResetTask();
-        mine.startPercentageTask();
       }
     }
   }
@@ -0,0 +1,67 @@
+package me.untouchedodin0.privatemines.listener;
+
+import java.util.List;
+import java.util.Objects;
+import me.untouchedodin0.kotlin.mine.storage.MineStorage;
+import me.untouchedodin0.privatemines.PrivateMines;
+import me.untouchedodin0.privatemines.mine.Mine;
+import me.untouchedodin0.privatemines.utils.world.MineWorldManager;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+
+public class MinedBlocksListener implements Listener {
+
+  PrivateMines privateMines = PrivateMines.getPrivateMines();
+  MineStorage mineStorage = privateMines.getMineStorage();
+  MineWorldManager mineWorldManager = privateMines.getMineWorldManager();
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockBreak(BlockBreakEvent event) {
+    markMined(event.getBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockPlace(BlockPlaceEvent event) {
+    Block block = event.getBlock();
+    Mine mine = getMine(block);
+    if (mine != null) {
+      mine.handleBlockPlaced(block.getX(), block.getY(), block.getZ());
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockExplode(BlockExplodeEvent event) {
+    markMined(event.blockList());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onEntityExplode(EntityExplodeEvent event) {
+    markMined(event.blockList());
+  }
+
+  private void markMined(List<Block> blocks) {
+    for (Block block : blocks) {
+      markMined(block);
+    }
+  }
+
+  private void markMined(Block block) {
+    Mine mine = getMine(block);
+    if (mine != null) {
+      mine.handleBlockMined(block.getX(), block.getY(), block.getZ());
+    }
+  }
+
+  private Mine getMine(Block block) {
+    if (!Objects.equals(block.getWorld(), mineWorldManager.getMinesWorld())) {
+      return null;
+    }
+    return mineStorage.getClosest(block.getLocation());
+  }
+}
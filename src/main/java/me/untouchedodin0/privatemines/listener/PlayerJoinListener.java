@@ -49,14 +49,16 @@ public class PlayerJoinListener implements Listener {
 
     if (Config.giveMineOnFirstJoin) {
       Player player = playerJoinEvent.getPlayer();
-      Location location = mineWorldManager.getNextFreeLocation();
       MineType defaultMineType = mineTypeManager.getDefaultMineType();
 
       if (mineStorage.hasMine(player)) {
         return;
       }
 
-      mineFactory.create(player, location, defaultMineType, true);
+      if (!privateMines.getPregenPool().claim(player, defaultMineType)) {
+        Location location = mineWorldManager.getNextFreeLocation();
+        mineFactory.create(player, location, defaultMineType, true);
+      }
     }
   }
 }
@@ -29,12 +29,9 @@ import me.clip.autosell.events.SellAllEvent;
 import me.untouchedodin0.kotlin.mine.data.MineData;
 import me.untouchedodin0.kotlin.mine.storage.MineStorage;
 import me.untouchedodin0.privatemines.PrivateMines;
-import me.untouchedodin0.privatemines.config.Config;
 import me.untouchedodin0.privatemines.mine.Mine;
+import me.untouchedodin0.privatemines.mine.TaxLedger;
 import me.untouchedodin0.privatemines.utils.world.MineWorldManager;
-import net.milkbowl.vault.economy.Economy;
-import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
@@ -45,10 +42,10 @@ public class AutoSellListener implements Listener {
     PrivateMines privateMines = PrivateMines.getPrivateMines();
     MineStorage mineStorage = privateMines.getMineStorage();
     MineWorldManager mineWorldManager = privateMines.getMineWorldManager();
+    TaxLedger taxLedger = privateMines.getTaxLedger();
 
     @EventHandler
     public void sellAll(SellAllEvent sellAllEvent) {
-        Economy economy = PrivateMines.getEconomy();
         Player player = sellAllEvent.getPlayer();
         Location location = player.getLocation();
         World playerWorld = player.getWorld();
@@ -57,27 +54,20 @@ public class AutoSellListener implements Listener {
         if (playerWorld != minesWorld) return;
 
         Mine mine = mineStorage.getClosest(location);
+        if (mine == null) return;
 
         MineData mineData = mine.getMineData();
-        Player owner = Bukkit.getOfflinePlayer(mineData.getMineOwner()).getPlayer();
-        if (player.equals(owner)) return;
+        if (player.getUniqueId().equals(mineData.getMineOwner())) return;
 
         double tax = sellAllEvent.getTotalCost() / 100.0 * mineData.getTax();
         double sellPrice = sellAllEvent.getTotalCost();
         double afterTax = sellPrice - tax;
         sellAllEvent.setTotalCost(afterTax);
-        economy.depositPlayer(owner, tax);
-
-        if (Config.sendTaxMessages) {
-            if (owner != null) {
-                owner.sendMessage(ChatColor.GREEN + "You've received $" + tax + " in taxes from " + player.getDisplayName() + ChatColor.GREEN + "!");
-            }
-        }
+        taxLedger.record(mineData.getMineOwner(), tax);
     }
 
     @EventHandler
     public void onAutoSell(AutoSellEvent autoSellEvent) {
-        Economy economy = PrivateMines.getEconomy();
         Player player = autoSellEvent.getPlayer();
         Location location = player.getLocation();
 
@@ -90,19 +80,12 @@ public class AutoSellListener implements Listener {
         if (mine == null) return;
 
         MineData mineData = mine.getMineData();
-        Player owner = Bukkit.getOfflinePlayer(mineData.getMineOwner()).getPlayer();
-        if (player.equals(owner)) return;
+        if (player.getUniqueId().equals(mineData.getMineOwner())) return;
 
         double tax = autoSellEvent.getPrice() / 100.0 * mineData.getTax();
         double sellPrice = autoSellEvent.getPrice();
         double afterTax = sellPrice - tax;
         autoSellEvent.setMultiplier(afterTax);
-        economy.depositPlayer(owner, tax);
-
-        if (Config.sendTaxMessages) {
-            if (owner != null) {
-                owner.sendMessage(ChatColor.GREEN + "You've received $" + tax + " in taxes from " + player.getDisplayName() + ChatColor.GREEN + "!");
-            }
-        }
+        taxLedger.record(mineData.getMineOwner(), tax);
     }
 }
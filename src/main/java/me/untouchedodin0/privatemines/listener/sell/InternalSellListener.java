@@ -0,0 +1,50 @@
+package me.untouchedodin0.privatemines.listener.sell;
+
+import me.untouchedodin0.kotlin.mine.storage.MineStorage;
+import me.untouchedodin0.privatemines.PrivateMines;
+import me.untouchedodin0.privatemines.config.Config;
+import me.untouchedodin0.privatemines.mine.Mine;
+import me.untouchedodin0.privatemines.playershops.SellEngine;
+import me.untouchedodin0.privatemines.utils.world.MineWorldManager;
+import org.bukkit.GameMode;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+
+import java.util.UUID;
+
+/**
+ * Sells the blocks players mine in a mining region straight away instead of dropping them, when
+ * internalAutoSell is turned on and the internal sell system is used.
+ */
+public class InternalSellListener implements Listener {
+    PrivateMines privateMines = PrivateMines.getPrivateMines();
+    MineStorage mineStorage = privateMines.getMineStorage();
+    MineWorldManager mineWorldManager = privateMines.getMineWorldManager();
+    SellEngine sellEngine = privateMines.getSellEngine();
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        if (!Config.internalAutoSell) return;
+
+        Block block = event.getBlock();
+        Player player = event.getPlayer();
+        if (block.getWorld() != mineWorldManager.getMinesWorld() || player.getGameMode() == GameMode.CREATIVE) return;
+
+        int x = block.getX();
+        int y = block.getY();
+        int z = block.getZ();
+        UUID owner = mineStorage.getOwnerAt(x, y, z);
+        if (owner == null) return;
+
+        Mine mine = mineStorage.getLoaded(owner);
+        if (mine == null || !mine.getMineData().getMiningRegion().contains(x, y, z)) return;
+
+        if (sellEngine.sellBlock(player, mine, block.getType())) {
+            event.setDropItems(false);
+        }
+    }
+}
@@ -32,9 +32,9 @@ import me.untouchedodin0.kotlin.mine.storage.MineStorage;
 import me.untouchedodin0.privatemines.PrivateMines;
 import me.untouchedodin0.privatemines.config.Config;
 import me.untouchedodin0.privatemines.mine.Mine;
+import me.untouchedodin0.privatemines.mine.TaxLedger;
 import me.untouchedodin0.privatemines.utils.world.MineWorldManager;
-import net.milkbowl.vault.economy.Economy;
-import org.bukkit.*;
+import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -43,90 +43,76 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Takes the tax of the mine a player is in off everything they sell through UltraPrisonCore.
+ * <p>
+ * The tax of a sale is worked out in locals only, so the events can be handled at the same time
+ * if UltraPrisonCore fires them off the main thread, and the owner gets paid through the
+ * {@link TaxLedger}.
+ */
 public class UPCSellListener implements Listener {
     PrivateMines privateMines = PrivateMines.getPrivateMines();
     MineStorage mineStorage = privateMines.getMineStorage();
     MineWorldManager mineWorldManager = privateMines.getMineWorldManager();
-    double taxForOwner = 0;
+    TaxLedger taxLedger = privateMines.getTaxLedger();
 
     @EventHandler
     public void onSellAll(UltraPrisonSellAllEvent sellAllEvent) {
-        Player player = sellAllEvent.getPlayer();
-        Location playerLocation = player.getLocation();
-        World playerWorld = player.getWorld();
-        World minesWorld = mineWorldManager.getMinesWorld();
+        Map<AutoSellItemStack, Double> taxed = tax(sellAllEvent.getPlayer(), sellAllEvent.getItemsToSell());
+        if (taxed != null) {
+            sellAllEvent.setItemsToSell(taxed);
+        }
+    }
+
+    @EventHandler
+    public void onAutoSell(UltraPrisonAutoSellEvent autoSellEvent) {
+        Map<AutoSellItemStack, Double> taxed = tax(autoSellEvent.getPlayer(), autoSellEvent.getItemsToSell());
+        if (taxed != null) {
+            autoSellEvent.setItemsToSell(taxed);
+        }
+    }
 
-        if (playerWorld != minesWorld) return;
+    /**
+     * @return the prices with the tax taken off, or null if the sale isn't taxed
+     */
+    private Map<AutoSellItemStack, Double> tax(Player player, Map<AutoSellItemStack, Double> items) {
+        if (items == null || items.isEmpty() || player.getWorld() != mineWorldManager.getMinesWorld()) {
+            return null;
+        }
 
-        Mine mine = mineStorage.getClosest(playerLocation);
-        if (mine == null) return;
+        Mine mine = mineStorage.getClosest(player.getLocation());
+        if (mine == null) return null;
 
         MineData mineData = mine.getMineData();
-        Economy economy = PrivateMines.getEconomy();
         UUID owner = mineData.getMineOwner();
-        OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(owner);
-        String sellerName = player.getDisplayName();
-
-        Map<AutoSellItemStack, Double> items = sellAllEvent.getItemsToSell();
-        Map<AutoSellItemStack, Double> itemsToSell = new HashMap<>();
+        double rate = mineData.getTax() / 100.0;
+        // The owner would only be paying themselves.
+        if (rate <= 0 || player.getUniqueId().equals(owner)) return null;
 
-        items.forEach((autoSellItemStack, aDouble) -> {
-            double tax = aDouble / 100.0 * mineData.getTax();
-            double removed = aDouble - tax;
-            itemsToSell.put(autoSellItemStack, removed);
-            taxForOwner = taxForOwner + tax;
-        });
-        sellAllEvent.setItemsToSell(itemsToSell);
-        economy.depositPlayer(offlinePlayer, taxForOwner);
+        Map<AutoSellItemStack, Double> taxed = new HashMap<>(items.size() * 4 / 3 + 1);
+        double total = takeTax(items, rate, taxed);
+        taxLedger.record(owner, total);
 
         if (Config.sendTaxMessages) {
-            player.sendMessage(ChatColor.GREEN + String.format(ChatColor.GREEN + "Deducted $%f for the owner of the mine!", taxForOwner));
-            if (offlinePlayer.getPlayer() != null) {
-                offlinePlayer.getPlayer().sendMessage(ChatColor.GREEN + String.format(ChatColor.GREEN + "You've received $%f from %s"
-                        + ChatColor.GREEN + "!", taxForOwner, sellerName));
-            }
+            player.sendMessage(ChatColor.GREEN + String.format("Deducted $%.2f for the owner of the mine!", total));
         }
-        taxForOwner = 0;
+        return taxed;
     }
 
-    @EventHandler
-    public void onAutoSell(UltraPrisonAutoSellEvent autoSellEvent) {
-        Player player = autoSellEvent.getPlayer();
-        Location playerLocation = player.getLocation();
-        World playerWorld = player.getWorld();
-        World minesWorld = mineWorldManager.getMinesWorld();
-
-        if (playerWorld != minesWorld) return;
-
-        Mine mine = mineStorage.getClosest(playerLocation);
-
-        if (mine != null) {
-            MineData mineData = mine.getMineData();
-            Economy economy = PrivateMines.getEconomy();
-            UUID owner = mineData.getMineOwner();
-            OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(owner);
-            String sellerName = player.getDisplayName();
-
-            Map<AutoSellItemStack, Double> items = autoSellEvent.getItemsToSell();
-            Map<AutoSellItemStack, Double> itemsToSell = new HashMap<>();
-
-            items.forEach((autoSellItemStack, aDouble) -> {
-                double tax = aDouble / 100.0 * mineData.getTax();
-                double removed = aDouble - tax;
-                itemsToSell.put(autoSellItemStack, removed);
-                taxForOwner = taxForOwner + tax;
-            });
-            autoSellEvent.setItemsToSell(itemsToSell);
-            economy.depositPlayer(offlinePlayer, taxForOwner);
-            if (Config.sendTaxMessages) {
-                player.sendMessage(ChatColor.GREEN + String.format(ChatColor.GREEN + "Deducted $%f for the owner of the mine!", taxForOwner));
-                if (offlinePlayer.getPlayer() != null) {
-                    offlinePlayer.getPlayer().sendMessage(ChatColor.GREEN + String.format(ChatColor.GREEN + "You've received $%f from %s"
-                            + ChatColor.GREEN + "!", taxForOwner, sellerName));
-                }
-            }
-            taxForOwner = 0;
+    /**
+     * Takes the rate off every price.
+     *
+     * @param taxed gets the prices with the tax taken off
+     * @return the tax taken off all the prices together
+     */
+    static <K> double takeTax(Map<K, Double> prices, double rate, Map<K, Double> taxed) {
+        double total = 0;
+        for (Map.Entry<K, Double> entry : prices.entrySet()) {
+            double price = entry.getValue();
+            double tax = price * rate;
+            taxed.put(entry.getKey(), price - tax);
+            total += tax;
         }
+        return total;
     }
 }
-
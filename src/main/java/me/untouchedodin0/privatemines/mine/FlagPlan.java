@@ -0,0 +1,90 @@
+package me.untouchedodin0.privatemines.mine;
+
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.flags.Flag;
+import com.sk89q.worldguard.protection.flags.FlagContext;
+import com.sk89q.worldguard.protection.flags.Flags;
+import com.sk89q.worldguard.protection.flags.InvalidFlagFormat;
+import com.sk89q.worldguard.protection.flags.registry.FlagRegistry;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * The WorldGuard flags of a mine type, looked up and parsed once when the mine types are loaded.
+ * <p>
+ * Parsing a flag fires WorldGuard's flag context event which has to happen on the main thread,
+ * setting an already parsed value doesn't so a plan can be applied to a region from any thread
+ * before the region is added to the region manager.
+ */
+public final class FlagPlan {
+
+  public static final FlagPlan EMPTY = new FlagPlan(List.of());
+
+  private final List<Entry<?>> entries;
+
+  private FlagPlan(List<Entry<?>> entries) {
+    this.entries = entries;
+  }
+
+  /**
+   * Resolves the flags of a mine type, flags that don't exist or can't be parsed are logged and
+   * left out.
+   *
+   * @param flags the flag names mapped to if they're allowed, can be null
+   */
+  public static FlagPlan compile(Logger logger, String mineType, Map<String, Boolean> flags) {
+    if (flags == null || flags.isEmpty()) {
+      return EMPTY;
+    }
+
+    FlagRegistry flagRegistry = WorldGuard.getInstance().getFlagRegistry();
+    List<Entry<?>> entries = new ArrayList<>(flags.size());
+    flags.forEach((name, allow) -> {
+      Flag<?> flag = Flags.fuzzyMatchFlag(flagRegistry, name);
+      if (flag == null) {
+        logger.warning(String.format("Mine type %s has an unknown flag %s", mineType, name));
+        return;
+      }
+      try {
+        entries.add(parse(flag, allow ? "allow" : "deny"));
+      } catch (InvalidFlagFormat e) {
+        logger.warning(String.format("Mine type %s has an invalid value for the flag %s: %s",
+            mineType, name, e.getMessage()));
+      }
+    });
+    return new FlagPlan(List.copyOf(entries));
+  }
+
+  private static <V> Entry<V> parse(Flag<V> flag, String input) throws InvalidFlagFormat {
+    V value = flag.parseInput(FlagContext.create().setInput(input).build());
+    return new Entry<>(flag, value);
+  }
+
+  public void apply(ProtectedRegion region) {
+    for (Entry<?> entry : entries) {
+      entry.apply(region);
+    }
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private static final class Entry<V> {
+
+    private final Flag<V> flag;
+    private final V value;
+
+    private Entry(Flag<V> flag, V value) {
+      this.flag = flag;
+      this.value = value;
+    }
+
+    private void apply(ProtectedRegion region) {
+      region.setFlag(flag, value);
+    }
+  }
+}
@@ -29,30 +29,22 @@ import com.sk89q.worldedit.function.pattern.RandomPattern;
 import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.regions.CuboidRegion;
 import com.sk89q.worldedit.regions.Region;
-import com.sk89q.worldedit.world.block.BaseBlock;
 import com.sk89q.worldedit.world.block.BlockTypes;
 import com.sk89q.worldguard.WorldGuard;
-import com.sk89q.worldguard.protection.flags.Flag;
-import com.sk89q.worldguard.protection.flags.Flags;
-import com.sk89q.worldguard.protection.flags.InvalidFlagFormat;
-import com.sk89q.worldguard.protection.flags.registry.FlagRegistry;
 import com.sk89q.worldguard.protection.managers.RegionManager;
 import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
 import com.sk89q.worldguard.protection.regions.RegionContainer;
 import io.papermc.lib.PaperLib;
 import java.io.File;
-import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import me.untouchedodin0.kotlin.mine.data.BlockBox;
 import me.untouchedodin0.kotlin.mine.data.MineData;
-import me.untouchedodin0.kotlin.mine.storage.MineStorage;
 import me.untouchedodin0.kotlin.mine.type.MineType;
 import me.untouchedodin0.privatemines.PrivateMines;
 import me.untouchedodin0.privatemines.config.Config;
@@ -61,8 +53,12 @@ import me.untouchedodin0.privatemines.events.PrivateMineExpandEvent;
 import me.untouchedodin0.privatemines.events.PrivateMineResetEvent;
 import me.untouchedodin0.privatemines.events.PrivateMineUpgradeEvent;
 import me.untouchedodin0.privatemines.factory.MineFactory;
+import me.untouchedodin0.privatemines.mine.reset.MineResetScheduler;
+import me.untouchedodin0.privatemines.mine.reset.MinedBlockTracker;
+import me.untouchedodin0.privatemines.mine.reset.ProgressiveReset;
+import me.untouchedodin0.privatemines.storage.MinePersistence;
 import me.untouchedodin0.privatemines.utils.ExpansionUtils;
-import me.untouchedodin0.privatemines.utils.Utils;
+import me.untouchedodin0.privatemines.utils.world.MineChunkManager;
 import me.untouchedodin0.privatemines.utils.world.MineWorldManager;
 import net.milkbowl.vault.economy.Economy;
 import org.bukkit.Bukkit;
@@ -71,9 +67,7 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.World;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
-import redempt.redlib.misc.LocationUtils;
 import redempt.redlib.misc.Task;
 
 public class Mine {
@@ -82,8 +76,8 @@ public class Mine {
   private BlockVector3 location;
   private MineData mineData;
   private boolean canExpand = true;
-  private Task task;
-  private Task percentageTask;
+  private MinedBlockTracker minedBlocks;
+  private ProgressiveReset progressiveReset;
 
   public Mine(PrivateMines privateMines) {
     this.privateMines = privateMines;
@@ -98,7 +92,9 @@ public class Mine {
   }
 
   public Location getSpawnLocation() {
-    return mineData.getSpawnLocation().clone().add(0.5, 0.5, 0.5);
+    long spawn = mineData.getSpawnPosition();
+    return new Location(mineData.getWorld(), BlockBox.unpackX(spawn) + 0.5,
+        BlockBox.unpackY(spawn) + 0.5, BlockBox.unpackZ(spawn) + 0.5);
   }
 
   public MineData getMineData() {
@@ -109,44 +105,61 @@ public class Mine {
     this.mineData = mineData;
   }
 
+  /**
+   * Gets the tracker of the blocks that have been mined since the last reset, the tracker is
+   * rebuilt whenever the mining region changes size.
+   */
+  public MinedBlockTracker getMinedBlocks() {
+    BlockBox miningRegion = mineData.getMiningRegion();
+    if (minedBlocks == null || !minedBlocks.covers(miningRegion)) {
+      this.minedBlocks = new MinedBlockTracker(miningRegion);
+    }
+    return minedBlocks;
+  }
+
   public void teleport(Player player) {
-    if (getSpawnLocation().getBlock().getType().isBlock()) {
-      getSpawnLocation().getBlock().setType(Material.AIR, false);
+    Location spawnLocation = getSpawnLocation();
+    if (spawnLocation.getBlock().getType().isBlock()) {
+      spawnLocation.getBlock().setType(Material.AIR, false);
       if (PaperLib.isPaper()) {
-        PaperLib.teleportAsync(player, getSpawnLocation());
+        PaperLib.teleportAsync(player, spawnLocation);
       } else {
-        player.teleport(getSpawnLocation());
+        player.teleport(spawnLocation);
       }
     }
   }
 
-  public void delete(boolean removeStructure) {
+  /**
+   * Deletes the mine.
+   *
+   * @return a future completed once the structure is cleared and its slot of the grid is given
+   * back, or straight away when the structure is kept. It completes with false when the deletion
+   * was cancelled
+   */
+  public CompletableFuture<Boolean> delete(boolean removeStructure) {
     UUID uuid = getMineData().getMineOwner();
     PrivateMineDeleteEvent privateMineDeleteEvent = new PrivateMineDeleteEvent(uuid, this);
     Bukkit.getPluginManager().callEvent(privateMineDeleteEvent);
 
     if (privateMineDeleteEvent.isCancelled()) {
-      return;
+      return CompletableFuture.completedFuture(false);
     }
 
-    if (task != null) {
-      task.cancel();
-    }
-    if (percentageTask != null) {
-      percentageTask.cancel();
+    stopTasks();
+    if (progressiveReset != null) {
+      progressiveReset.cancel();
     }
     MineData mineData = getMineData();
 
-    Location corner1 = mineData.getMinimumFullRegion();
-    BlockVector3 corner1BV3 = BukkitAdapter.asBlockVector(mineData.getMinimumFullRegion());
-    BlockVector3 corner2BV3 = BukkitAdapter.asBlockVector(mineData.getMaximumFullRegion());
+    BlockVector3 corner1BV3 = mineData.getFullRegion().getMinimumPoint();
+    BlockVector3 corner2BV3 = mineData.getFullRegion().getMaximumPoint();
 
     Player player = Bukkit.getOfflinePlayer(uuid).getPlayer();
     String regionName = String.format("mine-%s", Objects.requireNonNull(player).getUniqueId());
     String fullRegionName = String.format("full-mine-%s",
         Objects.requireNonNull(player).getUniqueId());
 
-    World world = corner1.getWorld();
+    World world = mineData.getWorld();
     RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
     RegionManager regionManager = container.get(BukkitAdapter.adapt(Objects.requireNonNull(world)));
     Objects.requireNonNull(regionManager).removeRegion(regionName);
@@ -158,27 +171,36 @@ public class Mine {
     Pattern air = BukkitAdapter.adapt(Material.AIR.createBlockData());
     randomPattern.add(air, 1.0);
 
+    CompletableFuture<Boolean> removed = CompletableFuture.completedFuture(true);
     if (removeStructure) {
-      try (EditSession editSession = WorldEdit.getInstance().newEditSessionBuilder()
-          .world(BukkitAdapter.adapt(world)).fastMode(true).build()) {
-        Region region = new CuboidRegion(BukkitAdapter.adapt(world), corner1BV3, corner2BV3);
-        editSession.setBlocks(region, randomPattern);
-      }
+      Location mineLocation = mineData.getMineLocation();
+      CompletableFuture<MineChunkManager.Lease> chunks = privateMines.getMineChunkManager()
+          .acquire(mineData.getFullRegion());
+      removed = chunks.thenApply(lease -> {
+        try (lease; EditSession editSession = WorldEdit.getInstance().newEditSessionBuilder()
+            .world(BukkitAdapter.adapt(world)).fastMode(true).build()) {
+          Region region = new CuboidRegion(BukkitAdapter.adapt(world), corner1BV3, corner2BV3);
+          editSession.setBlocks(region, randomPattern);
+        }
 
-      Instant filled = Instant.now();
-      Duration durationToFill = Duration.between(start, filled);
+        Instant filled = Instant.now();
+        Duration durationToFill = Duration.between(start, filled);
 
-      long durationInMS = TimeUnit.NANOSECONDS.toMillis(durationToFill.toNanos());
+        long durationInMS = TimeUnit.NANOSECONDS.toMillis(durationToFill.toNanos());
 
-      privateMines.getLogger().info(String.format("It took %dms to reset the mine", durationInMS));
+        privateMines.getLogger()
+            .info(String.format("It took %dms to reset the mine", durationInMS));
+        // Only handed out again once the old structure is gone.
+        privateMines.getMineWorldManager().releaseLocation(mineLocation);
+        return true;
+      });
+      logFailure(removed, "delete");
     }
 
     privateMines.getMineStorage().removeMine(uuid);
-    String fileName = String.format("/%s.yml", uuid);
-    File minesDirectory = privateMines.getMinesDirectory().toFile();
-    File file = new File(minesDirectory + fileName);
-
-    file.delete();
+    privateMines.getMineOccupancy().clear(this);
+    privateMines.getMinePersistence().delete(uuid);
+    return removed;
   }
 
   /**
@@ -234,132 +256,172 @@ public class Mine {
 //        }
   }
 
-  public void reset() {
+  /**
+   * Resets the mine. Large mines are reset progressively a few layers per tick when
+   * {@link Config#progressiveReset} is enabled, the returned future completes once every block
+   * has been placed. Calling this while a progressive reset is still running returns that reset's
+   * future instead of starting another one.
+   */
+  public CompletableFuture<Void> reset() {
+    if (progressiveReset != null && !progressiveReset.isDone()) {
+      return progressiveReset.getFuture();
+    }
+
     MineData mineData = getMineData();
-    MineType mineType = mineData.getMineType();
-    Location location = mineData.getMinimumMining();
-    BlockVector3 corner1 = BukkitAdapter.asBlockVector(mineData.getMinimumMining());
-    BlockVector3 corner2 = BukkitAdapter.asBlockVector(mineData.getMaximumMining());
+    BlockVector3 corner1 = mineData.getMiningRegion().getMinimumPoint();
+    BlockVector3 corner2 = mineData.getMiningRegion().getMaximumPoint();
 
-    Map<Material, Double> materials = mineType.getMaterials();
-    Map<Material, Double> mineBlocks = mineData.getMaterials();
-
-    final RandomPattern randomPattern = new RandomPattern();
+    final Pattern pattern = privateMines.getMinePatterns().getPattern(mineData);
 
     PrivateMineResetEvent privateMineResetEvent = new PrivateMineResetEvent(mineData.getMineOwner(),
         this);
-    Task.syncDelayed(() -> Bukkit.getPluginManager().callEvent(privateMineResetEvent));
-
-    if (privateMineResetEvent.isCancelled()) {
-      return;
+    if (Bukkit.isPrimaryThread()) {
+      Bukkit.getPluginManager().callEvent(privateMineResetEvent);
+    } else {
+      Task.syncDelayed(() -> Bukkit.getPluginManager().callEvent(privateMineResetEvent));
     }
 
-    if (!mineBlocks.isEmpty()) {
-      mineBlocks.forEach((material, chance) -> {
-        Pattern pattern = BukkitAdapter.adapt(material.createBlockData());
-        randomPattern.add(pattern, chance);
-      });
-    } else {
-      if (materials != null) {
-        materials.forEach((material, chance) -> {
-          Pattern pattern = BukkitAdapter.adapt(material.createBlockData());
-          randomPattern.add(pattern, chance);
-        });
-      }
+    if (privateMineResetEvent.isCancelled() || pattern == null) {
+      return CompletableFuture.completedFuture(null);
     }
 
     final MineWorldManager mineWorldManager = privateMines.getMineWorldManager();
 
-    World world = location.getWorld();
+    World world = mineData.getWorld();
     World privateMinesWorld = mineWorldManager.getMinesWorld();
 
     Region region = new CuboidRegion(BukkitAdapter.adapt(world), corner1, corner2);
 
-    Player player = Bukkit.getPlayer(mineData.getMineOwner());
-    if (player != null && player.isOnline()) {
-      boolean isPlayerInRegion = region.contains(player.getLocation().getBlockX(),
-          player.getLocation().getBlockY(), player.getLocation().getBlockZ());
-      boolean inWorld = player.getWorld().equals(privateMinesWorld);
-
-      if (isPlayerInRegion && inWorld) {
-        teleport(player);
-      }
-    }
-
-    for (Player online : Bukkit.getOnlinePlayers()) {
-      boolean isPlayerInRegion = region.contains(online.getLocation().getBlockX(),
-          online.getLocation().getBlockY(), online.getLocation().getBlockZ());
-      boolean inWorld = online.getWorld().equals(privateMinesWorld);
-
-      if (isPlayerInRegion && inWorld) {
-        teleport(online);
+    for (UUID uuid : privateMines.getMineOccupancy().getOccupants(this)) {
+      Player player = Bukkit.getPlayer(uuid);
+      if (player != null && player.getWorld().equals(privateMinesWorld)) {
+        Location playerLocation = player.getLocation();
+        if (region.contains(playerLocation.getBlockX(), playerLocation.getBlockY(),
+            playerLocation.getBlockZ())) {
+          teleport(player);
+        }
       }
     }
 
     if (Config.addWallGap) {
       region.contract(ExpansionUtils.expansionVectors(Config.wallsGap));
     }
-    try (EditSession editSession = WorldEdit.getInstance().newEditSessionBuilder()
-        .world(BukkitAdapter.adapt(world)).fastMode(true).build()) {
-      editSession.setBlocks(region, randomPattern);
-      editSession.flushQueue();
+
+    MinedBlockTracker minedBlocks = getMinedBlocks();
+    boolean incremental = Config.onlyReplaceAir
+        && minedBlocks.canDrain(Config.fullResetInterval);
+    CompletableFuture<MineChunkManager.Lease> chunks = privateMines.getMineChunkManager()
+        .acquire(mineData.getMiningRegion());
+
+    if (!incremental && isProgressive()) {
+      // Cleared up front, anything mined in the layers that are already filled is tracked again.
+      minedBlocks.clear();
+      ProgressiveReset reset = new ProgressiveReset(BukkitAdapter.adapt(world), region, pattern);
+      this.progressiveReset = reset;
+      CompletableFuture<Void> future = reset.getFuture();
+      // Only queued once the chunks are held, the lease is kept until the last layer is placed.
+      chunks.whenComplete((lease, throwable) -> {
+        if (throwable != null) {
+          future.completeExceptionally(throwable);
+          return;
+        }
+        future.whenComplete((ignored, failure) -> lease.close());
+        privateMines.getMineResetScheduler().submit(reset);
+      });
+      return logFailure(future, "reset");
     }
+
+    return logFailure(chunks.thenAccept(lease -> {
+      try (lease; EditSession editSession = WorldEdit.getInstance().newEditSessionBuilder()
+          .world(BukkitAdapter.adapt(world)).fastMode(true).build()) {
+        if (incremental) {
+          minedBlocks.drain(position -> {
+            if (region.contains(position)) {
+              editSession.setBlock(position, pattern);
+            }
+          });
+        } else {
+          editSession.setBlocks(region, pattern);
+          minedBlocks.clear();
+        }
+        editSession.flushQueue();
+      }
+    }), "reset");
+  }
+
+  /**
+   * Checks if a full reset of this mine should be spread over several ticks.
+   */
+  public boolean isProgressive() {
+    return Config.progressiveReset
+        && getMinedBlocks().getVolume() >= Config.progressiveResetMinimumVolume;
+  }
+
+  /**
+   * @return whether a progressive reset of the mine is still filling its layers
+   */
+  public boolean isResetting() {
+    return progressiveReset != null && !progressiveReset.isDone();
+  }
+
+  /**
+   * Gets roughly how many blocks the next reset will change, used by the
+   * {@link MineResetScheduler} to budget the resets per tick.
+   */
+  public long getResetCost() {
+    MinedBlockTracker minedBlocks = getMinedBlocks();
+    if (Config.onlyReplaceAir && minedBlocks.canDrain(Config.fullResetInterval)) {
+      return minedBlocks.getMinedCount();
+    }
+    // Progressive resets take their layers out of the budget of the ticks they run in.
+    return isProgressive() ? 0 : minedBlocks.getVolume();
   }
 
   public void startResetTask() {
-    MineTypeManager mineTypeManager = privateMines.getMineTypeManager();
-    MineType mineType = mineTypeManager.getMineType(mineData.getMineType());
-    int resetTime = mineType.getResetTime();
-    this.task = Task.syncRepeating(this::reset, 0L, resetTime * 20 * 60L);
+    privateMines.getMineResetScheduler().schedule(this);
   }
 
+  /**
+   * The percentage is checked whenever a block is mined, see {@link #handleBlockMined}.
+   */
+  @Deprecated
   public void startPercentageTask() {
-    this.percentageTask = Task.syncRepeating(() -> {
-      double percentage = getPercentage();
-      MineType mineType = getMineData().getMineType();
-      double resetPercentage = mineType.getResetPercentage();
-      redempt.redlib.region.CuboidRegion cuboidRegion = new redempt.redlib.region.CuboidRegion(
-          mineData.getMinimumMining(), mineData.getMaximumMining());
-
-      if (percentage >= resetPercentage) {
-
-        for (Player player : Bukkit.getOnlinePlayers()) {
-          if (cuboidRegion.contains(player.getLocation())) {
-            player.teleport(getSpawnLocation());
-          }
-        }
-        reset();
-      }
-    }, 0L, 20L);
+    startResetTask();
   }
 
   public void stopTasks() {
-    if (task != null && percentageTask != null) {
-      if (task.isCurrentlyRunning() && percentageTask.isCurrentlyRunning()) {
-        task.cancel();
-        percentageTask.cancel();
-      }
-    }
+    privateMines.getMineResetScheduler().unschedule(this);
   }
 
+  /**
+   * Gets the percentage of the mining region that has been mined since the last reset. This reads
+   * the counter kept by the {@link MinedBlockTracker} so it doesn't touch the world.
+   */
   public double getPercentage() {
-    CuboidRegion region = new CuboidRegion(BlockVector3.at(mineData.getMinimumMining().getBlockX(),
-        mineData.getMinimumMining().getBlockY(), mineData.getMinimumMining().getBlockZ()),
-        BlockVector3.at(mineData.getMaximumMining().getBlockX(),
-            mineData.getMaximumMining().getBlockY(), mineData.getMaximumMining().getBlockZ()));
-
-    long total = region.getVolume();
-    int airBlocks = 0;
-    Set<BaseBlock> blocks = new HashSet<>();
-    if (BlockTypes.AIR != null) {
-      blocks.add(BlockTypes.AIR.getDefaultState().toBaseBlock());
-      try (EditSession editSession = WorldEdit.getInstance().newEditSessionBuilder()
-          .world(BukkitAdapter.adapt(mineData.getMinimumMining().getWorld())).fastMode(true)
-          .build()) {
-        airBlocks = editSession.countBlocks(region, blocks);
+    MinedBlockTracker minedBlocks = getMinedBlocks();
+    return (float) minedBlocks.getMinedCount() * 100L / minedBlocks.getVolume();
+  }
+
+  /**
+   * Records that a block in the mining region turned into air. This is called for block breaks and
+   * explosions, and should be called by anything else that removes blocks from the mine such as
+   * quarries. Once the mined percentage reaches the mine type's reset percentage a reset is
+   * requested straight away.
+   */
+  public void handleBlockMined(int x, int y, int z) {
+    if (getMinedBlocks().markMined(x, y, z)) {
+      double resetPercentage = mineData.getMineType().getResetPercentage();
+      if (resetPercentage > 0 && getPercentage() >= resetPercentage) {
+        privateMines.getMineResetScheduler().requestReset(this);
       }
     }
-    return (float) airBlocks * 100L / total;
+  }
+
+  /**
+   * Records that a block was placed back into the mining region.
+   */
+  public void handleBlockPlaced(int x, int y, int z) {
+    getMinedBlocks().unmarkMined(x, y, z);
   }
 
   public void ban(Player player) {
@@ -390,15 +452,15 @@ public class Mine {
 
   public boolean canExpand(final int amount) {
     final World world = privateMines.getMineWorldManager().getMinesWorld();
-    final var min = getMineData().getMinimumMining();
-    final var max = getMineData().getMaximumMining();
-    final var region = new CuboidRegion(BukkitAdapter.asBlockVector(min),
-        BukkitAdapter.asBlockVector(max));
+    final BlockBox miningRegion = getMineData().getMiningRegion();
+    final var region = new CuboidRegion(miningRegion.getMinimumPoint(),
+        miningRegion.getMaximumPoint());
     final boolean borderUpgrade = Config.borderUpgrade;
 
     region.expand(ExpansionUtils.expansionVectors(amount + 1));
     region.forEach(blockVector3 -> {
-      Material type = Utils.toLocation(blockVector3, world).getBlock().getType();
+      Material type = world.getBlockAt(blockVector3.getX(), blockVector3.getY(),
+          blockVector3.getZ()).getType();
       if (type.equals(Config.upgradeMaterial)) {
         canExpand = false;
         if (borderUpgrade) {
@@ -412,22 +474,19 @@ public class Mine {
   public void expand() {
     final World world = privateMines.getMineWorldManager().getMinesWorld();
     boolean canExpand = canExpand(1);
-    Map<String, Boolean> flags = mineData.getMineType().getFlags();
     final MineType mineType = getMineData().getMineType();
+    FlagPlan flagPlan = privateMines.getMineTypeManager().getFlagPlan(mineType);
 
     if (!canExpand) {
       privateMines.getLogger().info("Failed to expand the mine due to the mine being too large");
     } else {
       final var fillType = BlockTypes.DIAMOND_BLOCK;
       final var wallType = BlockTypes.BEDROCK;
-      final var min = getMineData().getMinimumMining();
-      final var max = getMineData().getMaximumMining();
-      final Region mine = new CuboidRegion(BukkitAdapter.asBlockVector(min),
-          BukkitAdapter.asBlockVector(max));
-      final Region fillAir = new CuboidRegion(BukkitAdapter.asBlockVector(min),
-          BukkitAdapter.asBlockVector(max));
-      final Region walls = new CuboidRegion(BukkitAdapter.asBlockVector(min),
-          BukkitAdapter.asBlockVector(max));
+      final var min = getMineData().getMiningRegion().getMinimumPoint();
+      final var max = getMineData().getMiningRegion().getMaximumPoint();
+      final Region mine = new CuboidRegion(min, max);
+      final Region fillAir = new CuboidRegion(min, max);
+      final Region walls = new CuboidRegion(min, max);
       final var maxMineSize = mineType.getMaxMineSize();
 
       if (fillType == null || wallType == null) {
@@ -446,14 +505,6 @@ public class Mine {
       }
       fillAir.expand(BlockVector3.UNIT_X, BlockVector3.UNIT_Y, BlockVector3.UNIT_Z,
           BlockVector3.UNIT_MINUS_X, BlockVector3.UNIT_MINUS_Z);
-      Map<Material, Double> materials = mineData.getMineType().getMaterials();
-      final RandomPattern randomPattern = new RandomPattern();
-      if (materials != null) {
-        materials.forEach((material, chance) -> {
-          Pattern pattern = BukkitAdapter.adapt(material.createBlockData());
-          randomPattern.add(pattern, chance);
-        });
-      }
 
       PrivateMineExpandEvent privateMineExpandEvent = new PrivateMineExpandEvent(
           mineData.getMineOwner(), this, mine.getWidth(), mine.getHeight(), mine.getLength());
@@ -462,145 +513,75 @@ public class Mine {
         return;
       }
 
-      try (EditSession editSession = WorldEdit.getInstance().newEditSessionBuilder()
-          .world(BukkitAdapter.adapt(world)).fastMode(true).build()) {
-        editSession.setBlocks(walls, BukkitAdapter.adapt(Material.BEDROCK.createBlockData()));
-        editSession.setBlocks(fillAir, BukkitAdapter.adapt(Material.AIR.createBlockData()));
-      }
-
-      mineData.setMinimumMining(BukkitAdapter.adapt(world, mine.getMinimumPoint()));
-      mineData.setMaximumMining(BukkitAdapter.adapt(world, mine.getMaximumPoint()));
-      mineData.setMinimumFullRegion(mineData.getMinimumFullRegion().subtract(1, 1, 1));
-      mineData.setMaximumFullRegion(mineData.getMaximumFullRegion().add(1, 1, 1));
-      String mineRegionName = String.format("mine-%s", mineData.getMineOwner());
+      // The walls cover everything the expansion changes.
+      BlockBox changed = BlockBox.of(walls.getMinimumPoint(), walls.getMaximumPoint());
+      logFailure(privateMines.getMineChunkManager().acquire(changed).thenAccept(lease -> {
+        try (lease; EditSession editSession = WorldEdit.getInstance().newEditSessionBuilder()
+            .world(BukkitAdapter.adapt(world)).fastMode(true).build()) {
+          editSession.setBlocks(walls, BukkitAdapter.adapt(Material.BEDROCK.createBlockData()));
+          editSession.setBlocks(fillAir, BukkitAdapter.adapt(Material.AIR.createBlockData()));
+        }
 
-      RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
-      RegionManager regionManager = container.get(BukkitAdapter.adapt(world));
+        mineData.setMiningRegion(BlockBox.of(mine.getMinimumPoint(), mine.getMaximumPoint()));
+        mineData.setFullRegion(mineData.getFullRegion().expand(1));
+        String mineRegionName = String.format("mine-%s", mineData.getMineOwner());
 
-      if (regionManager != null) {
-        regionManager.removeRegion(mineRegionName);
-      }
+        RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
+        RegionManager regionManager = container.get(BukkitAdapter.adapt(world));
 
-      ProtectedCuboidRegion protectedCuboidRegion = new ProtectedCuboidRegion(mineRegionName,
-          mine.getMinimumPoint(), mine.getMaximumPoint());
-      if (regionManager != null) {
-        regionManager.addRegion(protectedCuboidRegion);
-      }
+        if (regionManager != null) {
+          regionManager.removeRegion(mineRegionName);
+        }
 
-      if (flags != null) {
-        flags.forEach((string, aBoolean) -> {
-          Flag<?> flag = Flags.fuzzyMatchFlag(WorldGuard.getInstance().getFlagRegistry(), string);
-          if (aBoolean) {
-            try {
-              Utils.setFlag(protectedCuboidRegion, flag, "allow");
-            } catch (InvalidFlagFormat e) {
-              throw new RuntimeException(e);
-            }
-          } else {
-            try {
-              Utils.setFlag(protectedCuboidRegion, flag, "deny");
-            } catch (InvalidFlagFormat e) {
-              e.printStackTrace();
-            }
-          }
-        });
-      }
+        ProtectedCuboidRegion protectedCuboidRegion = new ProtectedCuboidRegion(mineRegionName,
+            mine.getMinimumPoint(), mine.getMaximumPoint());
+        flagPlan.apply(protectedCuboidRegion);
+        if (regionManager != null) {
+          regionManager.addRegion(protectedCuboidRegion);
+        }
 
-      setMineData(mineData);
-      privateMines.getMineStorage().replaceMineNoLog(mineData.getMineOwner(), this);
-      reset();
+        setMineData(mineData);
+        privateMines.getMineStorage().replaceMineNoLog(mineData.getMineOwner(), this);
+        privateMines.getMinePersistence().markDirty(this);
+        // A reset still running would only fill the old region.
+        if (progressiveReset != null) {
+          progressiveReset.cancel();
+        }
+        reset();
+      }), "expand");
     }
     this.canExpand = true;
   }
 
-  public void saveMineData(Player player, MineData mineData) {
-    String uuidString = String.valueOf(player.getUniqueId());
-    String fileName = String.format("/%s.yml", uuidString);
-
-    File minesDirectory = privateMines.getMinesDirectory().toFile();
-    File file = new File(minesDirectory + fileName);
-    privateMines.getLogger().info("Saving file " + file.getName() + "...");
-    YamlConfiguration yml = YamlConfiguration.loadConfiguration(file);
-
-    MineType mineType = mineData.getMineType();
-    String mineTypeName = mineType.getName();
-
-    UUID owner = player.getUniqueId();
-    Location mineLocation = mineData.getMineLocation();
-    Location corner1 = mineData.getMinimumMining();
-    Location corner2 = mineData.getMaximumMining();
-    Location fullRegionMin = mineData.getMinimumFullRegion();
-    Location fullRegionMax = mineData.getMaximumFullRegion();
-
-    Location spawn = mineData.getSpawnLocation();
-    double tax = mineData.getTax();
-    boolean open = mineData.isOpen();
-    int maxPlayers = mineData.getMaxPlayers();
-    int maxMineSize = mineData.getMaxMineSize();
-
-    List<UUID> bannedPlayers = mineData.getBannedPlayers();
-    List<UUID> friends = mineData.getFriends();
-
-    Map<Material, Double> materials = mineData.getMaterials();
-
-    if (!file.exists()) {
-      try {
-        boolean createdNewFile = file.createNewFile();
-        if (createdNewFile) {
-          privateMines.getLogger().info("Created new file " + file.getName());
-        }
-      } catch (IOException e) {
-        throw new RuntimeException(e);
-      }
-      yml.set("mineOwner", owner.toString());
-      yml.set("mineType", mineTypeName);
-      yml.set("mineLocation", LocationUtils.toString(mineLocation));
-      yml.set("corner1", LocationUtils.toString(corner1));
-      yml.set("corner2", LocationUtils.toString(corner2));
-      yml.set("fullRegionMin", LocationUtils.toString(fullRegionMin));
-      yml.set("fullRegionMax", LocationUtils.toString(fullRegionMax));
-      yml.set("spawn", LocationUtils.toString(spawn));
-      yml.set("tax", tax);
-      yml.set("isOpen", open);
-      yml.set("maxPlayers", maxPlayers);
-      yml.set("maxMineSize", maxMineSize);
-
-      if (!materials.isEmpty()) {
-        yml.set("materials", materials.toString());
+  /**
+   * Logs when the future fails, most callers of the mine's futures never look at them.
+   */
+  private <T> CompletableFuture<T> logFailure(CompletableFuture<T> future, String action) {
+    return future.whenComplete((ignored, throwable) -> {
+      if (throwable != null) {
+        privateMines.getLogger().log(Level.SEVERE, String.format("Failed to %s the mine of %s",
+            action, getMineData().getMineOwner()), throwable);
       }
+    });
+  }
 
-      try {
-        yml.save(file);
-      } catch (IOException e) {
-        throw new RuntimeException(e);
-      }
-    } else {
-      yml.set("corner1", LocationUtils.toString(mineData.getMinimumMining()));
-      yml.set("corner2", LocationUtils.toString(mineData.getMaximumMining()));
-      yml.set("tax", tax);
-      yml.set("isOpen", open);
-      yml.set("maxPlayers", maxPlayers);
-      yml.set("maxMineSize", maxMineSize);
-//            yml.set("bannedPlayers", bannedPlayers);
-      if (!materials.isEmpty()) {
-        yml.set("materials", materials.toString());
-      }
-      try {
-        yml.save(file);
-      } catch (IOException e) {
-        throw new RuntimeException(e);
-      }
-    }
+  /**
+   * Marks the mine to be saved, the file is written by the {@link MinePersistence} on its next
+   * flush.
+   */
+  public void saveMineData(Player player, MineData mineData) {
+    setMineData(mineData);
+    privateMines.getMinePersistence().markDirty(this);
   }
 
   public void saveMineData(UUID uuid, MineData mineData) {
-    saveMineData(Objects.requireNonNull(Bukkit.getOfflinePlayer(uuid).getPlayer()), mineData);
+    setMineData(mineData);
+    privateMines.getMinePersistence().markDirty(this);
   }
 
   public void upgrade() {
     MineTypeManager mineTypeManager = this.privateMines.getMineTypeManager();
     MineFactory mineFactory = this.privateMines.getMineFactory();
-    MineStorage mineStorage = this.privateMines.getMineStorage();
     MineData mineData = getMineData();
     UUID mineOwner = mineData.getMineOwner();
     Player player = Bukkit.getOfflinePlayer(mineOwner).getPlayer();
@@ -620,12 +601,15 @@ public class Mine {
             .info("Failed to upgrade " + player.getName() + "'s mine as it was fully upgraded!");
       } else if (upgradeCost == 0.0D) {
         Location mineLocation = mineData.getMineLocation();
-        delete(true);
-        mineFactory.create(Objects.requireNonNull(player), mineLocation, nextType, true);
-        Mine mine = mineStorage.get(mineOwner);
-        if (mine != null) {
-          mine.reset();
-        }
+        // The new mine is only pasted once the old structure is cleared and its slot is free.
+        delete(true).thenAccept(deleted -> {
+          if (!deleted) {
+            return;
+          }
+          privateMines.getMineWorldManager().claimLocation(mineLocation);
+          // The factory resets the new mine once it's pasted, before that there's nothing to get.
+          mineFactory.create(Objects.requireNonNull(player), mineLocation, nextType, true);
+        });
       } else {
         double balance = economy.getBalance(player);
         if (balance < upgradeCost) {
@@ -633,9 +617,14 @@ public class Mine {
               "" + ChatColor.RED + "You don't have enough money to upgrade your mine!");
         } else {
           Location mineLocation = mineData.getMineLocation();
-          delete(true);
-          mineFactory.create(Objects.requireNonNull(player), mineLocation, nextType, true);
-          economy.withdrawPlayer(player, upgradeCost);
+          delete(true).thenAccept(deleted -> {
+            if (!deleted) {
+              return;
+            }
+            privateMines.getMineWorldManager().claimLocation(mineLocation);
+            mineFactory.create(Objects.requireNonNull(player), mineLocation, nextType, true);
+            economy.withdrawPlayer(player, upgradeCost);
+          });
         }
       }
     }
@@ -705,21 +694,22 @@ public class Mine {
     String mineRegionName = String.format("mine-%s", getMineData().getMineOwner());
     String fullRegionName = String.format("full-mine-%s", getMineData().getMineOwner());
     com.sk89q.worldedit.world.World world = BukkitAdapter.adapt(
-        Objects.requireNonNull(getMineData().getMinimumMining().getWorld()));
+        Objects.requireNonNull(getMineData().getWorld()));
 
     MineType mineType = getMineData().getMineType();
-    Map<String, Boolean> flags = mineType.getFlags();
-    Map<String, Boolean> fullFlags = mineType.getFullFlags();
+    MineTypeManager mineTypeManager = privateMines.getMineTypeManager();
 
-    BlockVector3 minMining = BukkitAdapter.asBlockVector(getMineData().getMinimumMining());
-    BlockVector3 maxMining = BukkitAdapter.asBlockVector(getMineData().getMaximumMining());
-    BlockVector3 minFull = BukkitAdapter.asBlockVector(getMineData().getMinimumFullRegion());
-    BlockVector3 maxFull = BukkitAdapter.asBlockVector(getMineData().getMaximumFullRegion());
+    BlockVector3 minMining = getMineData().getMiningRegion().getMinimumPoint();
+    BlockVector3 maxMining = getMineData().getMiningRegion().getMaximumPoint();
+    BlockVector3 minFull = getMineData().getFullRegion().getMinimumPoint();
+    BlockVector3 maxFull = getMineData().getFullRegion().getMaximumPoint();
 
     ProtectedCuboidRegion miningWorldGuardRegion = new ProtectedCuboidRegion(mineRegionName,
         minMining, maxMining);
     ProtectedCuboidRegion fullWorldGuardRegion = new ProtectedCuboidRegion(fullRegionName, minFull,
         maxFull);
+    mineTypeManager.getFlagPlan(mineType).apply(miningWorldGuardRegion);
+    mineTypeManager.getFullFlagPlan(mineType).apply(fullWorldGuardRegion);
     RegionContainer regionContainer = WorldGuard.getInstance().getPlatform().getRegionContainer();
     RegionManager regionManager = regionContainer.get(world);
 
@@ -727,52 +717,5 @@ public class Mine {
       regionManager.addRegion(miningWorldGuardRegion);
       regionManager.addRegion(fullWorldGuardRegion);
     }
-
-    /**
-     This sadly has to be called synchronously else it'll throw a
-     {@link java.lang.IllegalStateException}
-     This is due to how WorldGuard handles their flags...
-     @see com.sk89q.worldguard.bukkit.protection.events.flags.FlagContextCreateEvent
-     */
-    Task.syncDelayed(() -> {
-      FlagRegistry flagRegistry = WorldGuard.getInstance().getFlagRegistry();
-
-      if (flags != null) {
-        flags.forEach((s, aBoolean) -> {
-          Flag<?> flag = Flags.fuzzyMatchFlag(flagRegistry, s);
-          if (aBoolean) {
-            try {
-              Utils.setFlag(miningWorldGuardRegion, flag, "allow");
-            } catch (InvalidFlagFormat e) {
-              e.printStackTrace();
-            }
-          } else {
-            try {
-              Utils.setFlag(miningWorldGuardRegion, flag, "deny");
-            } catch (InvalidFlagFormat e) {
-              e.printStackTrace();
-            }
-          }
-        });
-      }
-      if (fullFlags != null) {
-        fullFlags.forEach((string, aBoolean) -> {
-          Flag<?> flag = Flags.fuzzyMatchFlag(flagRegistry, string);
-          if (aBoolean) {
-            try {
-              Utils.setFlag(fullWorldGuardRegion, flag, "allow");
-            } catch (InvalidFlagFormat e) {
-              e.printStackTrace();
-            }
-          } else {
-            try {
-              Utils.setFlag(fullWorldGuardRegion, flag, "deny");
-            } catch (InvalidFlagFormat e) {
-              throw new RuntimeException(e);
-            }
-          }
-        });
-      }
-    });
   }
-}
\ No newline at end of file
+}
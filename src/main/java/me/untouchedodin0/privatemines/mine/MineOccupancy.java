@@ -0,0 +1,116 @@
+package me.untouchedodin0.privatemines.mine;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import me.untouchedodin0.privatemines.PrivateMines;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+/**
+ * Keeps a live set of the players inside every mine's full region, so checks like the max players
+ * limit don't have to go over every online player.
+ *
+ * @see me.untouchedodin0.privatemines.listener.MineOccupancyListener
+ */
+public class MineOccupancy {
+
+  private final Map<UUID, Mine> playerMines = new ConcurrentHashMap<>();
+  private final Map<Mine, Set<UUID>> occupants = new ConcurrentHashMap<>();
+  private final PrivateMines privateMines;
+
+  public MineOccupancy(PrivateMines privateMines) {
+    this.privateMines = privateMines;
+  }
+
+  /**
+   * Moves the player to whichever mine contains the location, or out of their current mine if the
+   * location isn't in any mine.
+   */
+  public void update(Player player, Location location) {
+    move(player.getUniqueId(), privateMines.getMineStorage().getAt(location));
+  }
+
+  /**
+   * Moves the player into the mine, or out of their current mine if the mine is null.
+   */
+  public void move(UUID uuid, Mine mine) {
+    Mine previous = mine == null ? playerMines.remove(uuid) : playerMines.put(uuid, mine);
+
+    if (previous == mine) {
+      return;
+    }
+    if (previous != null) {
+      leave(previous, uuid);
+    }
+    if (mine != null) {
+      // Added inside compute so it can't land in a set leave just took out of the map.
+      occupants.compute(mine, (key, players) -> {
+        Set<UUID> set = players == null ? ConcurrentHashMap.newKeySet() : players;
+        set.add(uuid);
+        return set;
+      });
+    }
+  }
+
+  public void remove(Player player) {
+    remove(player.getUniqueId());
+  }
+
+  public void remove(UUID uuid) {
+    Mine previous = playerMines.remove(uuid);
+    if (previous != null) {
+      leave(previous, uuid);
+    }
+  }
+
+  /**
+   * Forgets every player in the mine, used when the mine gets deleted.
+   */
+  public void clear(Mine mine) {
+    Set<UUID> removed = occupants.remove(mine);
+    if (removed != null) {
+      removed.forEach(uuid -> playerMines.remove(uuid, mine));
+    }
+  }
+
+  public Mine getMine(Player player) {
+    return getMine(player.getUniqueId());
+  }
+
+  public Mine getMine(UUID uuid) {
+    return playerMines.get(uuid);
+  }
+
+  public Set<UUID> getOccupants(Mine mine) {
+    Set<UUID> players = occupants.get(mine);
+    return players == null ? Collections.emptySet() : Collections.unmodifiableSet(players);
+  }
+
+  /**
+   * Counts the players in the mine other than its owner, which is what the max players limit
+   * applies to.
+   */
+  public int getVisitorCount(Mine mine, UUID owner) {
+    Set<UUID> players = occupants.get(mine);
+    if (players == null) {
+      return 0;
+    }
+    int count = players.size();
+    return players.contains(owner) ? count - 1 : count;
+  }
+
+  public int getPlayerCount(Mine mine) {
+    Set<UUID> players = occupants.get(mine);
+    return players == null ? 0 : players.size();
+  }
+
+  private void leave(Mine mine, UUID uuid) {
+    occupants.computeIfPresent(mine, (key, players) -> {
+      players.remove(uuid);
+      return players.isEmpty() ? null : players;
+    });
+  }
+}
@@ -21,6 +21,7 @@
 
 package me.untouchedodin0.privatemines.mine;
 
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -33,6 +34,8 @@ import me.untouchedodin0.privatemines.PrivateMines;
 public class MineTypeManager {
 
   private final LinkedHashMap<String, MineType> mineTypes = new LinkedHashMap<>();
+  private final Map<String, FlagPlan> flagPlans = new HashMap<>();
+  private final Map<String, FlagPlan> fullFlagPlans = new HashMap<>();
 //  private final TreeMap<String, MineType> mineTypeTreeMap = new TreeMap<>();
   private final PrivateMines privateMines;
 
@@ -48,9 +51,27 @@ public class MineTypeManager {
 //      privateMines.getLogger().info("name: " + mineType.getName());
 //      mineTypes.put(mineType.getName(), mineType);
       mineTypes.put(mineType.getName(), mineType);
+      flagPlans.put(mineType.getName(),
+          FlagPlan.compile(privateMines.getLogger(), mineType.getName(), mineType.getFlags()));
+      fullFlagPlans.put(mineType.getName(),
+          FlagPlan.compile(privateMines.getLogger(), mineType.getName(), mineType.getFullFlags()));
     }
   }
 
+  /**
+   * Gets the flags of the mining region of the type, resolved when the type was registered.
+   */
+  public FlagPlan getFlagPlan(MineType mineType) {
+    return flagPlans.getOrDefault(mineType.getName(), FlagPlan.EMPTY);
+  }
+
+  /**
+   * Gets the flags of the full region of the type, resolved when the type was registered.
+   */
+  public FlagPlan getFullFlagPlan(MineType mineType) {
+    return fullFlagPlans.getOrDefault(mineType.getName(), FlagPlan.EMPTY);
+  }
+
   public MineType getMineType(MineType name) {
     return mineTypes.get(name.getName());
 //    return mineTypes.get(name.getName());
@@ -72,6 +93,8 @@ public class MineTypeManager {
 
   public void clear() {
     mineTypes.clear();
+    flagPlans.clear();
+    fullFlagPlans.clear();
   }
 
   public MineType getLast(LinkedHashMap<String, MineType> lhm)
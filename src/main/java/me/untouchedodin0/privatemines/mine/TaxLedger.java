@@ -0,0 +1,200 @@
+package me.untouchedodin0.privatemines.mine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import me.untouchedodin0.privatemines.PrivateMines;
+import me.untouchedodin0.privatemines.config.Config;
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import redempt.redlib.misc.Task;
+
+/**
+ * Collects the tax mine owners earn from players selling in their mines and pays it out every
+ * {@link Config#taxSettleInterval} seconds, so a miner selling every block is one economy call per
+ * owner and interval instead of one per sale.
+ * <p>
+ * Recording tax only adds to the owner's adders and can happen from any thread. When settling, the
+ * accounts are taken out of the map first and only summed a tick later so a sale that picked up an
+ * account just before it was taken out still gets counted. Tax that wasn't paid out yet is written
+ * to a file after every settlement and when the plugin disables, and added back when it enables.
+ * The file is only replaced once the tax it holds has been paid out.
+ */
+public class TaxLedger {
+
+  private final Logger logger;
+  private final File file;
+  private final Map<UUID, Account> accounts = new ConcurrentHashMap<>();
+  private final List<Map.Entry<UUID, Account>> settling = new ArrayList<>();
+  private Task task;
+  private boolean stopped;
+
+  public TaxLedger(PrivateMines privateMines) {
+    this(privateMines.getLogger(), new File(privateMines.getDataFolder(), "taxes.yml"));
+  }
+
+  public TaxLedger(Logger logger, File file) {
+    this.logger = logger;
+    this.file = file;
+  }
+
+  public void start() {
+    load();
+    long interval = Math.max(1, Config.taxSettleInterval) * 20L;
+    this.task = Task.syncRepeating(this::settle, interval, interval);
+  }
+
+  /**
+   * Adds tax for the owner, paid out with the next settlement.
+   */
+  public void record(UUID owner, double tax) {
+    credit(owner, tax, 1);
+  }
+
+  private void credit(UUID owner, double amount, long sales) {
+    if (amount <= 0) {
+      return;
+    }
+    Account account = accounts.computeIfAbsent(owner, uuid -> new Account());
+    account.amount.add(amount);
+    account.sales.add(sales);
+  }
+
+  /**
+   * @return the tax the owner earned that hasn't been paid out yet
+   */
+  public double getUnsettled(UUID owner) {
+    Account account = accounts.get(owner);
+    return account == null ? 0 : account.amount.sum();
+  }
+
+  private void settle() {
+    if (accounts.isEmpty()) {
+      return;
+    }
+    List<Map.Entry<UUID, Account>> taken = new ArrayList<>(accounts.size());
+    for (UUID owner : accounts.keySet()) {
+      Account account = accounts.remove(owner);
+      if (account != null) {
+        taken.add(Map.entry(owner, account));
+      }
+    }
+    settling.addAll(taken);
+    Task.syncDelayed(() -> {
+      settling.removeAll(taken);
+      taken.forEach(entry -> pay(entry.getKey(), entry.getValue()));
+      YamlConfiguration unpaid = getUnpaid();
+      Task.asyncDelayed(() -> save(unpaid, false));
+    }, 1L);
+  }
+
+  private void pay(UUID owner, Account account) {
+    double amount = account.amount.sum();
+    long sales = account.sales.sum();
+    if (amount <= 0) {
+      return;
+    }
+
+    Economy economy = PrivateMines.getEconomy();
+    OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(owner);
+    EconomyResponse response =
+        economy == null ? null : economy.depositPlayer(offlinePlayer, amount);
+    if (response == null || !response.transactionSuccess()) {
+      // Try again with the next settlement.
+      credit(owner, amount, sales);
+      return;
+    }
+
+    Player player = offlinePlayer.getPlayer();
+    if (Config.sendTaxMessages && player != null) {
+      player.sendMessage(ChatColor.GREEN + String.format(
+          "You've received $%.2f in taxes from %d sales in your mine!", amount, sales));
+    }
+  }
+
+  /**
+   * Stops settling and writes the tax that wasn't paid out yet, used when the plugin disables.
+   */
+  public void shutdown() {
+    if (task != null) {
+      task.cancel();
+      this.task = null;
+    }
+
+    YamlConfiguration unpaid = getUnpaid();
+    settling.clear();
+    accounts.clear();
+    save(unpaid, true);
+  }
+
+  private YamlConfiguration getUnpaid() {
+    YamlConfiguration yml = new YamlConfiguration();
+    settling.forEach(entry -> add(yml, entry.getKey(), entry.getValue().amount.sum()));
+    accounts.forEach((owner, account) -> add(yml, owner, account.amount.sum()));
+    return yml;
+  }
+
+  /**
+   * Replaces the file with the unpaid tax, nothing is written anymore after the last save.
+   */
+  private synchronized void save(YamlConfiguration unpaid, boolean last) {
+    if (stopped) {
+      return;
+    }
+    if (last) {
+      this.stopped = true;
+    }
+
+    try {
+      if (unpaid.getKeys(false).isEmpty()) {
+        if (file.exists() && !file.delete()) {
+          logger.warning("Failed to delete " + file.getName());
+        }
+      } else {
+        unpaid.save(file);
+      }
+    } catch (IOException e) {
+      logger.log(Level.SEVERE, "Failed to save the unpaid taxes", e);
+    }
+  }
+
+  void load() {
+    if (!file.exists()) {
+      return;
+    }
+    YamlConfiguration yml = YamlConfiguration.loadConfiguration(file);
+    for (String key : yml.getKeys(false)) {
+      try {
+        credit(UUID.fromString(key), yml.getDouble(key), 0);
+      } catch (IllegalArgumentException e) {
+        logger.warning("Skipped the unpaid taxes of an invalid owner " + key);
+      }
+    }
+    // The file stays until the next settlement has paid the tax out and rewritten it.
+  }
+
+  private static void add(YamlConfiguration yml, UUID owner, double amount) {
+    if (amount > 0) {
+      yml.set(owner.toString(), yml.getDouble(owner.toString()) + amount);
+    }
+  }
+
+  private static class Account {
+
+    private final DoubleAdder amount = new DoubleAdder();
+    private final LongAdder sales = new LongAdder();
+  }
+}
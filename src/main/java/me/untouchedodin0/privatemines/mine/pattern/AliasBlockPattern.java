@@ -0,0 +1,47 @@
+package me.untouchedodin0.privatemines.mine.pattern;
+
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.function.pattern.Pattern;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.world.block.BaseBlock;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.bukkit.Material;
+
+/**
+ * An immutable weighted pattern of blocks which picks a block in constant time using Walker's alias
+ * method, unlike WorldEdit's {@link com.sk89q.worldedit.function.pattern.RandomPattern} which scans
+ * through its entries for every block.
+ */
+public class AliasBlockPattern implements Pattern {
+
+  private final BaseBlock[] blocks;
+  private final AliasTable table;
+
+  public AliasBlockPattern(Map<Material, Double> weights) {
+    int size = weights.size();
+    this.blocks = new BaseBlock[size];
+    double[] values = new double[size];
+    int index = 0;
+    for (Map.Entry<Material, Double> entry : weights.entrySet()) {
+      blocks[index] = BukkitAdapter.adapt(entry.getKey().createBlockData()).toBaseBlock();
+      values[index] = entry.getValue();
+      index++;
+    }
+    this.table = new AliasTable(values);
+  }
+
+  /**
+   * @param weights the weight of the block at the same index
+   */
+  AliasBlockPattern(BaseBlock[] blocks, double[] weights) {
+    this.blocks = blocks.clone();
+    this.table = new AliasTable(weights);
+  }
+
+  @Override
+  public BaseBlock applyBlock(BlockVector3 position) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    return blocks[table.pick(random.nextInt(blocks.length), random.nextDouble())];
+  }
+}
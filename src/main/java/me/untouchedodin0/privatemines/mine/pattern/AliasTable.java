@@ -0,0 +1,86 @@
+package me.untouchedodin0.privatemines.mine.pattern;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The probability and alias columns of Walker's alias method. Picking a column takes one random
+ * column and one random double no matter how many weights there are.
+ */
+final class AliasTable {
+
+  private final double[] probabilities;
+  private final int[] aliases;
+
+  AliasTable(double[] weights) {
+    int size = weights.length;
+    if (size == 0) {
+      throw new IllegalArgumentException("A pattern needs at least one material!");
+    }
+
+    this.probabilities = new double[size];
+    this.aliases = new int[size];
+
+    double total = 0;
+    for (double weight : weights) {
+      total += weight;
+    }
+
+    double[] scaled = new double[size];
+    for (int i = 0; i < size; i++) {
+      scaled[i] = weights[i] * size / total;
+    }
+
+    Deque<Integer> small = new ArrayDeque<>();
+    Deque<Integer> large = new ArrayDeque<>();
+    for (int i = 0; i < size; i++) {
+      if (scaled[i] < 1.0) {
+        small.push(i);
+      } else {
+        large.push(i);
+      }
+    }
+
+    while (!small.isEmpty() && !large.isEmpty()) {
+      int less = small.pop();
+      int more = large.pop();
+      probabilities[less] = scaled[less];
+      aliases[less] = more;
+      scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+      if (scaled[more] < 1.0) {
+        small.push(more);
+      } else {
+        large.push(more);
+      }
+    }
+
+    // Anything left over only differs from 1 by rounding errors.
+    while (!large.isEmpty()) {
+      probabilities[large.pop()] = 1.0;
+    }
+    while (!small.isEmpty()) {
+      probabilities[small.pop()] = 1.0;
+    }
+  }
+
+  int size() {
+    return probabilities.length;
+  }
+
+  double getProbability(int column) {
+    return probabilities[column];
+  }
+
+  int getAlias(int column) {
+    return aliases[column];
+  }
+
+  /**
+   * @param column a column picked uniformly from 0 to {@link #size()}
+   * @param chance a double picked uniformly from 0 to 1
+   * @return the index of the picked weight
+   */
+  int pick(int column, double chance) {
+    return chance < probabilities[column] ? column : aliases[column];
+  }
+}
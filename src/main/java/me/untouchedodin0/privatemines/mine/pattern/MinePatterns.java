@@ -0,0 +1,61 @@
+package me.untouchedodin0.privatemines.mine.pattern;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.kotlin.mine.type.MineType;
+import org.bukkit.Material;
+
+/**
+ * Caches the compiled {@link AliasBlockPattern} of every mine type and of every custom block
+ * composition set with /pm setblocks, so all the mines using the same blocks share one pattern.
+ */
+public class MinePatterns {
+
+  private final Map<MineType, AliasBlockPattern> typePatterns = new ConcurrentHashMap<>();
+  private final Map<Map<Material, Double>, AliasBlockPattern> customPatterns = new ConcurrentHashMap<>();
+
+  /**
+   * Gets the pattern the mine should be filled with, the mine's custom blocks take priority over
+   * the blocks of its mine type.
+   *
+   * @return the pattern or null if there aren't any blocks to fill the mine with
+   */
+  public AliasBlockPattern getPattern(MineData mineData) {
+    Map<Material, Double> materials = mineData.getMaterials();
+    if (!materials.isEmpty()) {
+      return getPattern(materials);
+    }
+    return getPattern(mineData.getMineType());
+  }
+
+  public AliasBlockPattern getPattern(MineType mineType) {
+    Map<Material, Double> materials = mineType.getMaterials();
+    if (materials == null || materials.isEmpty()) {
+      return null;
+    }
+    return typePatterns.computeIfAbsent(mineType, type -> new AliasBlockPattern(materials));
+  }
+
+  public AliasBlockPattern getPattern(Map<Material, Double> materials) {
+    if (materials.isEmpty()) {
+      return null;
+    }
+    return customPatterns.computeIfAbsent(new EnumMap<>(materials), AliasBlockPattern::new);
+  }
+
+  /**
+   * Drops the pattern of a custom composition, called when a mine's blocks are changed.
+   */
+  public void invalidate(Map<Material, Double> materials) {
+    if (!materials.isEmpty()) {
+      customPatterns.remove(new EnumMap<>(materials));
+    }
+  }
+
+  public void clear() {
+    typePatterns.clear();
+    customPatterns.clear();
+  }
+}
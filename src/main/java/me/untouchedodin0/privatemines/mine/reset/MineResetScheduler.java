@@ -0,0 +1,236 @@
+package me.untouchedodin0.privatemines.mine.reset;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import me.untouchedodin0.kotlin.mine.type.MineType;
+import me.untouchedodin0.privatemines.config.Config;
+import me.untouchedodin0.privatemines.mine.Mine;
+import redempt.redlib.misc.Task;
+
+/**
+ * Owns the reset deadline of every active mine and runs the resets from a single repeating task.
+ * Each tick only spends up to {@link Config#resetBlocksPerTick} block changes, any resets which
+ * don't fit are pushed to the following ticks which spreads them out instead of having all of
+ * them fire on the same tick.
+ * <p>
+ * The budget shrinks while the server is running behind, measured from the time between the
+ * scheduler's own ticks, and is shared with the {@link ProgressiveReset}s of large mines.
+ */
+public class MineResetScheduler {
+
+  private final PriorityQueue<ScheduledReset> queue = new PriorityQueue<>(
+      Comparator.comparingLong(ScheduledReset::getDeadline));
+  private final Map<Mine, ScheduledReset> scheduled = new HashMap<>();
+  private final Queue<ProgressiveReset> progressiveResets = new ArrayDeque<>();
+  private long currentTick;
+  private long lastTickNanos;
+  private double averageTickMillis = 50.0;
+  private long lastLag;
+  private Task task;
+
+  public void start() {
+    if (task == null) {
+      this.task = Task.syncRepeating(this::tick, 1L, 1L);
+    }
+  }
+
+  /**
+   * Stops the scheduler, any progressive resets still running are finished straight away so no
+   * mine is left half filled.
+   */
+  public void stop() {
+    if (task != null) {
+      task.cancel();
+      this.task = null;
+    }
+
+    List<ProgressiveReset> remaining;
+    synchronized (this) {
+      remaining = new ArrayList<>(progressiveResets);
+      progressiveResets.clear();
+    }
+    remaining.forEach(progressiveReset -> progressiveReset.step(Long.MAX_VALUE));
+  }
+
+  /**
+   * Starts resetting the mine every {@link MineType#getResetTime()} minutes, the first reset is
+   * queued straight away.
+   */
+  public synchronized void schedule(Mine mine) {
+    if (scheduled.containsKey(mine)) {
+      return;
+    }
+    MineType mineType = mine.getMineData().getMineType();
+    long interval = Math.max(1L, mineType.getResetTime() * 20L * 60L);
+    ScheduledReset scheduledReset = new ScheduledReset(mine, interval, currentTick + 1);
+    scheduled.put(mine, scheduledReset);
+    queue.add(scheduledReset);
+  }
+
+  public synchronized void unschedule(Mine mine) {
+    ScheduledReset scheduledReset = scheduled.remove(mine);
+    if (scheduledReset != null) {
+      queue.remove(scheduledReset);
+    }
+  }
+
+  /**
+   * Moves the next reset of the mine forward so that it runs as soon as the tick budget allows.
+   */
+  public synchronized void requestReset(Mine mine) {
+    ScheduledReset scheduledReset = scheduled.get(mine);
+    if (scheduledReset == null || scheduledReset.getDeadline() <= currentTick) {
+      return;
+    }
+    queue.remove(scheduledReset);
+    scheduledReset.setDeadline(currentTick);
+    queue.add(scheduledReset);
+  }
+
+  /**
+   * Queues a progressive reset, its layers are filled from the next tick onwards.
+   */
+  public synchronized void submit(ProgressiveReset progressiveReset) {
+    progressiveResets.add(progressiveReset);
+  }
+
+  public synchronized boolean isScheduled(Mine mine) {
+    return scheduled.containsKey(mine);
+  }
+
+  /**
+   * @return the amount of mines which have a reset scheduled
+   */
+  public synchronized int getScheduledCount() {
+    return scheduled.size();
+  }
+
+  /**
+   * @return the amount of resets that are due but haven't been run yet
+   */
+  public synchronized int getQueueDepth() {
+    int depth = 0;
+    for (ScheduledReset scheduledReset : queue) {
+      if (scheduledReset.getDeadline() <= currentTick) {
+        depth++;
+      }
+    }
+    return depth;
+  }
+
+  /**
+   * @return how many ticks the oldest due reset is behind, or the lag of the last reset if nothing
+   * is due
+   */
+  public synchronized long getLag() {
+    ScheduledReset next = queue.peek();
+    if (next != null && next.getDeadline() < currentTick) {
+      return currentTick - next.getDeadline();
+    }
+    return lastLag;
+  }
+
+  /**
+   * @return the average time between ticks in milliseconds, 50 when the server keeps up
+   */
+  public synchronized double getAverageTickMillis() {
+    return averageTickMillis;
+  }
+
+  public synchronized int getProgressiveResetCount() {
+    return progressiveResets.size();
+  }
+
+  /**
+   * Gets how many blocks may be changed this tick, scaled down when the ticks are taking longer
+   * than 50ms.
+   */
+  private long getBudget() {
+    double scale = Math.max(0.1, Math.min(1.0, 50.0 / averageTickMillis));
+    return Math.max(1L, (long) (Config.resetBlocksPerTick * scale));
+  }
+
+  private void tick() {
+    long now = System.nanoTime();
+    List<Mine> toReset = new ArrayList<>();
+    List<ProgressiveReset> toStep = new ArrayList<>();
+    long budget;
+
+    synchronized (this) {
+      currentTick++;
+      if (lastTickNanos != 0) {
+        double tickMillis = (now - lastTickNanos) / 1_000_000.0;
+        this.averageTickMillis += (tickMillis - averageTickMillis) * 0.1;
+      }
+      this.lastTickNanos = now;
+      budget = getBudget();
+
+      progressiveResets.removeIf(ProgressiveReset::isDone);
+      toStep.addAll(progressiveResets);
+    }
+
+    // Progressive resets that are already running get the budget first, so they finish before
+    // new ones are started.
+    for (ProgressiveReset progressiveReset : toStep) {
+      if (budget <= 0) {
+        break;
+      }
+      budget -= progressiveReset.step(budget);
+    }
+
+    synchronized (this) {
+      while (!queue.isEmpty() && queue.peek().getDeadline() <= currentTick) {
+        ScheduledReset next = queue.peek();
+        long cost = next.getMine().getResetCost();
+        // Always run at least one reset per tick, so a single huge mine can't stall the queue,
+        // unless the progressive resets have already used up this tick's budget.
+        if ((!toReset.isEmpty() || budget <= 0) && cost > budget) {
+          break;
+        }
+        queue.poll();
+        budget -= cost;
+        this.lastLag = currentTick - next.getDeadline();
+        next.setDeadline(currentTick + next.getInterval());
+        queue.add(next);
+        toReset.add(next.getMine());
+      }
+    }
+
+    toReset.forEach(Mine::reset);
+  }
+
+  private static class ScheduledReset {
+
+    private final Mine mine;
+    private final long interval;
+    private long deadline;
+
+    ScheduledReset(Mine mine, long interval, long deadline) {
+      this.mine = mine;
+      this.interval = interval;
+      this.deadline = deadline;
+    }
+
+    Mine getMine() {
+      return mine;
+    }
+
+    long getInterval() {
+      return interval;
+    }
+
+    long getDeadline() {
+      return deadline;
+    }
+
+    void setDeadline(long deadline) {
+      this.deadline = deadline;
+    }
+  }
+}
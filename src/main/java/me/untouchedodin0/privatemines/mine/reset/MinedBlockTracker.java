@@ -0,0 +1,147 @@
+package me.untouchedodin0.privatemines.mine.reset;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import java.util.BitSet;
+import java.util.function.Consumer;
+import me.untouchedodin0.kotlin.mine.data.BlockBox;
+
+/**
+ * Keeps track of which positions inside a mine's mining region have been broken since the last
+ * reset, one bit per block. This lets a reset refill only the blocks that were actually mined
+ * instead of rewriting the whole cuboid, and the amount of mined blocks doubles as the air counter
+ * used for the mine's percentage.
+ */
+public class MinedBlockTracker {
+
+  private final int minX;
+  private final int minY;
+  private final int minZ;
+  private final int sizeX;
+  private final int sizeY;
+  private final int sizeZ;
+  private final BitSet mined;
+  private int minedCount;
+  private int drains;
+  private boolean primed;
+
+  public MinedBlockTracker(BlockBox region) {
+    this.minX = region.getMinX();
+    this.minY = region.getMinY();
+    this.minZ = region.getMinZ();
+    this.sizeX = region.getMaxX() - minX + 1;
+    this.sizeY = region.getMaxY() - minY + 1;
+    this.sizeZ = region.getMaxZ() - minZ + 1;
+    this.mined = new BitSet(sizeX * sizeY * sizeZ);
+  }
+
+  public boolean contains(int x, int y, int z) {
+    return x >= minX && y >= minY && z >= minZ
+        && x < minX + sizeX && y < minY + sizeY && z < minZ + sizeZ;
+  }
+
+  /**
+   * Checks if this tracker was built for the given region, the region changes when a mine is
+   * expanded which means the tracker has to be rebuilt.
+   */
+  public boolean covers(BlockBox region) {
+    return region.getMinX() == minX && region.getMinY() == minY && region.getMinZ() == minZ
+        && region.getMaxX() - minX + 1 == sizeX && region.getMaxY() - minY + 1 == sizeY
+        && region.getMaxZ() - minZ + 1 == sizeZ;
+  }
+
+  /**
+   * Marks the block as mined.
+   *
+   * @return true if the block wasn't already marked as mined
+   */
+  public synchronized boolean markMined(int x, int y, int z) {
+    if (!contains(x, y, z)) {
+      return false;
+    }
+    int index = index(x, y, z);
+    if (mined.get(index)) {
+      return false;
+    }
+    mined.set(index);
+    minedCount++;
+    return true;
+  }
+
+  /**
+   * Unmarks the block, used when a block gets placed back into the mine.
+   *
+   * @return true if the block was marked as mined
+   */
+  public synchronized boolean unmarkMined(int x, int y, int z) {
+    if (!contains(x, y, z)) {
+      return false;
+    }
+    int index = index(x, y, z);
+    if (!mined.get(index)) {
+      return false;
+    }
+    mined.clear(index);
+    minedCount--;
+    return true;
+  }
+
+  /**
+   * Passes every mined position to the consumer, highest layer first, and clears them so anything
+   * broken afterwards is tracked for the next reset.
+   */
+  public synchronized void drain(Consumer<BlockVector3> consumer) {
+    int layer = sizeX * sizeZ;
+    for (int index = mined.previousSetBit(mined.length() - 1); index >= 0;
+        index = mined.previousSetBit(index - 1)) {
+      int y = index / layer;
+      int z = (index % layer) / sizeX;
+      int x = index % sizeX;
+      consumer.accept(BlockVector3.at(minX + x, minY + y, minZ + z));
+    }
+    mined.clear();
+    minedCount = 0;
+    primed = true;
+    drains++;
+  }
+
+  /**
+   * Forgets every mined position, called after the whole region has been refilled.
+   */
+  public synchronized void clear() {
+    mined.clear();
+    minedCount = 0;
+    primed = true;
+    drains = 0;
+  }
+
+  /**
+   * A tracker is primed once the region has been fully reset at least once, before that we don't
+   * know what state the blocks are in so only a full reset is safe.
+   */
+  public synchronized boolean isPrimed() {
+    return primed;
+  }
+
+  /**
+   * Checks if the next reset can refill only the mined positions. Blocks changed without being
+   * mined, by explosions or other plugins, are only fixed by a full reset, so one is done after
+   * every {@code fullResetInterval} drains.
+   *
+   * @param fullResetInterval the drains allowed between full resets, 0 or less for no limit
+   */
+  public synchronized boolean canDrain(int fullResetInterval) {
+    return primed && (fullResetInterval <= 0 || drains < fullResetInterval);
+  }
+
+  public synchronized int getMinedCount() {
+    return minedCount;
+  }
+
+  public long getVolume() {
+    return (long) sizeX * sizeY * sizeZ;
+  }
+
+  private int index(int x, int y, int z) {
+    return ((y - minY) * sizeZ + (z - minZ)) * sizeX + (x - minX);
+  }
+}
@@ -0,0 +1,89 @@
+package me.untouchedodin0.privatemines.mine.reset;
+
+import com.sk89q.worldedit.EditSession;
+import com.sk89q.worldedit.WorldEdit;
+import com.sk89q.worldedit.function.pattern.Pattern;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.regions.CuboidRegion;
+import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.world.World;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A reset that refills the mining region one Y layer at a time from the top down, spread over as
+ * many ticks as the {@link MineResetScheduler}'s block budget needs. Filling from the top means a
+ * player standing on the mine never has the blocks under them missing while the layers above are
+ * being placed.
+ */
+public class ProgressiveReset {
+
+  private final World world;
+  private final Pattern pattern;
+  private final int minX;
+  private final int minY;
+  private final int minZ;
+  private final int maxX;
+  private final int maxZ;
+  private final int layerArea;
+  private final CompletableFuture<Void> future = new CompletableFuture<>();
+  private int nextY;
+
+  public ProgressiveReset(World world, Region region, Pattern pattern) {
+    BlockVector3 min = region.getMinimumPoint();
+    BlockVector3 max = region.getMaximumPoint();
+    this.world = world;
+    this.pattern = pattern;
+    this.minX = min.getBlockX();
+    this.minY = min.getBlockY();
+    this.minZ = min.getBlockZ();
+    this.maxX = max.getBlockX();
+    this.maxZ = max.getBlockZ();
+    this.layerArea = (maxX - minX + 1) * (maxZ - minZ + 1);
+    this.nextY = max.getBlockY();
+  }
+
+  /**
+   * Fills as many layers as fit in the budget, at least one layer is always filled.
+   *
+   * @return the amount of blocks that were changed
+   */
+  public long step(long blockBudget) {
+    if (isDone()) {
+      return 0;
+    }
+    int layers = (int) Math.max(1L, Math.min(nextY - minY + 1, blockBudget / layerArea));
+    int lowestY = nextY - layers + 1;
+
+    try (EditSession editSession = WorldEdit.getInstance().newEditSessionBuilder().world(world)
+        .fastMode(true).build()) {
+      Region slice = new CuboidRegion(world, BlockVector3.at(minX, lowestY, minZ),
+          BlockVector3.at(maxX, nextY, maxZ));
+      editSession.setBlocks(slice, pattern);
+      editSession.flushQueue();
+    }
+
+    this.nextY = lowestY - 1;
+    if (nextY < minY) {
+      future.complete(null);
+    }
+    return (long) layers * layerArea;
+  }
+
+  /**
+   * Stops the reset, the layers which were already filled are left as they are.
+   */
+  public void cancel() {
+    future.cancel(false);
+  }
+
+  public boolean isDone() {
+    return future.isDone();
+  }
+
+  /**
+   * @return a future completed on the main thread once the last layer has been filled
+   */
+  public CompletableFuture<Void> getFuture() {
+    return future;
+  }
+}
@@ -0,0 +1,44 @@
+package me.untouchedodin0.privatemines.playershops;
+
+import java.util.Map;
+import org.bukkit.Material;
+
+/**
+ * The prices of a shop in an array indexed by {@link Material#ordinal()}, so looking up the price
+ * of a block or item is a single array read. A price of 0 means the material can't be sold.
+ */
+public final class PriceTable {
+
+    private static final Material[] MATERIALS = Material.values();
+
+    private final double[] prices;
+    private final boolean empty;
+
+    private PriceTable(double[] prices, boolean empty) {
+        this.prices = prices;
+        this.empty = empty;
+    }
+
+    public static PriceTable of(Map<Material, Double> prices) {
+        double[] table = new double[MATERIALS.length];
+        boolean empty = true;
+        if (prices != null) {
+            for (Map.Entry<Material, Double> entry : prices.entrySet()) {
+                Double price = entry.getValue();
+                if (entry.getKey() != null && price != null && price > 0) {
+                    table[entry.getKey().ordinal()] = price;
+                    empty = false;
+                }
+            }
+        }
+        return new PriceTable(table, empty);
+    }
+
+    public double get(Material material) {
+        return prices[material.ordinal()];
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+}
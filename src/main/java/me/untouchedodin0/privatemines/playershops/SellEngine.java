@@ -0,0 +1,170 @@
+package me.untouchedodin0.privatemines.playershops;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.kotlin.mine.type.MineType;
+import me.untouchedodin0.privatemines.PrivateMines;
+import me.untouchedodin0.privatemines.config.Config;
+import me.untouchedodin0.privatemines.mine.Mine;
+import me.untouchedodin0.privatemines.mine.TaxLedger;
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import redempt.redlib.misc.Task;
+
+/**
+ * The internal sell system, used by /privatemines sell and the auto sell of mined blocks when
+ * neither UltraPrisonCore nor AutoSell is installed.
+ * <p>
+ * Prices come from the {@link PriceTable} of the mine's shop. The owner's tax is recorded in the
+ * {@link me.untouchedodin0.privatemines.mine.TaxLedger}. Auto sold blocks are added up per player
+ * on the main thread and paid out once a second, so mining doesn't cost an economy call per block.
+ */
+public class SellEngine {
+
+    private final TaxLedger taxLedger;
+    private final Map<UUID, Double> pending = new HashMap<>();
+    private Task task;
+
+    public SellEngine(TaxLedger taxLedger) {
+        this.taxLedger = taxLedger;
+    }
+
+    public void start() {
+        this.task = Task.syncRepeating(this::flush, 20L, 20L);
+    }
+
+    /**
+     * Sells every item in the player's inventory the mine has a price for.
+     *
+     * @return what the player was paid after tax, 0 if nothing could be sold
+     */
+    public double sellInventory(Player player, Mine mine) {
+        PriceTable prices = getPrices(mine);
+        if (prices.isEmpty()) {
+            return 0;
+        }
+
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] contents = inventory.getStorageContents();
+        double total = sell(contents, prices);
+        if (total <= 0) {
+            return 0;
+        }
+
+        inventory.setStorageContents(contents);
+        MineData mineData = mine.getMineData();
+        double earned = takeTax(player.getUniqueId(), mineData.getMineOwner(), mineData.getTax(),
+                total);
+        Economy economy = PrivateMines.getEconomy();
+        if (economy != null) {
+            economy.depositPlayer(player, earned);
+        }
+        return earned;
+    }
+
+    /**
+     * Sells a block the player mined, the money is paid with the next payout.
+     *
+     * @return false if the mine has no price for the block
+     */
+    public boolean sellBlock(Player player, Mine mine, Material material) {
+        MineData mineData = mine.getMineData();
+        return sellBlock(player.getUniqueId(), mineData.getMineOwner(), mineData.getTax(),
+                getPrices(mine), material);
+    }
+
+    /**
+     * @param tax the tax of the mine in percent
+     */
+    boolean sellBlock(UUID seller, UUID owner, double tax, PriceTable prices, Material material) {
+        double price = prices.get(material);
+        if (price <= 0) {
+            return false;
+        }
+        pending.merge(seller, takeTax(seller, owner, tax, price), Double::sum);
+        return true;
+    }
+
+    /**
+     * Takes every item the table has a price for out of the contents.
+     *
+     * @return what the items taken out are worth
+     */
+    static double sell(ItemStack[] contents, PriceTable prices) {
+        double total = 0;
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
+            if (item == null) {
+                continue;
+            }
+            double price = prices.get(item.getType());
+            if (price > 0) {
+                total += price * item.getAmount();
+                contents[slot] = null;
+            }
+        }
+        return total;
+    }
+
+    private double takeTax(UUID seller, UUID owner, double percent, double total) {
+        if (!Config.enableTax || seller.equals(owner)) {
+            return total;
+        }
+        double tax = getTax(total, percent);
+        taxLedger.record(owner, tax);
+        return total - tax;
+    }
+
+    /**
+     * @param percent the tax of the mine, 0 or less is no tax
+     * @return the owner's part of the total
+     */
+    static double getTax(double total, double percent) {
+        if (percent <= 0) {
+            return 0;
+        }
+        return total / 100.0 * percent;
+    }
+
+    private PriceTable getPrices(Mine mine) {
+        MineData mineData = mine.getMineData();
+        Shop shop = mineData.getShop();
+        if (shop == null) {
+            // Shops aren't saved with the mines, loaded mines get the prices of their type again.
+            Map<Material, Double> prices = new HashMap<>();
+            MineType mineType = mineData.getMineType();
+            if (mineType.getMaterials() != null) {
+                prices.putAll(mineType.getMaterials());
+            }
+            shop = new ShopBuilder().setOwner(mineData.getMineOwner()).setPrices(prices).build();
+            mineData.setShop(shop);
+        }
+        return shop.getPriceTable();
+    }
+
+    private void flush() {
+        Economy economy = PrivateMines.getEconomy();
+        if (pending.isEmpty() || economy == null) {
+            return;
+        }
+        pending.forEach((uuid, amount) -> economy.depositPlayer(Bukkit.getOfflinePlayer(uuid), amount));
+        pending.clear();
+    }
+
+    /**
+     * Pays out what's still pending, used when the plugin disables.
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            this.task = null;
+        }
+        flush();
+    }
+}
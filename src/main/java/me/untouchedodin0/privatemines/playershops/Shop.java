@@ -45,6 +45,7 @@ public class Shop {
     UUID owner;
     Map<Material, Double> prices = new HashMap<>();
     Region region;
+    private volatile PriceTable priceTable;
 
     public UUID getOwner() {
         return owner;
@@ -62,6 +63,7 @@ public class Shop {
         Player player = Bukkit.getPlayer(getOwner());
         if (prices.containsKey(material)) {
             prices.put(material, price);
+            this.priceTable = null;
             if (player != null) {
                 player.sendMessage(ChatColor.GREEN + "Updated prices of " + material + " to $" + price);
             }
@@ -74,5 +76,18 @@ public class Shop {
 
     public void setPrices(Map<Material, Double> prices) {
         this.prices = prices;
+        this.priceTable = null;
+    }
+
+    /**
+     * Gets the prices as a {@link PriceTable}, built again after the prices changed.
+     */
+    public PriceTable getPriceTable() {
+        PriceTable table = priceTable;
+        if (table == null) {
+            table = PriceTable.of(prices);
+            this.priceTable = table;
+        }
+        return table;
     }
 }
@@ -0,0 +1,67 @@
+package me.untouchedodin0.privatemines.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import org.bukkit.Material;
+
+/**
+ * Keeps the mines in memory only, nothing survives a restart. Used by the tests and as the baseline
+ * of the storage benchmark.
+ */
+public class MemoryMineStore implements MineStore {
+
+  private final Map<UUID, MineData> mines = new ConcurrentHashMap<>();
+
+  @Override
+  public CompletableFuture<List<MineData>> loadAll() {
+    List<MineData> copies = new ArrayList<>(mines.size());
+    mines.values().forEach(mineData -> copies.add(copy(mineData)));
+    return CompletableFuture.completedFuture(copies);
+  }
+
+  @Override
+  public CompletableFuture<MineData> load(UUID owner) {
+    MineData mineData = mines.get(owner);
+    return CompletableFuture.completedFuture(mineData == null ? null : copy(mineData));
+  }
+
+  @Override
+  public CompletableFuture<Void> upsertAll(Collection<MineData> mines) {
+    mines.forEach(mineData -> this.mines.put(mineData.getMineOwner(), copy(mineData)));
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  public CompletableFuture<Void> delete(UUID owner) {
+    mines.remove(owner);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  public void close() {
+    mines.clear();
+  }
+
+  private static MineData copy(MineData mineData) {
+    MineData copy = new MineData(mineData.getMineOwner(), mineData.getMaximumMining(),
+        mineData.getMinimumMining(), mineData.getMinimumFullRegion(),
+        mineData.getMaximumFullRegion(), mineData.getMineLocation(), mineData.getSpawnLocation(),
+        mineData.getMineType(), mineData.isOpen(), mineData.getTax());
+    copy.setMaxPlayers(mineData.getMaxPlayers());
+    copy.setMaxMineSize(mineData.getMaxMineSize());
+
+    Map<Material, Double> materials = new EnumMap<>(Material.class);
+    materials.putAll(mineData.getMaterials());
+    copy.setMaterials(materials);
+    copy.setFriends(new ArrayList<>(mineData.getFriends()));
+    copy.setBannedPlayers(new ArrayList<>(mineData.getBannedPlayers()));
+    return copy;
+  }
+}
@@ -0,0 +1,74 @@
+package me.untouchedodin0.privatemines.storage;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.kotlin.mine.storage.MineStorage;
+import me.untouchedodin0.privatemines.PrivateMines;
+import me.untouchedodin0.privatemines.config.Config;
+import me.untouchedodin0.privatemines.mine.Mine;
+import org.bukkit.Bukkit;
+import redempt.redlib.misc.Task;
+
+/**
+ * Loads the mines from the {@link MineStore} at startup. The store reads them off the main thread,
+ * only adding them to the {@link MineStorage} is done back on the main thread. When idle mines are
+ * evicted only the mines of online owners are kept loaded, the rest are just indexed.
+ */
+public class MineLoader {
+
+  private final PrivateMines privateMines;
+
+  public MineLoader(PrivateMines privateMines) {
+    this.privateMines = privateMines;
+  }
+
+  /**
+   * Loads every stored mine.
+   *
+   * @return a future completed on the main thread once the mines have been registered, with the
+   * amount of mines that were loaded
+   */
+  public CompletableFuture<Integer> loadAll() {
+    CompletableFuture<Integer> future = new CompletableFuture<>();
+    long start = System.nanoTime();
+
+    privateMines.getMineStore().loadAll().whenComplete((mines, throwable) -> {
+      if (throwable != null) {
+        privateMines.getLogger().log(Level.SEVERE, "Failed to load the mines", throwable);
+        future.completeExceptionally(throwable);
+        return;
+      }
+      long read = System.nanoTime();
+
+      Task.syncDelayed(() -> {
+        int kept = register(mines);
+        long finished = System.nanoTime();
+
+        privateMines.getLogger().info(String.format(
+            "Loaded %d mines in %dms (%dms reading, %dms registering), %d kept loaded",
+            mines.size(), (finished - start) / 1_000_000, (read - start) / 1_000_000,
+            (finished - read) / 1_000_000, kept));
+        future.complete(mines.size());
+      });
+    });
+    return future;
+  }
+
+  private int register(List<MineData> loaded) {
+    MineStorage mineStorage = privateMines.getMineStorage();
+    int kept = 0;
+    for (MineData mineData : loaded) {
+      if (Config.mineIdleEviction > 0 && Bukkit.getPlayer(mineData.getMineOwner()) == null) {
+        mineStorage.index(mineData);
+        continue;
+      }
+      Mine mine = new Mine(privateMines);
+      mine.setMineData(mineData);
+      mineStorage.addMine(mineData.getMineOwner(), mine);
+      kept++;
+    }
+    return kept;
+  }
+}
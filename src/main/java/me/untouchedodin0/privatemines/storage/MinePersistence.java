@@ -0,0 +1,101 @@
+package me.untouchedodin0.privatemines.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.privatemines.PrivateMines;
+import me.untouchedodin0.privatemines.config.Config;
+import me.untouchedodin0.privatemines.mine.Mine;
+import redempt.redlib.misc.Task;
+
+/**
+ * Write-behind saving of the mines.
+ * <p>
+ * Changing a mine only marks it as dirty, every {@link Config#saveInterval} seconds the dirty mines
+ * are handed to the {@link MineStore} as one batch. The store copies them on the main thread and
+ * writes them off it, so a mine changed several times between two flushes is only written once
+ * and the main thread never touches the disk.
+ */
+public class MinePersistence {
+
+  private final PrivateMines privateMines;
+  private final Map<UUID, Mine> dirty = new ConcurrentHashMap<>();
+  private final AtomicLong writes = new AtomicLong();
+  private Task flushTask;
+
+  public MinePersistence(PrivateMines privateMines) {
+    this.privateMines = privateMines;
+  }
+
+  public void start() {
+    if (flushTask == null) {
+      long interval = Math.max(1L, Config.saveInterval * 20L);
+      this.flushTask = Task.syncRepeating(this::flush, interval, interval);
+    }
+  }
+
+  /**
+   * Stops flushing and hands everything that is still dirty to the store, the store has to be
+   * closed afterwards to wait for the writes.
+   */
+  public void shutdown() {
+    if (flushTask != null) {
+      flushTask.cancel();
+      this.flushTask = null;
+    }
+    flush();
+  }
+
+  public void markDirty(Mine mine) {
+    MineData mineData = mine.getMineData();
+    if (mineData != null) {
+      dirty.put(mineData.getMineOwner(), mine);
+    }
+  }
+
+  /**
+   * Forgets any pending changes of the mine and deletes it from the store.
+   */
+  public void delete(UUID uuid) {
+    dirty.remove(uuid);
+    privateMines.getMineStore().delete(uuid);
+  }
+
+  /**
+   * Hands every dirty mine to the store.
+   */
+  public void flush() {
+    if (dirty.isEmpty()) {
+      return;
+    }
+
+    List<MineData> mines = new ArrayList<>();
+    for (UUID uuid : new ArrayList<>(dirty.keySet())) {
+      Mine mine = dirty.remove(uuid);
+      if (mine != null && mine.getMineData() != null) {
+        mines.add(mine.getMineData());
+      }
+    }
+
+    if (!mines.isEmpty()) {
+      privateMines.getMineStore().upsertAll(mines);
+      writes.addAndGet(mines.size());
+    }
+  }
+
+  public boolean isDirty(UUID uuid) {
+    return dirty.containsKey(uuid);
+  }
+
+  public int getDirtyCount() {
+    return dirty.size();
+  }
+
+  public long getWriteCount() {
+    return writes.get();
+  }
+}
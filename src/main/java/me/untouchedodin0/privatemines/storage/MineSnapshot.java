@@ -0,0 +1,280 @@
+package me.untouchedodin0.privatemines.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.kotlin.mine.type.MineType;
+import me.untouchedodin0.privatemines.PrivateMines;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+/**
+ * A single binary file holding every mine, read through a memory mapped channel so startup doesn't
+ * have to parse thousands of YAML files.
+ * <p>
+ * The YAML files stay the source of truth. The snapshot stores the amount of mine files and a
+ * fingerprint of their names and last modified times, if either differs when it's read the
+ * snapshot is ignored and the mines are loaded from the YAML files instead.
+ * <p>
+ * Layout: magic, version, file count, fingerprint, record count, then one int length prefixed
+ * record per mine.
+ */
+public class MineSnapshot {
+
+  private static final int MAGIC = 0x504D534E; // PMSN
+  private static final int VERSION = 1;
+
+  private final Logger logger;
+  private final Function<String, MineType> mineTypes;
+  private final Path path;
+
+  public MineSnapshot(PrivateMines privateMines) {
+    this(privateMines.getLogger(), privateMines.getMineTypeManager()::getMineType,
+        privateMines.getDataFolder().toPath().resolve("mines.snapshot"));
+  }
+
+  /**
+   * @param mineTypes looks up the mine types by name when the snapshot is read
+   */
+  public MineSnapshot(Logger logger, Function<String, MineType> mineTypes, Path path) {
+    this.logger = logger;
+    this.mineTypes = mineTypes;
+    this.path = path;
+  }
+
+  /**
+   * Combines the names and last modified times of the mine files, any file being added, removed or
+   * changed changes the fingerprint. The order of the files doesn't matter.
+   */
+  public static long fingerprint(List<Path> files) throws IOException {
+    long fingerprint = 0;
+    for (Path file : files) {
+      long modified = Files.getLastModifiedTime(file).toMillis();
+      fingerprint += (file.getFileName().toString().hashCode() * 0x9E3779B97F4A7C15L) ^ modified;
+    }
+    return fingerprint;
+  }
+
+  /**
+   * Reads the snapshot.
+   *
+   * @return the mines or null if there's no snapshot or it doesn't match the mine files
+   */
+  public List<MineData> read(int fileCount, long fingerprint) {
+    if (!Files.exists(path)) {
+      return null;
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+          || buffer.getInt() != fileCount || buffer.getLong() != fingerprint) {
+        return null;
+      }
+
+      int count = buffer.getInt();
+      List<MineData> mines = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        int length = buffer.getInt();
+        ByteBuffer record = buffer.slice();
+        record.limit(length);
+        buffer.position(buffer.position() + length);
+
+        MineData mineData = readRecord(record);
+        if (mineData != null) {
+          mines.add(mineData);
+        }
+      }
+      return mines;
+    } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+      logger.warning("Ignoring the mine snapshot as it couldn't be read: " + e);
+      return null;
+    }
+  }
+
+  /**
+   * Serializes the mines, this should be called on the main thread so the data can't change while
+   * it's being written.
+   */
+  public static List<byte[]> serialize(Iterable<MineData> mines) {
+    List<byte[]> records = new ArrayList<>();
+    for (MineData mineData : mines) {
+      records.add(serialize(mineData));
+    }
+    return records;
+  }
+
+  public static byte[] serialize(MineData mineData) {
+    try {
+      return writeRecord(mineData);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Writes the serialized mines, the fingerprint has to be taken after the YAML files were
+   * written.
+   */
+  public void write(List<byte[]> records, int fileCount, long fingerprint) throws IOException {
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+    try (DataOutputStream output = new DataOutputStream(
+        Files.newOutputStream(temp))) {
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      output.writeInt(fileCount);
+      output.writeLong(fingerprint);
+      output.writeInt(records.size());
+      for (byte[] record : records) {
+        output.writeInt(record.length);
+        output.write(record);
+      }
+    }
+
+    try {
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static byte[] writeRecord(MineData mineData) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    DataOutputStream output = new DataOutputStream(bytes);
+
+    writeUuid(output, mineData.getMineOwner());
+    writeString(output, mineData.getMineType().getName());
+    writeString(output, mineData.getMineLocation().getWorld().getName());
+    writeLocation(output, mineData.getMineLocation());
+    writeLocation(output, mineData.getSpawnLocation());
+    writeLocation(output, mineData.getMinimumMining());
+    writeLocation(output, mineData.getMaximumMining());
+    writeLocation(output, mineData.getMinimumFullRegion());
+    writeLocation(output, mineData.getMaximumFullRegion());
+    output.writeDouble(mineData.getTax());
+    output.writeBoolean(mineData.isOpen());
+    output.writeInt(mineData.getMaxPlayers());
+    output.writeInt(mineData.getMaxMineSize());
+
+    Map<Material, Double> materials = mineData.getMaterials();
+    output.writeShort(materials.size());
+    for (Map.Entry<Material, Double> entry : materials.entrySet()) {
+      writeString(output, entry.getKey().name());
+      output.writeDouble(entry.getValue());
+    }
+
+    output.writeInt(mineData.getFriends().size());
+    for (UUID uuid : mineData.getFriends()) {
+      writeUuid(output, uuid);
+    }
+    output.writeInt(mineData.getBannedPlayers().size());
+    for (UUID uuid : mineData.getBannedPlayers()) {
+      writeUuid(output, uuid);
+    }
+    return bytes.toByteArray();
+  }
+
+  private MineData readRecord(ByteBuffer buffer) {
+    UUID owner = readUuid(buffer);
+    MineType mineType = mineTypes.apply(readString(buffer));
+    World world = Bukkit.getWorld(readString(buffer));
+
+    Location mineLocation = readLocation(buffer, world);
+    Location spawn = readLocation(buffer, world);
+    Location minimumMining = readLocation(buffer, world);
+    Location maximumMining = readLocation(buffer, world);
+    Location minimumFullRegion = readLocation(buffer, world);
+    Location maximumFullRegion = readLocation(buffer, world);
+    double tax = buffer.getDouble();
+    boolean open = buffer.get() != 0;
+    int maxPlayers = buffer.getInt();
+    buffer.getInt(); // The max mine size always comes from the mine type.
+
+    Map<Material, Double> materials = new EnumMap<>(Material.class);
+    int materialCount = buffer.getShort();
+    for (int i = 0; i < materialCount; i++) {
+      Material material = Material.matchMaterial(readString(buffer));
+      double chance = buffer.getDouble();
+      if (material != null) {
+        materials.put(material, chance);
+      }
+    }
+
+    List<UUID> friends = readUuids(buffer);
+    List<UUID> bannedPlayers = readUuids(buffer);
+
+    if (mineType == null || world == null) {
+      return null;
+    }
+
+    MineData mineData = new MineData(owner, maximumMining, minimumMining, minimumFullRegion,
+        maximumFullRegion, mineLocation, spawn, mineType, open, tax);
+    mineData.setMaxPlayers(maxPlayers);
+    mineData.setMaxMineSize(mineType.getMaxMineSize());
+    mineData.setMaterials(materials);
+    mineData.setFriends(friends);
+    mineData.setBannedPlayers(bannedPlayers);
+    return mineData;
+  }
+
+  private static void writeUuid(DataOutputStream output, UUID uuid) throws IOException {
+    output.writeLong(uuid.getMostSignificantBits());
+    output.writeLong(uuid.getLeastSignificantBits());
+  }
+
+  private static UUID readUuid(ByteBuffer buffer) {
+    return new UUID(buffer.getLong(), buffer.getLong());
+  }
+
+  private static List<UUID> readUuids(ByteBuffer buffer) {
+    int count = buffer.getInt();
+    List<UUID> uuids = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      uuids.add(readUuid(buffer));
+    }
+    return uuids;
+  }
+
+  private static void writeString(DataOutputStream output, String string) throws IOException {
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    output.writeShort(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeLocation(DataOutputStream output, Location location) throws IOException {
+    output.writeDouble(location.getX());
+    output.writeDouble(location.getY());
+    output.writeDouble(location.getZ());
+  }
+
+  private static Location readLocation(ByteBuffer buffer, World world) {
+    return new Location(world, buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+  }
+}
@@ -1,13 +1,13 @@
 package me.untouchedodin0.privatemines.storage;
 
-import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.kotlin.mine.storage.MineGridIndex;
 import me.untouchedodin0.privatemines.PrivateMines;
+import me.untouchedodin0.privatemines.config.Config;
 import me.untouchedodin0.privatemines.mine.Mine;
 import org.bukkit.Location;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
 import java.util.UUID;
 
 @Deprecated
@@ -15,12 +15,14 @@ public class MineStorage {
 
     public Map<UUID, Mine> mines = new HashMap<>();
     public PrivateMines privateMines = PrivateMines.getPrivateMines();
+    private final MineGridIndex gridIndex = new MineGridIndex(Config.mineDistance);
 
     public void addMine(UUID uuid, Mine mine) {
         if (mines.containsKey(uuid)) {
             privateMines.getLogger().info(String.format("Player %s already has a mine!!", uuid.toString()));
         } else {
             mines.put(uuid, mine);
+            gridIndex.add(uuid, mine.getMineData());
         }
     }
 
@@ -29,6 +31,7 @@ public class MineStorage {
             privateMines.getLogger().warning(String.format("Player %s doesn't a mine!!", uuid.toString()));
         } else {
             mines.remove(uuid);
+            gridIndex.remove(uuid);
         }
     }
 
@@ -45,21 +48,7 @@ public class MineStorage {
     }
 
     public Mine getClosest(Location location) {
-        Map<Mine, Double> distances = new HashMap<>();
-        Map.Entry<Mine, Double> min = null;
-
-        mines.forEach((uuid, mine) -> {
-            MineData mineData = mine.getMineData();
-            Location mineLocation = mineData.getMineLocation();
-            double distance = location.distance(mineLocation);
-            distances.putIfAbsent(mine, distance);
-        });
-
-        for (Map.Entry<Mine, Double> entry : distances.entrySet()) {
-            if (min == null || min.getValue() > entry.getValue()) {
-                min = entry;
-            }
-        }
-        return Objects.requireNonNull(min).getKey();
+        UUID owner = gridIndex.get(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        return owner == null ? null : mines.get(owner);
     }
 }
@@ -0,0 +1,45 @@
+package me.untouchedodin0.privatemines.storage;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+
+/**
+ * Where the mines are persisted.
+ * <p>
+ * Every operation runs off the calling thread and returns a future. The writes copy the mine data
+ * before they return, so the caller is free to keep changing it while the write is in progress.
+ */
+public interface MineStore {
+
+  /**
+   * Reads every stored mine, mines which can't be read (such as ones with a mine type that no
+   * longer exists) are skipped.
+   */
+  CompletableFuture<List<MineData>> loadAll();
+
+  /**
+   * @return the mine of the owner, or null if they don't have one stored
+   */
+  CompletableFuture<MineData> load(UUID owner);
+
+  /**
+   * Writes the mines as one batch, replacing whatever was stored for them before.
+   */
+  CompletableFuture<Void> upsertAll(Collection<MineData> mines);
+
+  default CompletableFuture<Void> upsert(MineData mineData) {
+    return upsertAll(Collections.singletonList(mineData));
+  }
+
+  CompletableFuture<Void> delete(UUID owner);
+
+  /**
+   * Waits for the pending writes to finish and releases the store, should be called on the main
+   * thread.
+   */
+  void close();
+}
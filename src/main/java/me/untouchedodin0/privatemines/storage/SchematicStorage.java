@@ -21,15 +21,28 @@
 
 package me.untouchedodin0.privatemines.storage;
 
+import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormat;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormats;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardReader;
+import com.sk89q.worldedit.math.BlockVector3;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import me.untouchedodin0.privatemines.PrivateMines;
+import me.untouchedodin0.privatemines.config.Config;
 import me.untouchedodin0.privatemines.iterator.SchematicIterator.MineBlocks;
 
 public class SchematicStorage {
 
   private final Map<File, MineBlocks> mineBlocksMap = new HashMap<>();
+  private final LinkedHashMap<String, CachedClipboard> clipboards = new LinkedHashMap<>(16, 0.75f,
+      true);
+  private long cachedBlocks;
 
 
   public void addSchematic(File file, MineBlocks mineBlocks) {
@@ -44,4 +57,83 @@ public class SchematicStorage {
   public Map<File, MineBlocks> getMineBlocksMap() {
     return mineBlocksMap;
   }
+
+  /**
+   * Gets the parsed clipboard of a schematic, the file is only read the first time or when its
+   * size or last modified time changes. The least recently used clipboards are dropped once the
+   * cache holds more than {@link Config#schematicCacheBlocks} blocks.
+   * <p>
+   * The returned clipboard is shared, it must only be pasted from and never modified.
+   *
+   * @return the clipboard or null if the file isn't a known schematic format
+   */
+  public synchronized Clipboard getClipboard(File file) throws IOException {
+    String path = file.getAbsolutePath();
+    long size = file.length();
+    long lastModified = file.lastModified();
+
+    CachedClipboard cached = clipboards.get(path);
+    if (cached != null) {
+      if (cached.size == size && cached.lastModified == lastModified) {
+        return cached.clipboard;
+      }
+      remove(path);
+    }
+
+    ClipboardFormat clipboardFormat = ClipboardFormats.findByFile(file);
+    if (clipboardFormat == null) {
+      return null;
+    }
+
+    Clipboard clipboard;
+    try (ClipboardReader clipboardReader = clipboardFormat.getReader(new FileInputStream(file))) {
+      clipboard = clipboardReader.read();
+    }
+
+    BlockVector3 dimensions = clipboard.getDimensions();
+    long blocks = (long) dimensions.getBlockX() * dimensions.getBlockY() * dimensions.getBlockZ();
+    clipboards.put(path, new CachedClipboard(clipboard, size, lastModified, blocks));
+    this.cachedBlocks += blocks;
+    evict();
+    return clipboard;
+  }
+
+  public synchronized void clearClipboards() {
+    clipboards.clear();
+    this.cachedBlocks = 0;
+  }
+
+  private void remove(String path) {
+    CachedClipboard removed = clipboards.remove(path);
+    if (removed != null) {
+      this.cachedBlocks -= removed.blocks;
+    }
+  }
+
+  private void evict() {
+    Iterator<CachedClipboard> iterator = clipboards.values().iterator();
+    // The newest clipboard is always kept even if it's larger than the limit by itself.
+    while (cachedBlocks > Config.schematicCacheBlocks && clipboards.size() > 1) {
+      CachedClipboard eldest = iterator.next();
+      iterator.remove();
+      this.cachedBlocks -= eldest.blocks;
+      PrivateMines.getPrivateMines().getLogger()
+          .info(String.format("Removed a schematic with %d blocks from the cache", eldest.blocks));
+    }
+  }
+
+  private static class CachedClipboard {
+
+    private final Clipboard clipboard;
+    private final long size;
+    private final long lastModified;
+    private final long blocks;
+
+    CachedClipboard(Clipboard clipboard, long size, long lastModified, long blocks) {
+      this.clipboard = clipboard;
+      this.size = size;
+      this.lastModified = lastModified;
+      this.blocks = blocks;
+    }
+  }
 }
@@ -0,0 +1,15 @@
+package me.untouchedodin0.privatemines.storage;
+
+/**
+ * Where the mines are saved to and loaded from.
+ */
+public enum StorageType {
+  /**
+   * One YAML file per mine in the mines directory.
+   */
+  YAML,
+  /**
+   * A single SQLite database, see {@link me.untouchedodin0.privatemines.storage.sql.MineRepository}.
+   */
+  SQLITE
+}
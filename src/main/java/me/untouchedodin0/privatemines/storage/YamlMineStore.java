@@ -0,0 +1,396 @@
+package me.untouchedodin0.privatemines.storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.kotlin.mine.type.MineType;
+import me.untouchedodin0.privatemines.PrivateMines;
+import me.untouchedodin0.privatemines.config.Config;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import redempt.redlib.misc.LocationUtils;
+
+/**
+ * Stores every mine in its own YAML file.
+ * <p>
+ * The files are written by a single writer thread which replaces them atomically, and parsed in
+ * parallel when loading. When the {@link MineSnapshot} is enabled and up to date it's read instead
+ * of the files, and it's rebuilt after the files had to be parsed and when the store is closed.
+ * <p>
+ * For the snapshot the store keeps the record of every mine on disk, taken from the last load and
+ * replaced by every write, so it can be rebuilt on close while most mines aren't loaded.
+ */
+public class YamlMineStore implements MineStore {
+
+  /**
+   * Matches one entry of the materials written by older versions, which saved the map's
+   * toString() such as {STONE=0.5, COAL_ORE=0.5}.
+   */
+  private static final Pattern LEGACY_MATERIAL = Pattern.compile("([A-Za-z0-9_]+)=([0-9.Ee+-]+)");
+
+  private final Logger logger;
+  private final Function<String, MineType> mineTypes;
+  private final Path directory;
+  private final MineSnapshot snapshot;
+  private final Map<UUID, byte[]> records = new ConcurrentHashMap<>();
+  private volatile boolean loaded;
+  private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "PrivateMines Writer");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * @param useSnapshot whether the {@link MineSnapshot} should be used, only the store holding the
+   *                    mines directory should use it
+   */
+  public YamlMineStore(PrivateMines privateMines, Path directory, boolean useSnapshot) {
+    this(privateMines.getLogger(), privateMines.getMineTypeManager()::getMineType, directory,
+        useSnapshot ? new MineSnapshot(privateMines) : null);
+  }
+
+  /**
+   * Creates a store without the snapshot, which doesn't need the plugin.
+   *
+   * @param mineTypes looks up the mine types by name when the files are parsed
+   */
+  public YamlMineStore(Logger logger, Function<String, MineType> mineTypes, Path directory) {
+    this(logger, mineTypes, directory, null);
+  }
+
+  /**
+   * @param snapshot the snapshot of the mines directory, or null to always parse the files
+   */
+  public YamlMineStore(Logger logger, Function<String, MineType> mineTypes, Path directory,
+      MineSnapshot snapshot) {
+    this.logger = logger;
+    this.mineTypes = mineTypes;
+    this.directory = directory;
+    this.snapshot = snapshot;
+  }
+
+  @Override
+  public CompletableFuture<List<MineData>> loadAll() {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        long start = System.nanoTime();
+        List<Path> files = listMineFiles(directory);
+        long fingerprint = 0;
+        if (snapshot != null) {
+          fingerprint = MineSnapshot.fingerprint(files);
+          List<MineData> mines = snapshot.read(files.size(), fingerprint);
+          if (mines != null) {
+            remember(mines);
+            return mines;
+          }
+        }
+
+        List<MineData> mines = parseAll(files);
+        double seconds = Math.max(1, System.nanoTime() - start) / 1_000_000_000.0;
+        logger.info(String.format("Parsed %d mine files (%.0f files/sec)",
+            files.size(), files.size() / seconds));
+
+        // The files were just read so the snapshot can be rebuilt to match them straight away.
+        if (snapshot != null) {
+          List<byte[]> records = remember(mines);
+          int fileCount = files.size();
+          long snapshotFingerprint = fingerprint;
+          writer.execute(() -> {
+            try {
+              snapshot.write(records, fileCount, snapshotFingerprint);
+            } catch (IOException e) {
+              logger.log(Level.WARNING, "Failed to write the mine snapshot", e);
+            }
+          });
+        }
+        return mines;
+      } catch (IOException | InterruptedException | ExecutionException e) {
+        throw new CompletionException(e);
+      }
+    });
+  }
+
+  /**
+   * Keeps the records of the loaded mines, a mine written while they were loaded keeps the record
+   * of that write.
+   */
+  private List<byte[]> remember(List<MineData> mines) {
+    List<byte[]> serialized = MineSnapshot.serialize(mines);
+    for (int i = 0; i < mines.size(); i++) {
+      records.putIfAbsent(mines.get(i).getMineOwner(), serialized.get(i));
+    }
+    this.loaded = true;
+    return serialized;
+  }
+
+  @Override
+  public CompletableFuture<MineData> load(UUID owner) {
+    // Loaded on the writer so a write queued before it is seen.
+    return CompletableFuture.supplyAsync(() -> {
+      Path path = getPath(owner);
+      return Files.exists(path) ? parse(path) : null;
+    }, writer);
+  }
+
+  @Override
+  public CompletableFuture<Void> upsertAll(Collection<MineData> mines) {
+    Map<Path, String> contents = new LinkedHashMap<>();
+    Map<UUID, byte[]> written = new HashMap<>();
+    for (MineData mineData : mines) {
+      contents.put(getPath(mineData.getMineOwner()), serialize(mineData));
+      if (snapshot != null) {
+        written.put(mineData.getMineOwner(), MineSnapshot.serialize(mineData));
+      }
+    }
+    return CompletableFuture.runAsync(() -> {
+      contents.forEach(this::write);
+      records.putAll(written);
+    }, writer);
+  }
+
+  @Override
+  public CompletableFuture<Void> delete(UUID owner) {
+    Path path = getPath(owner);
+    return CompletableFuture.runAsync(() -> {
+      records.remove(owner);
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException e) {
+        logger.log(Level.WARNING, "Failed to delete " + path, e);
+      }
+    }, writer);
+  }
+
+  /**
+   * Rebuilds the snapshot from the records of the mines and waits for the writer to finish.
+   */
+  @Override
+  public void close() {
+    if (snapshot != null && loaded) {
+      writeSnapshot();
+    }
+    writer.shutdown();
+    try {
+      if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+        logger.warning("Timed out waiting for the mine files to be written!");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Rebuilds the {@link MineSnapshot} once every write queued before it has finished, so its
+   * fingerprint matches the files. Files without a record, such as ones copied in while the server
+   * was running, are parsed.
+   */
+  private void writeSnapshot() {
+    writer.execute(() -> {
+      try {
+        List<Path> files = listMineFiles(directory);
+        List<byte[]> snapshotRecords = new ArrayList<>(files.size());
+        for (Path file : files) {
+          UUID owner = getOwner(file);
+          byte[] record = owner == null ? null : records.get(owner);
+          if (record == null) {
+            MineData mineData = parse(file);
+            record = mineData == null ? null : MineSnapshot.serialize(mineData);
+          }
+          if (record != null) {
+            snapshotRecords.add(record);
+          }
+        }
+        snapshot.write(snapshotRecords, files.size(), MineSnapshot.fingerprint(files));
+      } catch (IOException e) {
+        logger.log(Level.WARNING, "Failed to write the mine snapshot", e);
+      }
+    });
+  }
+
+  /**
+   * @return the owner the file is named after, or null if it isn't named after one
+   */
+  private static UUID getOwner(Path file) {
+    String name = file.getFileName().toString();
+    try {
+      return UUID.fromString(name.substring(0, name.length() - ".yml".length()));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  public static List<Path> listMineFiles(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      return paths.filter(path -> path.getFileName().toString().endsWith(".yml"))
+          .collect(Collectors.toList());
+    }
+  }
+
+  private List<MineData> parseAll(List<Path> files)
+      throws InterruptedException, ExecutionException {
+    int threads = Config.loadThreads > 0 ? Config.loadThreads
+        : Runtime.getRuntime().availableProcessors();
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      return pool.submit(() -> files.parallelStream().map(this::parse).filter(Objects::nonNull)
+          .collect(Collectors.toList())).get();
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Parses a single mine file.
+   *
+   * @return the mine's data or null if the file isn't a valid mine
+   */
+  public MineData parse(Path path) {
+    YamlConfiguration yml = YamlConfiguration.loadConfiguration(path.toFile());
+
+    String ownerString = yml.getString("mineOwner");
+    String mineTypeName = yml.getString("mineType");
+    MineType mineType = mineTypes.apply(mineTypeName);
+
+    if (ownerString == null || mineType == null) {
+      logger.warning(String.format(
+          "Skipping %s as it doesn't have a valid owner or mine type", path.getFileName()));
+      return null;
+    }
+
+    UUID owner = UUID.fromString(ownerString);
+    Location corner1 = LocationUtils.fromString(yml.getString("corner1"));
+    Location corner2 = LocationUtils.fromString(yml.getString("corner2"));
+    Location fullRegionMin = LocationUtils.fromString(yml.getString("fullRegionMin"));
+    Location fullRegionMax = LocationUtils.fromString(yml.getString("fullRegionMax"));
+    Location spawn = LocationUtils.fromString(yml.getString("spawn"));
+    Location mineLocation = LocationUtils.fromString(yml.getString("mineLocation"));
+    boolean isOpen = yml.getBoolean("isOpen");
+    double tax = yml.getDouble("tax");
+
+    MineData mineData = new MineData(owner, corner1, corner2, fullRegionMin, fullRegionMax,
+        mineLocation, spawn, mineType, isOpen, tax);
+    mineData.setMaxPlayers(yml.getInt("maxPlayers"));
+    mineData.setMaxMineSize(mineType.getMaxMineSize());
+    mineData.setMaterials(parseMaterials(yml));
+    mineData.setFriends(parseUuids(yml.getStringList("friends")));
+    mineData.setBannedPlayers(parseUuids(yml.getStringList("bannedPlayers")));
+    return mineData;
+  }
+
+  private Map<Material, Double> parseMaterials(YamlConfiguration yml) {
+    Map<Material, Double> materials = new EnumMap<>(Material.class);
+
+    ConfigurationSection section = yml.getConfigurationSection("materials");
+    if (section != null) {
+      for (String key : section.getKeys(false)) {
+        Material material = Material.matchMaterial(key);
+        if (material != null) {
+          materials.put(material, section.getDouble(key));
+        }
+      }
+      return materials;
+    }
+
+    String legacy = yml.getString("materials");
+    if (legacy != null) {
+      Matcher matcher = LEGACY_MATERIAL.matcher(legacy);
+      while (matcher.find()) {
+        Material material = Material.matchMaterial(matcher.group(1));
+        if (material != null) {
+          materials.put(material, Double.parseDouble(matcher.group(2)));
+        }
+      }
+    }
+    return materials;
+  }
+
+  private List<UUID> parseUuids(List<String> strings) {
+    List<UUID> uuids = new ArrayList<>(strings.size());
+    for (String string : strings) {
+      try {
+        uuids.add(UUID.fromString(string));
+      } catch (IllegalArgumentException ignored) {
+        // Skip anything that was edited into something that isn't a UUID.
+      }
+    }
+    return uuids;
+  }
+
+  public static String serialize(MineData mineData) {
+    YamlConfiguration yml = new YamlConfiguration();
+
+    yml.set("mineOwner", mineData.getMineOwner().toString());
+    yml.set("mineType", mineData.getMineType().getName());
+    yml.set("mineLocation", LocationUtils.toString(mineData.getMineLocation()));
+    yml.set("corner1", LocationUtils.toString(mineData.getMinimumMining()));
+    yml.set("corner2", LocationUtils.toString(mineData.getMaximumMining()));
+    yml.set("fullRegionMin", LocationUtils.toString(mineData.getMinimumFullRegion()));
+    yml.set("fullRegionMax", LocationUtils.toString(mineData.getMaximumFullRegion()));
+    yml.set("spawn", LocationUtils.toString(mineData.getSpawnLocation()));
+    yml.set("tax", mineData.getTax());
+    yml.set("isOpen", mineData.isOpen());
+    yml.set("maxPlayers", mineData.getMaxPlayers());
+    yml.set("maxMineSize", mineData.getMaxMineSize());
+
+    mineData.getMaterials()
+        .forEach((material, chance) -> yml.set("materials." + material.name(), chance));
+    yml.set("friends", toStrings(mineData.getFriends()));
+    yml.set("bannedPlayers", toStrings(mineData.getBannedPlayers()));
+    return yml.saveToString();
+  }
+
+  private static List<String> toStrings(List<UUID> uuids) {
+    List<String> strings = new ArrayList<>(uuids.size());
+    uuids.forEach(uuid -> strings.add(uuid.toString()));
+    return strings;
+  }
+
+  private Path getPath(UUID uuid) {
+    return directory.resolve(uuid + ".yml");
+  }
+
+  private void write(Path path, String contents) {
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try {
+      Files.writeString(temp, contents, StandardCharsets.UTF_8);
+      try {
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Failed to save " + path, e);
+    }
+  }
+}
@@ -0,0 +1,492 @@
+package me.untouchedodin0.privatemines.storage.sql;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.kotlin.mine.type.MineType;
+import me.untouchedodin0.privatemines.PrivateMines;
+import me.untouchedodin0.privatemines.storage.MineStore;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import redempt.redlib.misc.LocationUtils;
+
+/**
+ * Stores the mines in a SQLite database.
+ * <p>
+ * The repository owns its own connection which is only ever used from a single I/O thread, so
+ * nothing here blocks the main thread. The mine data is copied into rows on the calling thread and
+ * the rows are written in one transaction per call using batched prepared statements.
+ * The database runs in WAL mode so the writes don't have to wait on readers.
+ */
+public class MineRepository implements MineStore {
+
+  private static final String[] SCHEMA = {
+      """
+      CREATE TABLE IF NOT EXISTS mines (
+        owner TEXT PRIMARY KEY NOT NULL,
+        mine_type TEXT NOT NULL,
+        mine_location TEXT NOT NULL,
+        corner1 TEXT NOT NULL,
+        corner2 TEXT NOT NULL,
+        full_min TEXT NOT NULL,
+        full_max TEXT NOT NULL,
+        spawn TEXT NOT NULL,
+        tax REAL NOT NULL DEFAULT 0,
+        open INTEGER NOT NULL DEFAULT 0,
+        max_players INTEGER NOT NULL DEFAULT 0,
+        max_mine_size INTEGER NOT NULL DEFAULT 0
+      )""",
+      """
+      CREATE TABLE IF NOT EXISTS mine_materials (
+        owner TEXT NOT NULL,
+        material TEXT NOT NULL,
+        chance REAL NOT NULL,
+        PRIMARY KEY (owner, material)
+      ) WITHOUT ROWID""",
+      """
+      CREATE TABLE IF NOT EXISTS mine_friends (
+        owner TEXT NOT NULL,
+        player TEXT NOT NULL,
+        PRIMARY KEY (owner, player)
+      ) WITHOUT ROWID""",
+      """
+      CREATE TABLE IF NOT EXISTS mine_bans (
+        owner TEXT NOT NULL,
+        player TEXT NOT NULL,
+        PRIMARY KEY (owner, player)
+      ) WITHOUT ROWID"""
+  };
+
+  private static final String UPSERT_MINE = """
+      INSERT OR REPLACE INTO mines (owner, mine_type, mine_location, corner1, corner2, full_min,
+        full_max, spawn, tax, open, max_players, max_mine_size)
+      VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+  /**
+   * Every mine with its materials, friends and bans in one row, so the whole database is read with
+   * a single query.
+   */
+  private static final String SELECT_ALL = """
+      SELECT m.*,
+        (SELECT group_concat(material || '=' || chance) FROM mine_materials WHERE owner = m.owner)
+          AS materials,
+        (SELECT group_concat(player) FROM mine_friends WHERE owner = m.owner) AS friends,
+        (SELECT group_concat(player) FROM mine_bans WHERE owner = m.owner) AS bans
+      FROM mines m""";
+
+  private static final String[] CHILD_TABLES = {"mine_materials", "mine_friends", "mine_bans"};
+
+  private final Logger logger;
+  private final Function<String, MineType> mineTypes;
+  private final File file;
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "PrivateMines SQLite");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private Connection connection;
+
+  public MineRepository(PrivateMines privateMines) {
+    this(privateMines, new File(privateMines.getDataFolder(), "mines.db"));
+  }
+
+  public MineRepository(PrivateMines privateMines, File file) {
+    this(privateMines.getLogger(), privateMines.getMineTypeManager()::getMineType, file);
+  }
+
+  /**
+   * @param mineTypes looks up the mine types by name when the mines are read
+   */
+  public MineRepository(Logger logger, Function<String, MineType> mineTypes, File file) {
+    this.logger = logger;
+    this.mineTypes = mineTypes;
+    this.file = file;
+  }
+
+  /**
+   * Opens the database and creates the tables if they don't exist yet.
+   */
+  public CompletableFuture<Void> open() {
+    return CompletableFuture.runAsync(() -> {
+      try {
+        Class.forName("org.sqlite.JDBC");
+        this.connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("PRAGMA journal_mode=WAL");
+          statement.execute("PRAGMA synchronous=NORMAL");
+          for (String table : SCHEMA) {
+            statement.executeUpdate(table);
+          }
+        }
+        connection.setAutoCommit(false);
+        connection.commit();
+      } catch (SQLException | ClassNotFoundException e) {
+        logger.log(Level.SEVERE, "Failed to open " + file.getName(), e);
+        throw new IllegalStateException(e);
+      }
+    }, executor);
+  }
+
+  /**
+   * Writes the mines in a single transaction, replacing whatever was stored for them before.
+   */
+  @Override
+  public CompletableFuture<Void> upsertAll(Collection<MineData> mines) {
+    List<Row> rows = new ArrayList<>(mines.size());
+    mines.forEach(mineData -> rows.add(Row.of(mineData)));
+    return write(rows);
+  }
+
+  private CompletableFuture<Void> write(List<Row> rows) {
+    if (rows.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return CompletableFuture.runAsync(() -> transaction(() -> {
+      try (PreparedStatement mines = connection.prepareStatement(UPSERT_MINE);
+          PreparedStatement materials = connection.prepareStatement(
+              "INSERT INTO mine_materials (owner, material, chance) VALUES (?, ?, ?)");
+          PreparedStatement friends = connection.prepareStatement(
+              "INSERT INTO mine_friends (owner, player) VALUES (?, ?)");
+          PreparedStatement bans = connection.prepareStatement(
+              "INSERT INTO mine_bans (owner, player) VALUES (?, ?)")) {
+        deleteChildren(rows);
+
+        for (Row row : rows) {
+          mines.setString(1, row.owner);
+          mines.setString(2, row.mineType);
+          mines.setString(3, row.mineLocation);
+          mines.setString(4, row.corner1);
+          mines.setString(5, row.corner2);
+          mines.setString(6, row.fullMin);
+          mines.setString(7, row.fullMax);
+          mines.setString(8, row.spawn);
+          mines.setDouble(9, row.tax);
+          mines.setBoolean(10, row.open);
+          mines.setInt(11, row.maxPlayers);
+          mines.setInt(12, row.maxMineSize);
+          mines.addBatch();
+
+          for (Map.Entry<String, Double> entry : row.materials.entrySet()) {
+            materials.setString(1, row.owner);
+            materials.setString(2, entry.getKey());
+            materials.setDouble(3, entry.getValue());
+            materials.addBatch();
+          }
+          addPlayers(friends, row.owner, row.friends);
+          addPlayers(bans, row.owner, row.bannedPlayers);
+        }
+        mines.executeBatch();
+        materials.executeBatch();
+        friends.executeBatch();
+        bans.executeBatch();
+      }
+    }), executor);
+  }
+
+  @Override
+  public CompletableFuture<Void> delete(UUID owner) {
+    return CompletableFuture.runAsync(() -> transaction(() -> {
+      Row row = new Row(owner.toString());
+      try (PreparedStatement statement = connection.prepareStatement(
+          "DELETE FROM mines WHERE owner = ?")) {
+        statement.setString(1, row.owner);
+        statement.executeUpdate();
+      }
+      deleteChildren(Collections.singletonList(row));
+    }), executor);
+  }
+
+  @Override
+  public CompletableFuture<MineData> load(UUID owner) {
+    return CompletableFuture.supplyAsync(() -> {
+      try (PreparedStatement statement = connection.prepareStatement(
+          SELECT_ALL + " WHERE m.owner = ?")) {
+        statement.setString(1, owner.toString());
+        MineData mineData = null;
+        try (ResultSet resultSet = statement.executeQuery()) {
+          if (resultSet.next()) {
+            mineData = read(resultSet);
+          }
+        }
+        connection.commit();
+        return mineData;
+      } catch (SQLException e) {
+        logger.log(Level.SEVERE, "Failed to load the mine of " + owner, e);
+        throw new IllegalStateException(e);
+      }
+    }, executor);
+  }
+
+  @Override
+  public CompletableFuture<List<MineData>> loadAll() {
+    return CompletableFuture.supplyAsync(() -> {
+      List<MineData> mines = new ArrayList<>();
+      try (Statement statement = connection.createStatement()) {
+        statement.setFetchSize(512);
+        try (ResultSet resultSet = statement.executeQuery(SELECT_ALL)) {
+          while (resultSet.next()) {
+            MineData mineData = read(resultSet);
+            if (mineData != null) {
+              mines.add(mineData);
+            }
+          }
+        }
+        connection.commit();
+      } catch (SQLException e) {
+        logger.log(Level.SEVERE, "Failed to load the mines from SQLite", e);
+        throw new IllegalStateException(e);
+      }
+      return mines;
+    }, executor);
+  }
+
+  /**
+   * @return the amount of mines stored
+   */
+  public CompletableFuture<Integer> count() {
+    return CompletableFuture.supplyAsync(() -> {
+      try (Statement statement = connection.createStatement();
+          ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM mines")) {
+        int count = resultSet.next() ? resultSet.getInt(1) : 0;
+        connection.commit();
+        return count;
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+    }, executor);
+  }
+
+  /**
+   * @return how many of the owners have a mine stored
+   */
+  public CompletableFuture<Integer> countExisting(Collection<UUID> owners) {
+    List<UUID> list = new ArrayList<>(owners);
+    return CompletableFuture.supplyAsync(() -> {
+      int count = 0;
+      try {
+        // Older SQLite versions only allow 999 parameters per statement.
+        for (int from = 0; from < list.size(); from += 500) {
+          List<UUID> chunk = list.subList(from, Math.min(list.size(), from + 500));
+          String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+          try (PreparedStatement statement = connection.prepareStatement(
+              "SELECT COUNT(*) FROM mines WHERE owner IN (" + placeholders + ")")) {
+            for (int i = 0; i < chunk.size(); i++) {
+              statement.setString(i + 1, chunk.get(i).toString());
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+              count += resultSet.next() ? resultSet.getInt(1) : 0;
+            }
+          }
+        }
+        connection.commit();
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+      return count;
+    }, executor);
+  }
+
+  /**
+   * Waits for the queued writes to finish and closes the connection.
+   */
+  @Override
+  public void close() {
+    executor.execute(() -> {
+      try {
+        if (connection != null) {
+          connection.close();
+        }
+      } catch (SQLException e) {
+        logger.log(Level.WARNING, "Failed to close " + file.getName(), e);
+      }
+    });
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+        logger.warning("Timed out waiting for the mines to be written to SQLite!");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void transaction(SqlRunnable runnable) {
+    try {
+      runnable.run();
+      connection.commit();
+    } catch (SQLException e) {
+      try {
+        connection.rollback();
+      } catch (SQLException rollback) {
+        e.addSuppressed(rollback);
+      }
+      logger.log(Level.SEVERE, "Failed to write the mines to SQLite", e);
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void deleteChildren(Collection<Row> rows) throws SQLException {
+    for (String table : CHILD_TABLES) {
+      try (PreparedStatement statement = connection.prepareStatement(
+          "DELETE FROM " + table + " WHERE owner = ?")) {
+        for (Row row : rows) {
+          statement.setString(1, row.owner);
+          statement.addBatch();
+        }
+        statement.executeBatch();
+      }
+    }
+  }
+
+  private static void addPlayers(PreparedStatement statement, String owner, List<String> players)
+      throws SQLException {
+    for (String player : players) {
+      statement.setString(1, owner);
+      statement.setString(2, player);
+      statement.addBatch();
+    }
+  }
+
+  private MineData read(ResultSet resultSet) throws SQLException {
+    MineType mineType = mineTypes.apply(resultSet.getString("mine_type"));
+    if (mineType == null) {
+      logger.warning(String.format(
+          "Skipping the mine of %s as its mine type doesn't exist",
+          resultSet.getString("owner")));
+      return null;
+    }
+
+    MineData mineData = new MineData(UUID.fromString(resultSet.getString("owner")),
+        location(resultSet, "corner2"), location(resultSet, "corner1"),
+        location(resultSet, "full_min"), location(resultSet, "full_max"),
+        location(resultSet, "mine_location"), location(resultSet, "spawn"), mineType,
+        resultSet.getBoolean("open"), resultSet.getDouble("tax"));
+    mineData.setMaxPlayers(resultSet.getInt("max_players"));
+    mineData.setMaxMineSize(mineType.getMaxMineSize());
+
+    Map<Material, Double> materials = new EnumMap<>(Material.class);
+    for (String entry : split(resultSet.getString("materials"))) {
+      int separator = entry.indexOf('=');
+      Material material = Material.matchMaterial(entry.substring(0, separator));
+      if (material != null) {
+        materials.put(material, Double.parseDouble(entry.substring(separator + 1)));
+      }
+    }
+    mineData.setMaterials(materials);
+    mineData.setFriends(uuids(resultSet.getString("friends")));
+    mineData.setBannedPlayers(uuids(resultSet.getString("bans")));
+    return mineData;
+  }
+
+  private static Location location(ResultSet resultSet, String column) throws SQLException {
+    return LocationUtils.fromString(resultSet.getString(column));
+  }
+
+  private static List<UUID> uuids(String concatenated) {
+    List<UUID> uuids = new ArrayList<>();
+    for (String string : split(concatenated)) {
+      uuids.add(UUID.fromString(string));
+    }
+    return uuids;
+  }
+
+  private static String[] split(String concatenated) {
+    return concatenated == null || concatenated.isEmpty() ? new String[0]
+        : concatenated.split(",");
+  }
+
+  @FunctionalInterface
+  private interface SqlRunnable {
+
+    void run() throws SQLException;
+  }
+
+  /**
+   * A copy of a mine's data taken on the calling thread, so it can't change while it's written.
+   */
+  private static final class Row {
+
+    private final String owner;
+    private final String mineType;
+    private final String mineLocation;
+    private final String corner1;
+    private final String corner2;
+    private final String fullMin;
+    private final String fullMax;
+    private final String spawn;
+    private final double tax;
+    private final boolean open;
+    private final int maxPlayers;
+    private final int maxMineSize;
+    private final Map<String, Double> materials;
+    private final List<String> friends;
+    private final List<String> bannedPlayers;
+
+    private Row(String owner) {
+      this(owner, null, null, null, null, null, null, null, 0, false, 0, 0,
+          Collections.emptyMap(), Collections.emptyList(), Collections.emptyList());
+    }
+
+    private Row(String owner, String mineType, String mineLocation, String corner1,
+        String corner2, String fullMin, String fullMax, String spawn, double tax, boolean open,
+        int maxPlayers, int maxMineSize, Map<String, Double> materials, List<String> friends,
+        List<String> bannedPlayers) {
+      this.owner = owner;
+      this.mineType = mineType;
+      this.mineLocation = mineLocation;
+      this.corner1 = corner1;
+      this.corner2 = corner2;
+      this.fullMin = fullMin;
+      this.fullMax = fullMax;
+      this.spawn = spawn;
+      this.tax = tax;
+      this.open = open;
+      this.maxPlayers = maxPlayers;
+      this.maxMineSize = maxMineSize;
+      this.materials = materials;
+      this.friends = friends;
+      this.bannedPlayers = bannedPlayers;
+    }
+
+    private static Row of(MineData mineData) {
+      Map<String, Double> materials = new LinkedHashMap<>();
+      mineData.getMaterials().forEach((material, chance) -> materials.put(material.name(), chance));
+
+      return new Row(mineData.getMineOwner().toString(), mineData.getMineType().getName(),
+          LocationUtils.toString(mineData.getMineLocation()),
+          LocationUtils.toString(mineData.getMinimumMining()),
+          LocationUtils.toString(mineData.getMaximumMining()),
+          LocationUtils.toString(mineData.getMinimumFullRegion()),
+          LocationUtils.toString(mineData.getMaximumFullRegion()),
+          LocationUtils.toString(mineData.getSpawnLocation()), mineData.getTax(),
+          mineData.isOpen(), mineData.getMaxPlayers(), mineData.getMaxMineSize(), materials,
+          strings(mineData.getFriends()), strings(mineData.getBannedPlayers()));
+    }
+
+    private static List<String> strings(List<UUID> uuids) {
+      List<String> strings = new ArrayList<>(uuids.size());
+      uuids.forEach(uuid -> strings.add(uuid.toString()));
+      return strings;
+    }
+  }
+}
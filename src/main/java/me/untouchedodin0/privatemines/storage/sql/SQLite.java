@@ -88,7 +88,7 @@ public class SQLite extends Database {
           `fullMin` TEXT,
           `fullMax` TEXT,
           `spawn` TEXT,
-          `open` BOOLEAN,
+          `open` BOOLEAN
           );""");
 //            s.executeUpdate("CREATE TABLE IF NOT EXISTS privatemines (`owner` TEXT, `data` TEXT);");
 //            s.executeUpdate(SQLiteCreateTokensTable);
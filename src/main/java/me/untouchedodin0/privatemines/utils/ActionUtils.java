@@ -44,10 +44,7 @@ public class ActionUtils {
     } else if (actionType != null) {
       switch (actionType) {
         case RESET -> mine.reset();
-        case RESET_TELEPORT -> {
-          mine.reset();
-          mine.teleport(player);
-        }
+        case RESET_TELEPORT -> mine.reset().thenRun(() -> mine.teleport(player));
         case TELEPORT -> mine.teleport(player);
         case OWNMINE -> {
           player.closeInventory();
@@ -0,0 +1,193 @@
+package me.untouchedodin0.privatemines.utils.conversion;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.privatemines.PrivateMines;
+import me.untouchedodin0.privatemines.config.Config;
+import me.untouchedodin0.privatemines.storage.MineStore;
+import me.untouchedodin0.privatemines.storage.YamlMineStore;
+import me.untouchedodin0.privatemines.storage.sql.MineRepository;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import redempt.redlib.misc.Task;
+
+/**
+ * Copies the mine files into the SQLite database.
+ * <p>
+ * The files are read in name order, {@link Config#convertBatchSize} at a time. While one batch is
+ * written in a single transaction the next one is already being parsed in parallel. After every
+ * batch the rows are counted to verify it and the name of its last file is written to a
+ * checkpoint, so a migration that was interrupted carries on after that file the next time it's
+ * started. The mine files themselves are never changed.
+ */
+public class MineMigration {
+
+  private final PrivateMines privateMines;
+  private final Path checkpoint;
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  public MineMigration(PrivateMines privateMines) {
+    this.privateMines = privateMines;
+    this.checkpoint = privateMines.getDataFolder().toPath().resolve("convert.checkpoint");
+  }
+
+  public void start(CommandSender sender) {
+    if (!running.compareAndSet(false, true)) {
+      sender.sendMessage(ChatColor.RED + "The mines are already being converted!");
+      return;
+    }
+
+    MineStore mineStore = privateMines.getMineStore();
+    MineRepository target;
+    boolean ownsTarget = !(mineStore instanceof MineRepository);
+    if (ownsTarget) {
+      target = new MineRepository(privateMines);
+      target.open();
+    } else {
+      target = (MineRepository) mineStore;
+    }
+    YamlMineStore source = new YamlMineStore(privateMines, privateMines.getMinesDirectory(), false);
+
+    Task.asyncDelayed(() -> {
+      try {
+        migrate(sender, source, target);
+      } catch (IOException | InterruptedException | ExecutionException e) {
+        privateMines.getLogger().log(Level.SEVERE, "The conversion failed", e);
+        message(sender, ChatColor.RED + "The conversion failed, run it again to resume: " + e);
+      } finally {
+        source.close();
+        if (ownsTarget) {
+          target.close();
+        }
+        running.set(false);
+      }
+    });
+  }
+
+  private void migrate(CommandSender sender, YamlMineStore source, MineRepository target)
+      throws IOException, InterruptedException, ExecutionException {
+    List<Path> files = YamlMineStore.listMineFiles(privateMines.getMinesDirectory());
+    files.sort(Comparator.comparing(path -> path.getFileName().toString()));
+    int total = files.size();
+
+    String resumeAfter = readCheckpoint();
+    if (resumeAfter != null) {
+      files = files.stream()
+          .filter(path -> path.getFileName().toString().compareTo(resumeAfter) > 0)
+          .collect(Collectors.toList());
+      message(sender, ChatColor.YELLOW + String.format(
+          "Resuming the conversion after %s, %d of %d files left", resumeAfter, files.size(),
+          total));
+    } else {
+      message(sender, ChatColor.GREEN + String.format("Converting %d mine files...", total));
+    }
+
+    int batchSize = Math.max(1, Config.convertBatchSize);
+    int threads = Config.loadThreads > 0 ? Config.loadThreads
+        : Runtime.getRuntime().availableProcessors();
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    long start = System.nanoTime();
+    int migrated = 0;
+    int skipped = 0;
+    int nextReport = 10;
+
+    try {
+      CompletableFuture<List<MineData>> next = parse(pool, source, files, 0, batchSize);
+      for (int from = 0; from < files.size(); from += batchSize) {
+        int to = Math.min(files.size(), from + batchSize);
+        List<MineData> mines = next.get();
+        // Parse the next batch while this one is being written.
+        next = parse(pool, source, files, to, batchSize);
+
+        target.upsertAll(mines).get();
+        Set<UUID> owners = new HashSet<>();
+        mines.forEach(mineData -> owners.add(mineData.getMineOwner()));
+        int stored = target.countExisting(owners).get();
+        if (stored != owners.size()) {
+          throw new IOException(String.format("Only %d of %d mines ending at %s were stored",
+              stored, owners.size(), files.get(to - 1).getFileName()));
+        }
+        writeCheckpoint(files.get(to - 1).getFileName().toString());
+
+        migrated += mines.size();
+        skipped += (to - from) - mines.size();
+        int percent = to * 100 / files.size();
+        if (percent >= nextReport && to < files.size()) {
+          message(sender, ChatColor.GRAY + String.format("Converted %d%% (%d files, %.0f/sec)",
+              percent, to, perSecond(to, start)));
+          nextReport = percent / 10 * 10 + 10;
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    int rows = target.count().get();
+    Files.deleteIfExists(checkpoint);
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    message(sender, ChatColor.GREEN + String.format(
+        "Converted %d mines in %dms (%.0f files/sec), %d invalid files were skipped. "
+            + "The database now holds %d mines.", migrated, millis,
+        perSecond(migrated + skipped, start), skipped, rows));
+    if (!(privateMines.getMineStore() instanceof MineRepository)) {
+      message(sender, ChatColor.YELLOW
+          + "Set storageType to SQLITE in the config.yml and restart to use the database.");
+    }
+  }
+
+  private CompletableFuture<List<MineData>> parse(ForkJoinPool pool, YamlMineStore source,
+      List<Path> files, int from, int batchSize) {
+    if (from >= files.size()) {
+      return CompletableFuture.completedFuture(List.of());
+    }
+    List<Path> batch = files.subList(from, Math.min(files.size(), from + batchSize));
+    // Running in the pool makes the parallel stream use its threads.
+    return CompletableFuture.supplyAsync(() -> batch.parallelStream().map(source::parse)
+        .filter(Objects::nonNull).collect(Collectors.toList()), pool);
+  }
+
+  private String readCheckpoint() throws IOException {
+    if (!Files.exists(checkpoint)) {
+      return null;
+    }
+    String name = Files.readString(checkpoint, StandardCharsets.UTF_8).trim();
+    return name.isEmpty() ? null : name;
+  }
+
+  private void writeCheckpoint(String name) throws IOException {
+    Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+    Files.writeString(temp, name, StandardCharsets.UTF_8);
+    try {
+      Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static double perSecond(int amount, long start) {
+    return amount / (Math.max(1, System.nanoTime() - start) / 1_000_000_000.0);
+  }
+
+  private void message(CommandSender sender, String message) {
+    privateMines.getLogger().info(ChatColor.stripColor(message));
+    Task.syncDelayed(() -> sender.sendMessage(message));
+  }
+}
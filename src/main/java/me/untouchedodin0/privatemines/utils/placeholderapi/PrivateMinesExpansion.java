@@ -80,6 +80,13 @@ public class PrivateMinesExpansion extends PlaceholderExpansion {
       return "";
     }
 
+    if (params.equalsIgnoreCase("players")) {
+      if (mine != null) {
+        return Integer.toString(privateMines.getMineOccupancy().getPlayerCount(mine));
+      }
+      return "0";
+    }
+
     if (params.equalsIgnoreCase("placeholder2")) {
       return "test2";
     }
@@ -0,0 +1,202 @@
+package me.untouchedodin0.privatemines.utils.world;
+
+import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.math.BlockVector3;
+import io.papermc.lib.PaperLib;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import me.untouchedodin0.kotlin.mine.data.BlockBox;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import redempt.redlib.misc.Task;
+
+/**
+ * Keeps the chunks of the mines world loaded while mines are pasted, reset or expanded.
+ * <p>
+ * A chunk is force loaded by the first {@link Lease} that needs it and only stops being force
+ * loaded once the last lease holding it is closed, so neighbouring mines sharing a chunk never
+ * unload it under each other. Chunks that aren't loaded yet are loaded asynchronously through
+ * PaperLib where the server supports it. The counts are only touched on the main thread, calls
+ * from other threads are handed to it.
+ */
+public class MineChunkManager {
+
+  private final World world;
+  private final Map<Long, Holder> held = new HashMap<>();
+  private int leases;
+
+  public MineChunkManager(World world) {
+    this.world = world;
+  }
+
+  /**
+   * Force loads every chunk the region touches.
+   *
+   * @return a future completed on the main thread once all the chunks are loaded, the lease has
+   * to be closed once the chunks aren't needed anymore. If a chunk fails to load the future fails
+   * and the chunks are released again
+   */
+  public CompletableFuture<Lease> acquire(BlockBox region) {
+    if (!Bukkit.isPrimaryThread()) {
+      CompletableFuture<Lease> future = new CompletableFuture<>();
+      Task.syncDelayed(() -> acquire(region).whenComplete((lease, throwable) -> {
+        if (throwable != null) {
+          future.completeExceptionally(throwable);
+        } else {
+          future.complete(lease);
+        }
+      }));
+      return future;
+    }
+
+    int minX = region.getMinX() >> 4;
+    int minZ = region.getMinZ() >> 4;
+    int maxX = region.getMaxX() >> 4;
+    int maxZ = region.getMaxZ() >> 4;
+    long[] chunks = new long[(maxX - minX + 1) * (maxZ - minZ + 1)];
+    List<CompletableFuture<?>> loads = new ArrayList<>();
+
+    int index = 0;
+    for (int chunkX = minX; chunkX <= maxX; chunkX++) {
+      for (int chunkZ = minZ; chunkZ <= maxZ; chunkZ++) {
+        long key = chunkKey(chunkX, chunkZ);
+        chunks[index++] = key;
+
+        Holder holder = held.get(key);
+        if (holder == null) {
+          holder = new Holder();
+          held.put(key, holder);
+          holder.loaded = load(key, chunkX, chunkZ);
+        } else if (holder.loaded.isCompletedExceptionally()) {
+          holder.loaded = load(key, chunkX, chunkZ);
+        }
+        holder.count++;
+        if (!holder.loaded.isDone()) {
+          loads.add(holder.loaded);
+        }
+      }
+    }
+
+    leases++;
+    Lease lease = new Lease(chunks);
+    if (loads.isEmpty()) {
+      return CompletableFuture.completedFuture(lease);
+    }
+    return CompletableFuture.allOf(loads.toArray(CompletableFuture[]::new))
+        .whenComplete((ignored, throwable) -> {
+          // Nobody gets the lease to close when a chunk fails to load.
+          if (throwable != null) {
+            lease.close();
+          }
+        })
+        .thenApply(ignored -> lease);
+  }
+
+  private CompletableFuture<?> load(long key, int chunkX, int chunkZ) {
+    if (world.isChunkLoaded(chunkX, chunkZ)) {
+      world.getChunkAt(chunkX, chunkZ).setForceLoaded(true);
+      return CompletableFuture.completedFuture(null);
+    }
+    return PaperLib.getChunkAtAsync(world, chunkX, chunkZ).thenAccept(chunk -> {
+      // The lease may have been closed while the chunk was loading.
+      if (held.containsKey(key)) {
+        chunk.setForceLoaded(true);
+      }
+    });
+  }
+
+  private void release(long[] chunks) {
+    if (!Bukkit.isPrimaryThread()) {
+      Task.syncDelayed(() -> release(chunks));
+      return;
+    }
+
+    this.leases = Math.max(0, leases - 1);
+    for (long key : chunks) {
+      Holder holder = held.get(key);
+      if (holder != null && --holder.count <= 0) {
+        held.remove(key);
+        unforce(key);
+      }
+    }
+  }
+
+  /**
+   * Stops force loading every chunk straight away, used when the plugin disables.
+   */
+  public void releaseAll() {
+    held.keySet().forEach(this::unforce);
+    held.clear();
+    this.leases = 0;
+  }
+
+  private void unforce(long key) {
+    int chunkX = (int) (key >> 32);
+    int chunkZ = (int) key;
+    if (world.isChunkLoaded(chunkX, chunkZ)) {
+      world.getChunkAt(chunkX, chunkZ).setForceLoaded(false);
+    }
+  }
+
+  /**
+   * @return how many chunks are force loaded by the leases that are still open
+   */
+  public int getHeldChunks() {
+    return held.size();
+  }
+
+  public int getLeaseCount() {
+    return leases;
+  }
+
+  /**
+   * Gets the blocks a schematic pasted at the location will cover.
+   */
+  public static BlockBox getPasteRegion(Location location, Clipboard clipboard) {
+    BlockVector3 origin = BlockVector3.at(location.getBlockX(), location.getBlockY(),
+        location.getBlockZ());
+    BlockVector3 min = origin.add(clipboard.getRegion().getMinimumPoint()
+        .subtract(clipboard.getOrigin()));
+    BlockVector3 max = min.add(clipboard.getDimensions()).subtract(BlockVector3.ONE);
+    return BlockBox.of(min, max);
+  }
+
+  private static long chunkKey(int chunkX, int chunkZ) {
+    return ((long) chunkX << 32) | (chunkZ & 0xffffffffL);
+  }
+
+  private static class Holder {
+
+    private int count;
+    private CompletableFuture<?> loaded;
+  }
+
+  /**
+   * The chunks held for one operation, closing it more than once does nothing.
+   */
+  public class Lease implements AutoCloseable {
+
+    private final long[] chunks;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private Lease(long[] chunks) {
+      this.chunks = chunks;
+    }
+
+    public int getChunkCount() {
+      return chunks.length;
+    }
+
+    @Override
+    public void close() {
+      if (closed.compareAndSet(false, true)) {
+        release(chunks);
+      }
+    }
+  }
+}
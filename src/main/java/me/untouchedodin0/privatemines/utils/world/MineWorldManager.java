@@ -21,10 +21,8 @@
 
 package me.untouchedodin0.privatemines.utils.world;
 
-import static me.untouchedodin0.privatemines.utils.world.utils.Direction.NORTH;
-
+import me.untouchedodin0.kotlin.mine.pregen.PregenMine;
 import me.untouchedodin0.privatemines.PrivateMines;
-import me.untouchedodin0.privatemines.utils.world.utils.Direction;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
@@ -34,11 +32,9 @@ import org.bukkit.WorldType;
 public class MineWorldManager {
 
   private final Location defaultLocation;
-  private Location currentLocation;
   private final int borderDistance;
-  private int distance = 0;
-  private Direction direction;
   private final World minesWorld;
+  private final SlotAllocator slotAllocator;
 
   public MineWorldManager() {
     minesWorld = Bukkit.createWorld(
@@ -58,39 +54,81 @@ public class MineWorldManager {
       }
     }
     this.defaultLocation = new Location(minesWorld, 0, yLevel, 0);
+
+    PrivateMines privateMines = PrivateMines.getPrivateMines();
+    this.slotAllocator = new SlotAllocator(
+        privateMines.getDataFolder().toPath().resolve("slots.json"), privateMines.getLogger(),
+        slot -> isOccupied(getLocation(slot)));
+    slotAllocator.load();
   }
 
+  /**
+   * Takes a free slot of the mine grid, slots given back by deleted mines are reused first.
+   */
   public Location getNextFreeLocation() {
-    if (distance == 0) {
-      distance++;
-      return defaultLocation;
+    return getLocation(slotAllocator.allocate());
+  }
+
+  /**
+   * Gives the slot of a mine that was removed back so another mine can be put there.
+   */
+  public void releaseLocation(Location location) {
+    long slot = getSlot(location);
+    if (slot >= 0) {
+      slotAllocator.release(slot);
     }
+  }
 
-    if (direction == null) {
-      direction = NORTH;
+  /**
+   * Takes the slot at the location, used when a mine is put back where it was removed from.
+   */
+  public void claimLocation(Location location) {
+    long slot = getSlot(location);
+    if (slot >= 0) {
+      slotAllocator.claim(slot);
     }
-    if (currentLocation == null) {
-      setCurrentLocation(direction.addTo(defaultLocation, distance * borderDistance));
-    } else {
-      this.currentLocation = direction.addTo(currentLocation, distance * borderDistance);
+  }
+
+  public Location getLocation(long slot) {
+    return defaultLocation.clone().add(SlotAllocator.getCellX(slot) * borderDistance, 0,
+        SlotAllocator.getCellZ(slot) * borderDistance);
+  }
+
+  /**
+   * Gets the slot of the location, or -1 if it isn't on the mine grid.
+   */
+  public long getSlot(Location location) {
+    int x = location.getBlockX() - defaultLocation.getBlockX();
+    int z = location.getBlockZ() - defaultLocation.getBlockZ();
+    if (borderDistance <= 0 || x % borderDistance != 0 || z % borderDistance != 0) {
+      return -1;
     }
+    return SlotAllocator.getSlot(x / borderDistance, z / borderDistance);
+  }
 
-    direction = direction.next();
-    if (direction == NORTH) {
-      distance++;
+  private boolean isOccupied(Location location) {
+    PrivateMines privateMines = PrivateMines.getPrivateMines();
+    if (privateMines.getMineStorage() != null && privateMines.getMineStorage()
+        .isOccupied(location.getBlockX(), location.getBlockY(), location.getBlockZ())) {
+      return true;
     }
-    return currentLocation;
+    if (privateMines.getPregenStorage() != null) {
+      for (PregenMine pregenMine : privateMines.getPregenStorage().getMines()) {
+        Location pregenLocation = pregenMine.getLocation();
+        if (pregenLocation != null && pregenLocation.getBlockX() == location.getBlockX()
+            && pregenLocation.getBlockZ() == location.getBlockZ()) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
   public World getMinesWorld() {
     return minesWorld;
   }
 
-  public Location getCurrentLocation() {
-    return currentLocation;
-  }
-
-  public void setCurrentLocation(Location currentLocation) {
-    this.currentLocation = currentLocation;
+  public SlotAllocator getSlotAllocator() {
+    return slotAllocator;
   }
 }
@@ -0,0 +1,236 @@
+package me.untouchedodin0.privatemines.utils.world;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongPredicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import redempt.redlib.misc.Task;
+
+/**
+ * Hands out the slots of the mine grid.
+ * <p>
+ * Slots are numbered along a square spiral around the origin and {@link #getCellX(long)} and
+ * {@link #getCellZ(long)} map a slot to its grid cell in constant time. Released slots go into a
+ * free list which is always used before the spiral grows, lowest slot first, so the mines stay
+ * packed around the origin and the size of the world follows the amount of mines that exist
+ * instead of the amount that were ever created.
+ * <p>
+ * The highest slot handed out and the free list are written to a small file whenever they change.
+ * Slots that are still in use according to the occupied check are skipped, which covers mines
+ * created before the allocator existed and a state file that is older than the world.
+ */
+public class SlotAllocator {
+
+  private final Path file;
+  private final Logger logger;
+  private final LongPredicate occupied;
+  private final Executor saveExecutor;
+  private final Gson gson = new Gson();
+  private final TreeSet<Long> free = new TreeSet<>();
+  private final AtomicBoolean saveQueued = new AtomicBoolean();
+  private long next;
+
+  /**
+   * @param occupied checks if the slot is in use by a mine the allocator doesn't know about
+   */
+  public SlotAllocator(Path file, Logger logger, LongPredicate occupied) {
+    this(file, logger, occupied, Task::asyncDelayed);
+  }
+
+  /**
+   * @param saveExecutor runs the saves queued when the slots change
+   */
+  public SlotAllocator(Path file, Logger logger, LongPredicate occupied, Executor saveExecutor) {
+    this.file = file;
+    this.logger = logger;
+    this.occupied = occupied;
+    this.saveExecutor = saveExecutor;
+  }
+
+  public synchronized void load() {
+    if (!Files.exists(file)) {
+      return;
+    }
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      State state = gson.fromJson(reader, State.class);
+      if (state != null) {
+        this.next = Math.max(0, state.next);
+        free.clear();
+        if (state.free != null) {
+          for (long slot : state.free) {
+            if (slot >= 0 && slot < next) {
+              free.add(slot);
+            }
+          }
+        }
+      }
+    } catch (IOException | JsonParseException e) {
+      logger.log(Level.WARNING, "Failed to read " + file.getFileName()
+          + ", the mine slots will be handed out from the start again", e);
+    }
+  }
+
+  /**
+   * Takes the lowest free slot, or the next slot of the spiral when none have been released.
+   */
+  public synchronized long allocate() {
+    Long slot;
+    while ((slot = free.pollFirst()) != null) {
+      if (!occupied.test(slot)) {
+        queueSave();
+        return slot;
+      }
+    }
+
+    long allocated;
+    do {
+      allocated = next++;
+    } while (occupied.test(allocated));
+    queueSave();
+    return allocated;
+  }
+
+  /**
+   * Gives a slot back so it can be handed out again.
+   */
+  public synchronized void release(long slot) {
+    if (slot >= 0 && slot < next && free.add(slot)) {
+      queueSave();
+    }
+  }
+
+  /**
+   * Marks a slot as taken again, for mines that are put back where a released mine was such as
+   * when a mine is upgraded.
+   */
+  public synchronized void claim(long slot) {
+    if (free.remove(slot)) {
+      queueSave();
+    } else if (slot >= next) {
+      // Everything in between stays available.
+      for (long skipped = next; skipped < slot; skipped++) {
+        free.add(skipped);
+      }
+      this.next = slot + 1;
+      queueSave();
+    }
+  }
+
+  public synchronized long getHighestSlot() {
+    return next;
+  }
+
+  public synchronized int getFreeCount() {
+    return free.size();
+  }
+
+  /**
+   * Writes the state now, the writes queued off the main thread end up doing the same.
+   */
+  public void save() {
+    saveQueued.set(false);
+    State state;
+    synchronized (this) {
+      state = new State();
+      state.next = next;
+      state.free = free.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      Files.writeString(temp, gson.toJson(state), StandardCharsets.UTF_8);
+      try {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      logger.log(Level.SEVERE, "Failed to save " + file.getFileName(), e);
+    }
+  }
+
+  private void queueSave() {
+    if (saveQueued.compareAndSet(false, true)) {
+      saveExecutor.execute(this::save);
+    }
+  }
+
+  public static long getCellX(long slot) {
+    return position(slot, true);
+  }
+
+  public static long getCellZ(long slot) {
+    return position(slot, false);
+  }
+
+  /**
+   * Gets the slot of a grid cell, the inverse of {@link #getCellX(long)} and
+   * {@link #getCellZ(long)}.
+   */
+  public static long getSlot(long cellX, long cellZ) {
+    long ring = Math.max(Math.abs(cellX), Math.abs(cellZ));
+    long side = 2 * ring;
+    long last = (side + 1) * (side + 1);
+
+    long n;
+    if (cellZ == -ring) {
+      n = last - (ring - cellX);
+    } else if (cellX == -ring) {
+      n = last - side - (cellZ + ring);
+    } else if (cellZ == ring) {
+      n = last - 2 * side - (cellX + ring);
+    } else {
+      n = last - 3 * side + cellZ - ring;
+    }
+    return n - 1;
+  }
+
+  /**
+   * Walks the spiral in closed form: slot 0 is the origin and ring k holds the slots up to
+   * (2k + 1)^2, going along its four sides from the last slot backwards.
+   */
+  private static long position(long slot, boolean x) {
+    long n = slot + 1;
+    long root = (long) Math.sqrt(n);
+    while (root * root < n) {
+      root++;
+    }
+    while (root > 1 && (root - 1) * (root - 1) >= n) {
+      root--;
+    }
+    long ring = root / 2;
+    long side = 2 * ring;
+    long last = (side + 1) * (side + 1);
+
+    if (n >= last - side) {
+      return x ? ring - (last - n) : -ring;
+    }
+    last -= side;
+    if (n >= last - side) {
+      return x ? -ring : -ring + (last - n);
+    }
+    last -= side;
+    if (n >= last - side) {
+      return x ? -ring + (last - n) : ring;
+    }
+    return x ? ring : ring - (last - n - side);
+  }
+
+  private static class State {
+
+    private long next;
+    private long[] free;
+  }
+}
@@ -0,0 +1,101 @@
+package me.untouchedodin0.kotlin.mine.data
+
+import com.sk89q.worldedit.math.BlockVector3
+import org.bukkit.Location
+import org.bukkit.World
+
+/**
+ * An immutable cuboid of block positions, stored as six ints with the corners already sorted.
+ *
+ * Every mine is in the same mines world so a box doesn't keep a world, [MineData] holds the one
+ * world its regions share and only creates [Location]s when something outside asks for one. Being
+ * immutable, the same box can be handed to the grid index and the mined block tracker without
+ * copying it.
+ */
+class BlockBox(
+    val minX: Int, val minY: Int, val minZ: Int,
+    val maxX: Int, val maxY: Int, val maxZ: Int
+) {
+
+    val volume: Long
+        get() = (maxX - minX + 1).toLong() * (maxY - minY + 1) * (maxZ - minZ + 1)
+
+    fun contains(x: Int, y: Int, z: Int): Boolean =
+        x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ
+
+    fun contains(location: Location): Boolean =
+        contains(location.blockX, location.blockY, location.blockZ)
+
+    /**
+     * Grows the box by the amount of blocks on every side.
+     */
+    fun expand(amount: Int): BlockBox =
+        BlockBox(minX - amount, minY - amount, minZ - amount, maxX + amount, maxY + amount, maxZ + amount)
+
+    fun withMinimum(location: Location): BlockBox =
+        of(location.blockX, location.blockY, location.blockZ, maxX, maxY, maxZ)
+
+    fun withMaximum(location: Location): BlockBox =
+        of(minX, minY, minZ, location.blockX, location.blockY, location.blockZ)
+
+    val minimumPoint: BlockVector3
+        get() = BlockVector3.at(minX, minY, minZ)
+
+    val maximumPoint: BlockVector3
+        get() = BlockVector3.at(maxX, maxY, maxZ)
+
+    fun getMinimum(world: World?): Location =
+        Location(world, minX.toDouble(), minY.toDouble(), minZ.toDouble())
+
+    fun getMaximum(world: World?): Location =
+        Location(world, maxX.toDouble(), maxY.toDouble(), maxZ.toDouble())
+
+    override fun equals(other: Any?): Boolean =
+        other is BlockBox && minX == other.minX && minY == other.minY && minZ == other.minZ
+            && maxX == other.maxX && maxY == other.maxY && maxZ == other.maxZ
+
+    override fun hashCode(): Int {
+        var result = minX
+        result = 31 * result + minY
+        result = 31 * result + minZ
+        result = 31 * result + maxX
+        result = 31 * result + maxY
+        result = 31 * result + maxZ
+        return result
+    }
+
+    override fun toString(): String = "BlockBox($minX, $minY, $minZ -> $maxX, $maxY, $maxZ)"
+
+    companion object {
+        @JvmStatic
+        fun of(x1: Int, y1: Int, z1: Int, x2: Int, y2: Int, z2: Int): BlockBox =
+            BlockBox(minOf(x1, x2), minOf(y1, y2), minOf(z1, z2), maxOf(x1, x2), maxOf(y1, y2), maxOf(z1, z2))
+
+        @JvmStatic
+        fun of(corner1: Location, corner2: Location): BlockBox =
+            of(corner1.blockX, corner1.blockY, corner1.blockZ, corner2.blockX, corner2.blockY, corner2.blockZ)
+
+        @JvmStatic
+        fun of(corner1: BlockVector3, corner2: BlockVector3): BlockBox =
+            of(corner1.x, corner1.y, corner1.z, corner2.x, corner2.y, corner2.z)
+
+        /**
+         * Packs a block position into a long, 26 bits for x and z and 12 for y like the game does.
+         */
+        @JvmStatic
+        fun pack(x: Int, y: Int, z: Int): Long =
+            ((x.toLong() and 0x3FFFFFF) shl 38) or ((z.toLong() and 0x3FFFFFF) shl 12) or (y.toLong() and 0xFFF)
+
+        @JvmStatic
+        fun pack(location: Location): Long = pack(location.blockX, location.blockY, location.blockZ)
+
+        @JvmStatic
+        fun unpackX(packed: Long): Int = (packed shr 38).toInt()
+
+        @JvmStatic
+        fun unpackY(packed: Long): Int = (packed shl 52 shr 52).toInt()
+
+        @JvmStatic
+        fun unpackZ(packed: Long): Int = (packed shl 26 shr 38).toInt()
+    }
+}
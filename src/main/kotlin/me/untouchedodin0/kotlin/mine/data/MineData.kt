@@ -25,20 +25,39 @@ import me.untouchedodin0.kotlin.mine.type.MineType
 import me.untouchedodin0.privatemines.playershops.Shop
 import org.bukkit.Location
 import org.bukkit.Material
+import org.bukkit.World
 import java.util.*
 
-data class MineData(
+/**
+ * The stored state of a mine.
+ *
+ * The regions are kept as [BlockBox]es and the mine and spawn locations as packed block positions,
+ * all sharing the one [world]. The [Location] properties are only views for the places that need
+ * one, every read creates a new location and every write is converted back to block coordinates.
+ */
+class MineData(
     val mineOwner: UUID,
-    var maximumMining: Location,
-    var minimumMining: Location,
-    var minimumFullRegion: Location,
-    var maximumFullRegion: Location,
-    val mineLocation: Location,
-    var spawnLocation: Location,
+    maximumMining: Location,
+    minimumMining: Location,
+    minimumFullRegion: Location,
+    maximumFullRegion: Location,
+    mineLocation: Location,
+    spawnLocation: Location,
     val mineType: MineType,
     var isOpen: Boolean = false,
     var tax: Double = 5.0,
 ) {
+    val world: World? = mineLocation.world
+
+    var miningRegion: BlockBox = BlockBox.of(minimumMining, maximumMining)
+    var fullRegion: BlockBox = BlockBox.of(minimumFullRegion, maximumFullRegion)
+
+    /** The packed block position the mine was pasted at. */
+    val minePosition: Long = BlockBox.pack(mineLocation)
+
+    /** The packed block position of the spawn point. */
+    var spawnPosition: Long = BlockBox.pack(spawnLocation)
+
     var shop: Shop? = null
 
     var bannedPlayers: MutableList<UUID> = mutableListOf()
@@ -47,6 +66,39 @@ data class MineData(
     var maxPlayers: Int = 0
     var maxMineSize: Int = 0
 
+    var minimumMining: Location
+        get() = miningRegion.getMinimum(world)
+        set(value) {
+            miningRegion = miningRegion.withMinimum(value)
+        }
+
+    var maximumMining: Location
+        get() = miningRegion.getMaximum(world)
+        set(value) {
+            miningRegion = miningRegion.withMaximum(value)
+        }
+
+    var minimumFullRegion: Location
+        get() = fullRegion.getMinimum(world)
+        set(value) {
+            fullRegion = fullRegion.withMinimum(value)
+        }
+
+    var maximumFullRegion: Location
+        get() = fullRegion.getMaximum(world)
+        set(value) {
+            fullRegion = fullRegion.withMaximum(value)
+        }
+
+    val mineLocation: Location
+        get() = toLocation(minePosition)
+
+    var spawnLocation: Location
+        get() = toLocation(spawnPosition)
+        set(value) {
+            spawnPosition = BlockBox.pack(value)
+        }
+
     constructor(
         mineOwner: UUID,
         maximumMining: Location,
@@ -69,4 +121,69 @@ data class MineData(
     ) {
         this.shop = shop
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a mine with the same constructor properties, like the copy of the data class this
+     * used to be. The shop, players, materials and limits aren't copied.
+     */
+    fun copy(
+        mineOwner: UUID = this.mineOwner,
+        maximumMining: Location = this.maximumMining,
+        minimumMining: Location = this.minimumMining,
+        minimumFullRegion: Location = this.minimumFullRegion,
+        maximumFullRegion: Location = this.maximumFullRegion,
+        mineLocation: Location = this.mineLocation,
+        spawnLocation: Location = this.spawnLocation,
+        mineType: MineType = this.mineType,
+        isOpen: Boolean = this.isOpen,
+        tax: Double = this.tax,
+    ): MineData = MineData(
+        mineOwner,
+        maximumMining,
+        minimumMining,
+        minimumFullRegion,
+        maximumFullRegion,
+        mineLocation,
+        spawnLocation,
+        mineType,
+        isOpen,
+        tax
+    )
+
+    /**
+     * Mines are equal when the properties of the constructor are, compared through the boxes and
+     * packed positions they're stored as.
+     */
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is MineData) return false
+        return mineOwner == other.mineOwner && world == other.world
+            && miningRegion == other.miningRegion && fullRegion == other.fullRegion
+            && minePosition == other.minePosition && spawnPosition == other.spawnPosition
+            && mineType == other.mineType && isOpen == other.isOpen && tax == other.tax
+    }
+
+    override fun hashCode(): Int {
+        var result = mineOwner.hashCode()
+        result = 31 * result + (world?.hashCode() ?: 0)
+        result = 31 * result + miningRegion.hashCode()
+        result = 31 * result + fullRegion.hashCode()
+        result = 31 * result + minePosition.hashCode()
+        result = 31 * result + spawnPosition.hashCode()
+        result = 31 * result + mineType.hashCode()
+        result = 31 * result + isOpen.hashCode()
+        result = 31 * result + tax.hashCode()
+        return result
+    }
+
+    override fun toString(): String =
+        "MineData(mineOwner=$mineOwner, miningRegion=$miningRegion, fullRegion=$fullRegion, " +
+            "mineType=${mineType.name}, isOpen=$isOpen, tax=$tax)"
+
+    private fun toLocation(packed: Long): Location = Location(
+        world,
+        BlockBox.unpackX(packed).toDouble(),
+        BlockBox.unpackY(packed).toDouble(),
+        BlockBox.unpackZ(packed).toDouble()
+    )
+}
@@ -0,0 +1,130 @@
+package me.untouchedodin0.kotlin.mine.storage
+
+import me.untouchedodin0.kotlin.mine.data.BlockBox
+import me.untouchedodin0.kotlin.mine.data.MineData
+import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Spatial index of the mines keyed by the cells of the mine grid.
+ *
+ * Mines are pasted [cellSize] blocks apart, so every mine is stored under each cell its full
+ * region overlaps (normally just the one, more once a mine has been expanded over a cell border).
+ * Looking up a location only has to look at the handful of mines stored in its cell.
+ *
+ * Only the owner, the full region box shared with its [MineData] and the packed mine position are
+ * kept, so the index can hold every mine while the full mines of offline owners aren't loaded. The
+ * cells hold copy-on-write arrays so lookups can safely happen off the main thread.
+ */
+class MineGridIndex(private val cellSize: Int) {
+
+    private val cells = ConcurrentHashMap<Long, Array<UUID>>()
+    private val indexed = ConcurrentHashMap<UUID, Bounds>()
+
+    val size
+        get() = indexed.size
+
+    fun add(owner: UUID, mineData: MineData) {
+        remove(owner)
+        val bounds = Bounds.of(mineData)
+        indexed[owner] = bounds
+        bounds.forEachCell(cellSize) { key ->
+            cells.compute(key) { _, current -> current?.plus(owner) ?: arrayOf(owner) }
+        }
+    }
+
+    fun remove(owner: UUID) {
+        val bounds = indexed.remove(owner) ?: return
+        bounds.forEachCell(cellSize) { key ->
+            cells.computeIfPresent(key) { _, current ->
+                current.filter { it != owner }.toTypedArray().takeIf { it.isNotEmpty() }
+            }
+        }
+    }
+
+    operator fun contains(owner: UUID): Boolean = indexed.containsKey(owner)
+
+    fun owners(): Set<UUID> = indexed.keys
+
+    fun clear() {
+        cells.clear()
+        indexed.clear()
+    }
+
+    /**
+     * Gets the owner of the mine whose full region contains the position.
+     */
+    fun getContaining(x: Int, y: Int, z: Int): UUID? {
+        val candidates = cells[key(Math.floorDiv(x, cellSize), Math.floorDiv(z, cellSize))] ?: return null
+        return candidates.firstOrNull { indexed[it]?.contains(x, y, z) == true }
+    }
+
+    /**
+     * Checks if a mine was pasted at the position or has its full region over it.
+     */
+    fun isOccupied(x: Int, y: Int, z: Int): Boolean {
+        val candidates = cells[key(Math.floorDiv(x, cellSize), Math.floorDiv(z, cellSize))] ?: return false
+        return candidates.any { owner ->
+            val bounds = indexed[owner] ?: return@any false
+            bounds.contains(x, y, z)
+                || (BlockBox.unpackX(bounds.center) == x && BlockBox.unpackZ(bounds.center) == z)
+        }
+    }
+
+    /**
+     * Gets the owner of the mine whose full region contains the position. If the position isn't
+     * inside any region the owner of the closest mine in its grid cell or the eight cells around it
+     * is returned instead, and null only when none of those cells have a mine.
+     */
+    operator fun get(x: Int, y: Int, z: Int): UUID? {
+        val cellX = Math.floorDiv(x, cellSize)
+        val cellZ = Math.floorDiv(z, cellSize)
+        cells[key(cellX, cellZ)]?.let { candidates ->
+            candidates.firstOrNull { indexed[it]?.contains(x, y, z) == true }?.let { return it }
+        }
+
+        var closest: UUID? = null
+        var closestDistance = Long.MAX_VALUE
+        for (offsetX in -1..1) {
+            for (offsetZ in -1..1) {
+                val candidates = cells[key(cellX + offsetX, cellZ + offsetZ)] ?: continue
+                for (owner in candidates) {
+                    val distance = indexed[owner]?.distanceSquared(x, y, z) ?: continue
+                    if (distance < closestDistance) {
+                        closest = owner
+                        closestDistance = distance
+                    }
+                }
+            }
+        }
+        return closest
+    }
+
+    private class Bounds(val region: BlockBox, val center: Long) {
+        fun contains(x: Int, y: Int, z: Int): Boolean = region.contains(x, y, z)
+
+        fun distanceSquared(x: Int, y: Int, z: Int): Long {
+            val dx = (x - BlockBox.unpackX(center)).toLong()
+            val dy = (y - BlockBox.unpackY(center)).toLong()
+            val dz = (z - BlockBox.unpackZ(center)).toLong()
+            return dx * dx + dy * dy + dz * dz
+        }
+
+        fun forEachCell(cellSize: Int, action: (Long) -> Unit) {
+            for (cellX in Math.floorDiv(region.minX, cellSize)..Math.floorDiv(region.maxX, cellSize)) {
+                for (cellZ in Math.floorDiv(region.minZ, cellSize)..Math.floorDiv(region.maxZ, cellSize)) {
+                    action(key(cellX, cellZ))
+                }
+            }
+        }
+
+        companion object {
+            fun of(mineData: MineData): Bounds = Bounds(mineData.fullRegion, mineData.minePosition)
+        }
+    }
+
+    companion object {
+        private fun key(cellX: Int, cellZ: Int): Long =
+            (cellX.toLong() shl 32) or (cellZ.toLong() and 0xffffffffL)
+    }
+}
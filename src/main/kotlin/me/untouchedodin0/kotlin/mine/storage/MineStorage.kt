@@ -21,93 +21,223 @@
 
 package me.untouchedodin0.kotlin.mine.storage
 
+import me.untouchedodin0.kotlin.mine.data.MineData
 import me.untouchedodin0.privatemines.PrivateMines
+import me.untouchedodin0.privatemines.config.Config
 import me.untouchedodin0.privatemines.mine.Mine
 import me.untouchedodin0.privatemines.utils.world.MineWorldManager
+import org.bukkit.Bukkit
 import org.bukkit.ChatColor
 import org.bukkit.Location
 import org.bukkit.World
 import org.bukkit.entity.Player
+import redempt.redlib.misc.Task
 import java.util.*
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
 
+/**
+ * Holds the mines in two tiers. The [MineGridIndex] always knows every mine by its owner and
+ * bounds, while [mines] only holds the mines that are loaded. Mines of offline owners are loaded
+ * from the [me.untouchedodin0.privatemines.storage.MineStore] when the owner logs in or someone
+ * walks into them, and unloaded again by [evictIdle] once nobody has used them for a while.
+ */
 class MineStorage {
-    var mines: MutableMap<UUID, Mine> = HashMap()
+    var mines: MutableMap<UUID, Mine> = ConcurrentHashMap()
     var privateMines: PrivateMines = PrivateMines.getPrivateMines()
     var mineWorldManager: MineWorldManager = privateMines.mineWorldManager
     var world: World = mineWorldManager.minesWorld
     private val logger = privateMines.logger
-
-    fun addMine(uuid: UUID, mine: Mine) = mines.computeIfAbsent(uuid) { mine }
-
-    fun removeMine(uuid: UUID) =
-        mines.remove(uuid) ?: logger.warning("Player $uuid doesn't have a mine!")
+    // The storage is created before the config is loaded, the index is only needed once mines are.
+    private val gridIndex by lazy { MineGridIndex(Config.mineDistance.takeIf { it > 0 } ?: 150) }
+    private val lastUsed = ConcurrentHashMap<UUID, Long>()
+    private val loading = ConcurrentHashMap<UUID, CompletableFuture<Mine?>>()
+
+    fun addMine(uuid: UUID, mine: Mine): Mine = mines.computeIfAbsent(uuid) {
+        gridIndex.add(uuid, mine.mineData)
+        mine
+    }.also { touch(uuid) }
+
+    /**
+     * Adds the mine to the grid index without loading it, it's loaded once it's needed.
+     */
+    fun index(mineData: MineData) = gridIndex.add(mineData.mineOwner, mineData)
+
+    fun removeMine(uuid: UUID) {
+        val indexed = uuid in gridIndex
+        gridIndex.remove(uuid)
+        lastUsed.remove(uuid)
+        if (mines.remove(uuid) == null && !indexed) logger.warning("Player $uuid doesn't have a mine!")
+    }
 
     fun replaceMine(uuid: UUID, mine: Mine) {
-        mines.replace(uuid, mine).also {
-            logger.info("Successfully replaced $uuid's mine!")
-        } ?: logger.warning("Player $uuid doesn't have a mine!")
+        if (replaceMineNoLog(uuid, mine)) logger.info("Successfully replaced $uuid's mine!")
     }
 
-    fun replaceMineNoLog(uuid: UUID, mine: Mine) =
-        mines.replace(uuid, mine) ?: logger.warning("Player $uuid doesn't have a mine!")
+    fun replaceMineNoLog(uuid: UUID, mine: Mine): Boolean {
+        if (uuid !in gridIndex) {
+            logger.warning("Player $uuid doesn't have a mine!")
+            return false
+        }
+        mines[uuid] = mine
+        gridIndex.add(uuid, mine.mineData)
+        touch(uuid)
+        return true
+    }
 
     fun hasMine(uuid: UUID): Boolean {
-        return mines.containsKey(uuid)
+        return uuid in gridIndex
     }
 
     fun hasMine(player: Player): Boolean {
         return hasMine(player.uniqueId)
     }
 
+    /**
+     * Gets the mine, a mine that isn't loaded is read from the store and waited for. Logins load
+     * the mines of their players ahead of time so this only waits for offline owners, use [load]
+     * to not block the main thread on their files.
+     */
     operator fun get(uuid: UUID): Mine? {
-        return mines[uuid]
+        mines[uuid]?.let {
+            touch(uuid)
+            return it
+        }
+        if (uuid !in gridIndex) return null
+
+        if (!Bukkit.isPrimaryThread()) return load(uuid).join()
+        // The loads complete on the main thread, so only the read of the file is waited for here.
+        return privateMines.mineStore.load(uuid).join()?.let { register(it) }
     }
 
     operator fun get(player: Player): Mine? {
         return get(player.uniqueId)
     }
 
+    /**
+     * Loads the mine off the main thread if it isn't loaded yet.
+     *
+     * @return a future completed on the main thread with the mine, or null if there's no mine
+     */
+    fun load(uuid: UUID): CompletableFuture<Mine?> {
+        mines[uuid]?.let { return CompletableFuture.completedFuture(it) }
+        if (uuid !in gridIndex) return CompletableFuture.completedFuture(null)
+
+        return loading.computeIfAbsent(uuid) {
+            val future = CompletableFuture<Mine?>()
+            privateMines.mineStore.load(uuid).whenComplete { mineData, throwable ->
+                Task.syncDelayed {
+                    loading.remove(uuid)
+                    if (throwable != null) future.completeExceptionally(throwable)
+                    else future.complete(mineData?.let { register(it) })
+                }
+            }
+            future
+        }
+    }
+
+    fun isLoaded(uuid: UUID): Boolean = mines.containsKey(uuid)
+
     val totalMines
+        get() = gridIndex.size
+
+    val loadedMines
         get() = mines.size
 
-    fun getClosest(player: Player, location: Location): Mine? {
-        // Make a distances value and make an empty map for the distances
-        val distances: MutableMap<Mine, Double> = HashMap()
+    /**
+     * Unloads the mines of offline owners that haven't been used for [idleMillis]. Mines with
+     * changes that haven't been saved, players inside or a reset running are kept, and mines with
+     * mined blocks are reset first so they aren't left half empty.
+     *
+     * @return the amount of mines that were unloaded
+     */
+    fun evictIdle(idleMillis: Long): Int {
+        val now = System.currentTimeMillis()
+        var evicted = 0
+        for ((uuid, mine) in mines) {
+            if (now - (lastUsed[uuid] ?: 0L) < idleMillis || Bukkit.getPlayer(uuid) != null) continue
+            if (privateMines.minePersistence.isDirty(uuid) || mine.isResetting
+                || privateMines.mineOccupancy.getPlayerCount(mine) > 0
+            ) continue
+
+            if (mine.minedBlocks.minedCount > 0) {
+                mine.reset()
+                continue
+            }
+            mine.stopTasks()
+            mines.remove(uuid)
+            lastUsed.remove(uuid)
+            evicted++
+        }
+        return evicted
+    }
 
-        // Iterate over all the mines calculating the distance
-        // from the location then add the mine, and it's distance
-        // into the map.
+    /**
+     * Checks if any mine, loaded or not, takes up the position.
+     */
+    fun isOccupied(x: Int, y: Int, z: Int): Boolean = gridIndex.isOccupied(x, y, z)
 
-        mines.forEach {
-            val mineLocation = it.value.mineData.mineLocation
-            val distance = location.distance(mineLocation)
-            distances.putIfAbsent(it.value, distance)
-        }
-        val min = distances.entries.minByOrNull { it.value } ?: return null
+    fun getClosest(player: Player, location: Location): Mine? {
+        val mine = getClosest(location)
 
-        if (min.value > 20) {
+        if (mine == null || location.distance(mine.mineData.mineLocation) > 20) {
             player.sendMessage("${ChatColor.RED}You're not in any mines!")
             return null
         }
 
-        return min.key
+        return mine
     }
 
+    /**
+     * Gets the mine at the location using the grid index, this is the mine whose full region
+     * contains the location or else the closest mine in the grid cells around it. Locations more
+     * than a grid cell away from every mine have no closest mine. A mine that isn't loaded starts
+     * loading and null is returned until it has.
+     */
     fun getClosest(location: Location): Mine? {
-        // Make a distances value and make an empty map for the distances
-        val distances: MutableMap<Mine, Double> = HashMap()
+        if (location.world != world) return null
+        return gridIndex[location.blockX, location.blockY, location.blockZ]?.let { loaded(it) }
+    }
 
+    /**
+     * Gets the mine whose full region contains the location. A mine that isn't loaded starts
+     * loading and null is returned until it has.
+     */
+    fun getAt(location: Location): Mine? {
         if (location.world != world) return null
-        // Iterate over all the mines calculating the distance
-        // from the location then add the mine, and it's distance
-        // into the map.
-        mines.forEach {
-            val mineLocation = it.value.mineData.mineLocation
-            val distance = location.distance(mineLocation)
-            distances.putIfAbsent(it.value, distance)
+        return gridIndex.getContaining(location.blockX, location.blockY, location.blockZ)?.let { loaded(it) }
+    }
+
+    /**
+     * Gets the owner of the mine whose full region contains the position, even if the mine isn't
+     * loaded.
+     */
+    fun getOwnerAt(x: Int, y: Int, z: Int): UUID? = gridIndex.getContaining(x, y, z)
+
+    /**
+     * Gets the mine if it's loaded, otherwise it starts loading and null is returned until it has.
+     */
+    fun getLoaded(uuid: UUID): Mine? = loaded(uuid)
+
+    private fun loaded(uuid: UUID): Mine? {
+        val mine = mines[uuid]
+        if (mine == null) {
+            load(uuid)
+            return null
         }
-        return distances.entries.minByOrNull {
-            it.value
-        }?.key
+        touch(uuid)
+        return mine
+    }
+
+    private fun register(mineData: MineData): Mine? {
+        val owner = mineData.mineOwner
+        // The mine was deleted while it was being loaded.
+        if (owner !in gridIndex) return null
+        return mines.computeIfAbsent(owner) { Mine(privateMines).also { it.mineData = mineData } }
+            .also { touch(owner) }
+    }
+
+    private fun touch(uuid: UUID) {
+        lastUsed[uuid] = System.currentTimeMillis()
     }
-}
\ No newline at end of file
+}
@@ -22,37 +22,46 @@
 package me.untouchedodin0.kotlin.mine.storage
 
 import me.untouchedodin0.kotlin.mine.pregen.PregenMine
-import org.bukkit.Bukkit
-import java.io.File
 
+/**
+ * The pregenerated mines that are ready to be claimed, queued per mine type in the order they
+ * were pasted. Mines pasted before the type was recorded are queued under [UNKNOWN_TYPE].
+ */
 class PregenStorage {
 
-    private var pregenMines: MutableList<PregenMine> = ArrayList()
-    private var files: MutableMap<PregenMine, File> = HashMap()
+    private val pregenMines: MutableMap<String, ArrayDeque<PregenMine>> = LinkedHashMap()
 
+    @Synchronized
     fun addMine(pregenMine: PregenMine) {
-        pregenMines.add(pregenMine)
+        pregenMines.getOrPut(pregenMine.mineType ?: UNKNOWN_TYPE) { ArrayDeque() }.addLast(pregenMine)
     }
 
-    fun getMines(): MutableList<PregenMine> {
-        return pregenMines
-    }
+    /**
+     * Gets a copy of every pregenerated mine.
+     */
+    @Synchronized
+    fun getMines(): List<PregenMine> = pregenMines.values.flatten()
 
-    fun getAndRemove(): PregenMine? {
-        return pregenMines.removeFirstOrNull()
-    }
+    /**
+     * Takes the oldest mine of the type, falling back to the mines of an unknown type.
+     */
+    @Synchronized
+    fun getAndRemove(mineType: String): PregenMine? =
+        pregenMines[mineType]?.removeFirstOrNull() ?: pregenMines[UNKNOWN_TYPE]?.removeFirstOrNull()
 
-    fun isAllRedeemed(): Boolean {
-        return pregenMines.isEmpty()
-    }
+    @Synchronized
+    fun count(mineType: String): Int = pregenMines[mineType]?.size ?: 0
 
-    fun addFile(pregenMine: PregenMine, file: File) {
-        files[pregenMine] = file
-    }
+    @Synchronized
+    fun size(): Int = pregenMines.values.sumOf { it.size }
+
+    @Synchronized
+    fun isAllRedeemed(): Boolean = pregenMines.values.all { it.isEmpty() }
+
+    @Synchronized
+    fun clear() = pregenMines.clear()
 
-    fun removeFile(pregenMine: PregenMine) {
-        Bukkit.broadcastMessage("File ${pregenMine.file?.name}")
-        pregenMine.file?.delete()
-        files.keys.removeIf { it.equals(pregenMine.file) }
+    companion object {
+        const val UNKNOWN_TYPE = ""
     }
-}
\ No newline at end of file
+}
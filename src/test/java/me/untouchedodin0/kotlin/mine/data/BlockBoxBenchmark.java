@@ -0,0 +1,90 @@
+package me.untouchedodin0.kotlin.mine.data;
+
+import java.lang.ref.Reference;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import me.untouchedodin0.kotlin.mine.type.MineType;
+import me.untouchedodin0.privatemines.TestMines;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the heap taken by the regions of a mine as block boxes against the six locations they
+ * used to be kept as, and times containment checks against the boxes. Run with
+ * {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class BlockBoxBenchmark {
+
+  private static final int POINTS = 4096;
+  private static final int CHECKS = 20_000_000;
+
+  @Test
+  void regions() {
+    MineType mineType = TestMines.mineType("default", Map.of(Material.STONE, 1.0));
+    List<MineData> mines = TestMines.mines(Integer.getInteger("benchmark.mines", 10_000),
+        mineType);
+    int amount = mines.size();
+
+    long before = usedMemory();
+    Location[] locations = new Location[amount * 6];
+    for (int i = 0; i < amount; i++) {
+      MineData mineData = mines.get(i);
+      locations[i * 6] = mineData.getMinimumMining();
+      locations[i * 6 + 1] = mineData.getMaximumMining();
+      locations[i * 6 + 2] = mineData.getMinimumFullRegion();
+      locations[i * 6 + 3] = mineData.getMaximumFullRegion();
+      locations[i * 6 + 4] = mineData.getMineLocation();
+      locations[i * 6 + 5] = mineData.getSpawnLocation();
+    }
+    long locationBytes = usedMemory() - before;
+
+    before = usedMemory();
+    BlockBox[] boxes = new BlockBox[amount * 2];
+    long[] positions = new long[amount * 2];
+    for (int i = 0; i < amount; i++) {
+      MineData mineData = mines.get(i);
+      boxes[i * 2] = BlockBox.of(mineData.getMinimumMining(), mineData.getMaximumMining());
+      boxes[i * 2 + 1] = BlockBox.of(mineData.getMinimumFullRegion(),
+          mineData.getMaximumFullRegion());
+      positions[i * 2] = mineData.getMinePosition();
+      positions[i * 2 + 1] = mineData.getSpawnPosition();
+    }
+    long boxBytes = usedMemory() - before;
+
+    Random random = new Random(0);
+    int[] points = new int[POINTS * 3];
+    for (int i = 0; i < POINTS; i++) {
+      BlockBox box = boxes[random.nextInt(amount) * 2];
+      points[i * 3] = box.getMinX() - 5 + random.nextInt(box.getMaxX() - box.getMinX() + 10);
+      points[i * 3 + 1] = box.getMinY() - 5 + random.nextInt(box.getMaxY() - box.getMinY() + 10);
+      points[i * 3 + 2] = box.getMinZ() - 5 + random.nextInt(box.getMaxZ() - box.getMinZ() + 10);
+    }
+
+    int hits = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < CHECKS; i++) {
+      int point = (i % POINTS) * 3;
+      if (boxes[(i % amount) * 2].contains(points[point], points[point + 1], points[point + 2])) {
+        hits++;
+      }
+    }
+    long nanos = System.nanoTime() - start;
+
+    // Both have to stay reachable until they've been measured.
+    Reference.reachabilityFence(locations);
+    Reference.reachabilityFence(positions);
+    System.out.printf("regions of %d mines: %.0f bytes/mine as locations, %.0f bytes/mine as "
+            + "boxes, contains %.2fns/check (%d hits)%n", amount, locationBytes / (double) amount,
+        boxBytes / (double) amount, nanos / (double) CHECKS, hits);
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,55 @@
+package me.untouchedodin0.kotlin.mine.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class BlockBoxTest {
+
+  @Test
+  void packedPositionsUnpackToTheSameBlock() {
+    int[][] positions = {{0, 0, 0}, {-1, -1, -1}, {33_554_431, 2047, -33_554_432},
+        {-33_554_432, -2048, 33_554_431}, {150, 64, -300}};
+    for (int[] position : positions) {
+      long packed = BlockBox.pack(position[0], position[1], position[2]);
+      assertEquals(position[0], BlockBox.unpackX(packed));
+      assertEquals(position[1], BlockBox.unpackY(packed));
+      assertEquals(position[2], BlockBox.unpackZ(packed));
+    }
+
+    Random random = new Random(3);
+    for (int i = 0; i < 100_000; i++) {
+      int x = random.nextInt(60_000_000) - 30_000_000;
+      int y = random.nextInt(4096) - 2048;
+      int z = random.nextInt(60_000_000) - 30_000_000;
+      long packed = BlockBox.pack(x, y, z);
+      assertEquals(x, BlockBox.unpackX(packed));
+      assertEquals(y, BlockBox.unpackY(packed));
+      assertEquals(z, BlockBox.unpackZ(packed));
+    }
+  }
+
+  @Test
+  void cornersAreSorted() {
+    BlockBox box = BlockBox.of(10, -5, 3, -10, 5, -3);
+
+    assertEquals(BlockBox.of(-10, -5, -3, 10, 5, 3), box);
+    assertEquals(-10, box.getMinX());
+    assertEquals(5, box.getMaxY());
+    assertEquals(21L * 11 * 7, box.getVolume());
+  }
+
+  @Test
+  void containsItsEdgesOnly() {
+    BlockBox box = BlockBox.of(0, 0, 0, 9, 9, 9);
+
+    assertTrue(box.contains(0, 0, 0));
+    assertTrue(box.contains(9, 9, 9));
+    assertFalse(box.contains(10, 5, 5));
+    assertFalse(box.contains(5, -1, 5));
+    assertTrue(box.expand(1).contains(10, -1, 5));
+  }
+}
@@ -0,0 +1,60 @@
+package me.untouchedodin0.kotlin.mine.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Map;
+import java.util.UUID;
+import me.untouchedodin0.kotlin.mine.type.MineType;
+import me.untouchedodin0.privatemines.TestMines;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+class MineDataTest {
+
+  private static final MineType MINE_TYPE = TestMines.mineType("default",
+      Map.of(Material.STONE, 1.0));
+
+  @Test
+  void equalMinesHaveEqualHashCodes() {
+    MineData mineData = TestMines.mines(1, MINE_TYPE).get(0);
+    MineData copy = mineData.copy(mineData.getMineOwner(), mineData.getMaximumMining(),
+        mineData.getMinimumMining(), mineData.getMinimumFullRegion(),
+        mineData.getMaximumFullRegion(), mineData.getMineLocation(), mineData.getSpawnLocation(),
+        mineData.getMineType(), mineData.isOpen(), mineData.getTax());
+
+    assertEquals(mineData, copy);
+    assertEquals(mineData.hashCode(), copy.hashCode());
+  }
+
+  @Test
+  void changesMakeMinesDiffer() {
+    MineData mineData = TestMines.mines(1, MINE_TYPE).get(0);
+    MineData other = TestMines.mine(mineData.getMineOwner(), mineData.getMineLocation(),
+        MINE_TYPE, mineData.isOpen());
+    assertEquals(mineData, other);
+
+    other.setMaximumMining(mineData.getMaximumMining().add(1, 0, 0));
+    assertNotEquals(mineData, other);
+
+    other.setMaximumMining(mineData.getMaximumMining());
+    other.setTax(mineData.getTax() + 1);
+    assertNotEquals(mineData, other);
+
+    assertNotEquals(mineData, TestMines.mine(UUID.randomUUID(), mineData.getMineLocation(),
+        MINE_TYPE, mineData.isOpen()));
+  }
+
+  @Test
+  void locationsAreViewsOfTheBoxes() {
+    MineData mineData = TestMines.mines(1, MINE_TYPE).get(0);
+    Location minimum = mineData.getMinimumMining();
+
+    minimum.add(-100, 0, 0);
+    assertNotEquals(minimum, mineData.getMinimumMining());
+
+    mineData.setMinimumMining(minimum);
+    assertEquals(minimum.getBlockX(), mineData.getMiningRegion().getMinX());
+  }
+}
@@ -0,0 +1,94 @@
+package me.untouchedodin0.kotlin.mine.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.kotlin.mine.type.MineType;
+import org.bukkit.Location;
+import org.junit.jupiter.api.Test;
+
+class MineGridIndexTest {
+
+  private static final int CELL_SIZE = 150;
+
+  @Test
+  void findsTheMineContainingAPosition() {
+    MineGridIndex index = new MineGridIndex(CELL_SIZE);
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    index.add(first, mine(first, 0, 0));
+    index.add(second, mine(second, 150, 0));
+
+    assertEquals(first, index.getContaining(10, 60, -10));
+    assertEquals(second, index.getContaining(140, 60, 0));
+    assertNull(index.getContaining(0, 200, 0));
+    assertEquals(2, index.getSize());
+  }
+
+  @Test
+  void findsMinesOverCellBorders() {
+    MineGridIndex index = new MineGridIndex(CELL_SIZE);
+    UUID owner = UUID.randomUUID();
+    // Centered on a cell corner, so the region is in four cells.
+    index.add(owner, mine(owner, 150, 150));
+
+    assertEquals(owner, index.getContaining(130, 60, 130));
+    assertEquals(owner, index.getContaining(170, 60, 130));
+    assertEquals(owner, index.getContaining(130, 60, 170));
+    assertEquals(owner, index.getContaining(170, 60, 170));
+  }
+
+  @Test
+  void fallsBackToTheClosestMineAround() {
+    MineGridIndex index = new MineGridIndex(CELL_SIZE);
+    UUID near = UUID.randomUUID();
+    UUID far = UUID.randomUUID();
+    index.add(near, mine(near, 0, 0));
+    index.add(far, mine(far, 300, 0));
+
+    // Outside every region, and in a cell neither mine is in.
+    assertEquals(near, index.get(60, 60, 0));
+    assertEquals(far, index.get(250, 60, 0));
+    // More than a cell away from both mines.
+    assertNull(index.get(0, 60, 600));
+  }
+
+  @Test
+  void removedMinesAreGone() {
+    MineGridIndex index = new MineGridIndex(CELL_SIZE);
+    UUID owner = UUID.randomUUID();
+    index.add(owner, mine(owner, 0, 0));
+    index.remove(owner);
+
+    assertFalse(index.contains(owner));
+    assertNull(index.getContaining(0, 60, 0));
+    assertNull(index.get(0, 60, 0));
+    assertFalse(index.isOccupied(0, 60, 0));
+  }
+
+  @Test
+  void readdingMovesTheMine() {
+    MineGridIndex index = new MineGridIndex(CELL_SIZE);
+    UUID owner = UUID.randomUUID();
+    MineData mineData = mine(owner, 0, 0);
+    index.add(owner, mineData);
+
+    mineData.setMaximumFullRegion(new Location(null, 200, 100, 20));
+    index.add(owner, mineData);
+
+    assertTrue(index.isOccupied(190, 60, 0));
+    assertEquals(owner, index.getContaining(190, 60, 0));
+    assertEquals(1, index.getSize());
+  }
+
+  private static MineData mine(UUID owner, int x, int z) {
+    Location center = new Location(null, x, 60, z);
+    return new MineData(owner, new Location(null, x + 10, 70, z + 10),
+        new Location(null, x - 10, 50, z - 10), new Location(null, x - 20, 40, z - 20),
+        new Location(null, x + 20, 100, z + 20), center, center, new MineType());
+  }
+}
@@ -0,0 +1,72 @@
+package me.untouchedodin0.privatemines;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.kotlin.mine.type.MineType;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+/**
+ * Creates mine types and mines for the tests, laid out along the x axis one grid cell apart like
+ * the mine world manager places them.
+ */
+public final class TestMines {
+
+  public static final int MINE_DISTANCE = 150;
+
+  private TestMines() {
+  }
+
+  /**
+   * Creates a mine type the way the config manager does, by setting its fields.
+   */
+  public static MineType mineType(String name, Map<Material, Double> materials) {
+    MineType mineType = new MineType();
+    set(mineType, "name", name);
+    set(mineType, "materials", materials);
+    set(mineType, "maxPlayers", 10);
+    return mineType;
+  }
+
+  public static List<MineData> mines(int amount, MineType mineType) {
+    World world = TestServer.getWorld();
+    List<MineData> mines = new ArrayList<>(amount);
+    for (int i = 0; i < amount; i++) {
+      mines.add(mine(UUID.randomUUID(), new Location(world, i * (double) MINE_DISTANCE, 50, 0),
+          mineType, i % 2 == 0));
+    }
+    return mines;
+  }
+
+  public static MineData mine(UUID owner, Location location, MineType mineType, boolean open) {
+    MineData mineData = new MineData(owner, location.clone().add(10, 10, 10),
+        location.clone().add(-10, -10, -10), location.clone().add(-20, -20, -20),
+        location.clone().add(20, 20, 20), location, location.clone().add(0, 12, 0), mineType,
+        open, 5.0);
+    mineData.setMaxPlayers(10);
+
+    Map<Material, Double> materials = new EnumMap<>(Material.class);
+    materials.put(Material.STONE, 0.75);
+    materials.put(Material.COAL_ORE, 0.25);
+    mineData.setMaterials(materials);
+    mineData.setFriends(new ArrayList<>(List.of(UUID.randomUUID())));
+    mineData.setBannedPlayers(new ArrayList<>(List.of(UUID.randomUUID(), UUID.randomUUID())));
+    return mineData;
+  }
+
+  private static void set(MineType mineType, String name, Object value) {
+    try {
+      Field field = MineType.class.getDeclaredField(name);
+      field.setAccessible(true);
+      field.set(mineType, value);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package me.untouchedodin0.privatemines;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.World;
+
+/**
+ * A stand-in for the server with a single world, enough for the code that stores locations by
+ * world name. Anything else the server or the world is asked for returns null, false or 0.
+ */
+public final class TestServer {
+
+  public static final String WORLD_NAME = "privatemines";
+
+  private static World world;
+
+  private TestServer() {
+  }
+
+  /**
+   * Installs the server the first time it's called.
+   *
+   * @return the world of the server
+   */
+  public static synchronized World getWorld() {
+    if (world == null) {
+      World created = proxy(World.class, (proxy, method, args) -> switch (method.getName()) {
+        case "getName" -> WORLD_NAME;
+        default -> defaultValue(proxy, method, args);
+      });
+      Logger logger = Logger.getLogger("TestServer");
+      Server server = proxy(Server.class, (proxy, method, args) -> switch (method.getName()) {
+        case "getLogger" -> logger;
+        case "getName", "getVersion", "getBukkitVersion" -> "test";
+        case "getWorld" -> args[0] instanceof String name && name.equals(WORLD_NAME) ? created
+            : null;
+        default -> defaultValue(proxy, method, args);
+      });
+      Bukkit.setServer(server);
+      world = created;
+    }
+    return world;
+  }
+
+  private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+    return type.cast(Proxy.newProxyInstance(TestServer.class.getClassLoader(),
+        new Class<?>[]{type}, handler));
+  }
+
+  private static Object defaultValue(Object proxy, Method method, Object[] args) {
+    switch (method.getName()) {
+      case "equals":
+        return proxy == args[0];
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "toString":
+        return proxy.getClass().getInterfaces()[0].getSimpleName();
+      default:
+        break;
+    }
+
+    Class<?> type = method.getReturnType();
+    if (type == boolean.class) {
+      return false;
+    } else if (type == char.class) {
+      return '\0';
+    } else if (type == long.class) {
+      return 0L;
+    } else if (type == float.class) {
+      return 0F;
+    } else if (type == double.class) {
+      return 0D;
+    } else if (type == int.class) {
+      return 0;
+    } else if (type == short.class) {
+      return (short) 0;
+    } else if (type == byte.class) {
+      return (byte) 0;
+    }
+    return null;
+  }
+}
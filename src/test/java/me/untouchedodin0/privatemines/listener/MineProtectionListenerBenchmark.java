@@ -0,0 +1,71 @@
+package me.untouchedodin0.privatemines.listener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.kotlin.mine.storage.MineGridIndex;
+import me.untouchedodin0.privatemines.TestMines;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Times the protection check of a block break against a grid index of 10000 mines, looking the
+ * mine up the way the listener does through the mine storage. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class MineProtectionListenerBenchmark {
+
+  private static final int MINES = 10_000;
+  private static final int WARMUP = 1_000_000;
+  private static final int BREAKS = 10_000_000;
+
+  @Test
+  void populatedIndex() {
+    List<MineData> mines = TestMines.mines(MINES,
+        TestMines.mineType("default", Map.of(Material.STONE, 1.0)));
+    MineGridIndex index = new MineGridIndex(TestMines.MINE_DISTANCE);
+    Map<UUID, MineData> loaded = new HashMap<>();
+    for (MineData mineData : mines) {
+      index.add(mineData.getMineOwner(), mineData);
+      loaded.put(mineData.getMineOwner(), mineData);
+    }
+
+    int[][] breaks = new int[4096][];
+    UUID[] players = new UUID[breaks.length];
+    Random random = new Random(42);
+    for (int i = 0; i < breaks.length; i++) {
+      MineData mineData = mines.get(random.nextInt(MINES));
+      // Mostly inside the mining region, some on the walls around it.
+      breaks[i] = new int[]{mineData.getFullRegion().getMinX() + 5 + random.nextInt(31),
+          40 + random.nextInt(21), -15 + random.nextInt(31)};
+      players[i] = random.nextBoolean() ? mineData.getMineOwner() : UUID.randomUUID();
+    }
+
+    check(index, loaded, breaks, players, WARMUP);
+    long start = System.nanoTime();
+    int allowed = check(index, loaded, breaks, players, BREAKS);
+    long nanos = System.nanoTime() - start;
+
+    System.out.printf("protection check with %d mines indexed: %.1fns/break (%d allowed)%n", MINES,
+        nanos / (double) BREAKS, allowed);
+  }
+
+  private static int check(MineGridIndex index, Map<UUID, MineData> loaded, int[][] breaks,
+      UUID[] players, int amount) {
+    int allowed = 0;
+    for (int i = 0; i < amount; i++) {
+      int[] block = breaks[i & (breaks.length - 1)];
+      UUID owner = index.getContaining(block[0], block[1], block[2]);
+      MineData mineData = owner == null ? null : loaded.get(owner);
+      if (MineProtectionListener.canChange(players[i & (breaks.length - 1)], mineData, block[0],
+          block[1], block[2], false)) {
+        allowed++;
+      }
+    }
+    return allowed;
+  }
+}
@@ -0,0 +1,123 @@
+package me.untouchedodin0.privatemines.listener;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.kotlin.mine.storage.MineGridIndex;
+import me.untouchedodin0.kotlin.mine.type.MineType;
+import me.untouchedodin0.privatemines.TestMines;
+import me.untouchedodin0.privatemines.TestServer;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The mines go through a grid index and a map of the loaded mines the same way the listener goes
+ * through the mine storage. The mine at x 0 is mined from -10 to 10 on every axis around y 50 and
+ * its full region reaches 20 blocks out.
+ */
+class MineProtectionListenerTest {
+
+  private final MineGridIndex index = new MineGridIndex(TestMines.MINE_DISTANCE);
+  private final Map<UUID, MineData> loaded = new HashMap<>();
+
+  @Test
+  void ownerAndFriendsCanBreakInAClosedMine() {
+    MineData mineData = add(false, true);
+
+    assertTrue(canChange(mineData.getMineOwner(), 0, 50, 0, false));
+    assertTrue(canChange(mineData.getFriends().get(0), 5, 45, -5, false));
+    assertTrue(MineProtectionListener.hasAccess(mineData.getMineOwner(), mineData));
+    assertTrue(MineProtectionListener.hasAccess(mineData.getFriends().get(0), mineData));
+  }
+
+  @Test
+  void visitorsOnlyBreakInAnOpenMine() {
+    MineData closed = add(false, true);
+    UUID visitor = UUID.randomUUID();
+
+    assertFalse(canChange(visitor, 0, 50, 0, false));
+    assertFalse(MineProtectionListener.hasAccess(visitor, closed));
+
+    closed.setOpen(true);
+    assertTrue(canChange(visitor, 0, 50, 0, false));
+    assertTrue(MineProtectionListener.hasAccess(visitor, closed));
+  }
+
+  @Test
+  void bannedPlayersCantBreakInAnOpenMine() {
+    MineData mineData = add(true, true);
+    UUID banned = mineData.getBannedPlayers().get(0);
+
+    assertFalse(canChange(banned, 0, 50, 0, false));
+    assertFalse(MineProtectionListener.hasAccess(banned, mineData));
+  }
+
+  @Test
+  void nothingOutsideTheMiningRegionCanBeChanged() {
+    MineData mineData = add(true, true);
+    UUID owner = mineData.getMineOwner();
+
+    // The walls of the mine, still inside its full region.
+    assertFalse(canChange(owner, 15, 50, 0, false));
+    assertFalse(canChange(owner, 0, 61, 0, false));
+    // Between the mines.
+    assertFalse(canChange(owner, 75, 50, 0, false));
+  }
+
+  @Test
+  void unloadedMineCantBeChanged() {
+    MineData mineData = add(true, false);
+
+    assertFalse(canChange(mineData.getMineOwner(), 0, 50, 0, false));
+    assertFalse(canChange(UUID.randomUUID(), 0, 50, 0, false));
+  }
+
+  @Test
+  void placingNeedsTheBlockPlaceFlag() {
+    MineData mineData = add(true, true);
+    UUID owner = mineData.getMineOwner();
+
+    assertFalse(canChange(owner, 0, 50, 0, true));
+
+    setFlags(mineData.getMineType(), Map.of("block-place", false));
+    assertFalse(canChange(owner, 0, 50, 0, true));
+
+    setFlags(mineData.getMineType(), Map.of("block-place", true));
+    assertTrue(canChange(owner, 0, 50, 0, true));
+    assertFalse(canChange(mineData.getBannedPlayers().get(0), 0, 50, 0, true));
+  }
+
+  private MineData add(boolean open, boolean load) {
+    MineType mineType = TestMines.mineType("default", Map.of(Material.STONE, 1.0));
+    UUID owner = UUID.randomUUID();
+    MineData mineData = TestMines.mine(owner, new Location(TestServer.getWorld(), 0, 50, 0),
+        mineType, open);
+    index.add(owner, mineData);
+    if (load) {
+      loaded.put(owner, mineData);
+    }
+    return mineData;
+  }
+
+  private boolean canChange(UUID player, int x, int y, int z, boolean place) {
+    UUID owner = index.getContaining(x, y, z);
+    return MineProtectionListener.canChange(player, owner == null ? null : loaded.get(owner), x, y,
+        z, place);
+  }
+
+  private static void setFlags(MineType mineType, Map<String, Boolean> flags) {
+    try {
+      Field field = MineType.class.getDeclaredField("flags");
+      field.setAccessible(true);
+      field.set(mineType, flags);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package me.untouchedodin0.privatemines.listener.sell;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Times taxing a sell of a full 36 slot inventory the way the UltraPrisonCore events are taxed.
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class UPCSellListenerBenchmark {
+
+    private static final int SLOTS = 36;
+    private static final int WARMUP = 200_000;
+    private static final int SELLS = 2_000_000;
+
+    @Test
+    void fullInventory() {
+        Map<Integer, Double> prices = new HashMap<>();
+        for (int slot = 0; slot < SLOTS; slot++) {
+            prices.put(slot, 64 * (slot + 1) * 0.25);
+        }
+
+        double sink = sell(prices, WARMUP);
+        long start = System.nanoTime();
+        sink += sell(prices, SELLS);
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("tax of a %d slot sell: %.1fns/sell (%.0f)%n", SLOTS,
+                nanos / (double) SELLS, sink);
+    }
+
+    private static double sell(Map<Integer, Double> prices, int sells) {
+        double total = 0;
+        for (int i = 0; i < sells; i++) {
+            Map<Integer, Double> taxed = new HashMap<>(prices.size() * 4 / 3 + 1);
+            total += UPCSellListener.takeTax(prices, 0.05, taxed);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,57 @@
+package me.untouchedodin0.privatemines.listener.sell;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class UPCSellListenerTest {
+
+    @Test
+    void takesTheRateOffEveryPrice() {
+        Map<String, Double> prices = Map.of("stone", 100.0, "coal", 40.0, "free", 0.0);
+        Map<String, Double> taxed = new HashMap<>();
+
+        double total = UPCSellListener.takeTax(prices, 0.05, taxed);
+
+        assertEquals(7.0, total, 1e-9);
+        assertEquals(95.0, taxed.get("stone"), 1e-9);
+        assertEquals(38.0, taxed.get("coal"), 1e-9);
+        assertEquals(0.0, taxed.get("free"), 1e-9);
+    }
+
+    @Test
+    void taxesAFullInventory() {
+        // Every storage slot of a player's inventory holds something different to sell.
+        Map<Integer, Double> prices = new HashMap<>();
+        double sold = 0;
+        for (int slot = 0; slot < 36; slot++) {
+            double price = 64 * (slot + 1) * 0.25;
+            prices.put(slot, price);
+            sold += price;
+        }
+        Map<Integer, Double> taxed = new HashMap<>();
+
+        double total = UPCSellListener.takeTax(prices, 0.125, taxed);
+
+        assertEquals(36, taxed.size());
+        assertEquals(sold * 0.125, total, 1e-9);
+        double paid = taxed.values().stream().mapToDouble(Double::doubleValue).sum();
+        assertEquals(sold, paid + total, 1e-9);
+        for (int slot = 0; slot < 36; slot++) {
+            assertEquals(prices.get(slot) * 0.875, taxed.get(slot), 1e-9);
+        }
+    }
+
+    @Test
+    void aFullRateLeavesNothing() {
+        Map<String, Double> taxed = new HashMap<>();
+
+        double total = UPCSellListener.takeTax(Map.of("stone", 10.0), 1.0, taxed);
+
+        assertEquals(10.0, total, 1e-9);
+        assertTrue(taxed.get("stone") <= 0);
+    }
+}
@@ -0,0 +1,67 @@
+package me.untouchedodin0.privatemines.mine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Times the max players check of 200 players breaking blocks at full speed across 10 mines, with
+ * a move between mines every 20 breaks. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class MineOccupancyBenchmark {
+
+  private static final int PLAYERS = 200;
+  private static final int MINES = 10;
+  private static final int WARMUP = 1_000_000;
+  private static final int BREAKS = 10_000_000;
+
+  @Test
+  void twoHundredPlayersBreaking() {
+    MineOccupancy occupancy = new MineOccupancy(null);
+    List<Mine> mines = new ArrayList<>(MINES);
+    Map<Mine, UUID> owners = new HashMap<>();
+    for (int i = 0; i < MINES; i++) {
+      Mine mine = new Mine(null);
+      mines.add(mine);
+      owners.put(mine, UUID.randomUUID());
+    }
+    UUID[] players = new UUID[PLAYERS];
+    for (int i = 0; i < PLAYERS; i++) {
+      players[i] = UUID.randomUUID();
+      occupancy.move(players[i], mines.get(i % MINES));
+    }
+
+    long sink = breakBlocks(occupancy, mines, owners, players, WARMUP, new Random(1));
+    long start = System.nanoTime();
+    sink += breakBlocks(occupancy, mines, owners, players, BREAKS, new Random(2));
+    long nanos = System.nanoTime() - start;
+
+    System.out.printf("max players check of %d players in %d mines: %.1fns/break (%d)%n",
+        PLAYERS, MINES, nanos / (double) BREAKS, sink);
+  }
+
+  /**
+   * Does what the max players listener does for every block broken.
+   */
+  private static long breakBlocks(MineOccupancy occupancy, List<Mine> mines,
+      Map<Mine, UUID> owners, UUID[] players, int breaks, Random random) {
+    long full = 0;
+    for (int i = 0; i < breaks; i++) {
+      UUID uuid = players[i % PLAYERS];
+      if (i % 20 == 0) {
+        occupancy.move(uuid, mines.get(random.nextInt(MINES)));
+      }
+      Mine mine = occupancy.getMine(uuid);
+      if (mine != null && occupancy.getVisitorCount(mine, owners.get(mine)) > PLAYERS / MINES) {
+        full++;
+      }
+    }
+    return full;
+  }
+}
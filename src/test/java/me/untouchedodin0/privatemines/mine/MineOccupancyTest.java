@@ -0,0 +1,177 @@
+package me.untouchedodin0.privatemines.mine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class MineOccupancyTest {
+
+  private static final int PLAYERS = 200;
+  private static final int MINES = 10;
+
+  @Test
+  void movesPlayersBetweenMines() {
+    MineOccupancy occupancy = new MineOccupancy(null);
+    Mine first = new Mine(null);
+    Mine second = new Mine(null);
+    UUID uuid = UUID.randomUUID();
+
+    occupancy.move(uuid, first);
+    assertEquals(1, occupancy.getPlayerCount(first));
+
+    occupancy.move(uuid, second);
+    assertEquals(0, occupancy.getPlayerCount(first));
+    assertEquals(1, occupancy.getPlayerCount(second));
+    assertSame(second, occupancy.getMine(uuid));
+
+    occupancy.move(uuid, null);
+    assertEquals(0, occupancy.getPlayerCount(second));
+    assertNull(occupancy.getMine(uuid));
+  }
+
+  @Test
+  void visitorCountLeavesOutTheOwner() {
+    MineOccupancy occupancy = new MineOccupancy(null);
+    Mine mine = new Mine(null);
+    UUID owner = UUID.randomUUID();
+
+    occupancy.move(owner, mine);
+    occupancy.move(UUID.randomUUID(), mine);
+    occupancy.move(UUID.randomUUID(), mine);
+
+    assertEquals(3, occupancy.getPlayerCount(mine));
+    assertEquals(2, occupancy.getVisitorCount(mine, owner));
+    assertEquals(3, occupancy.getVisitorCount(mine, UUID.randomUUID()));
+  }
+
+  @Test
+  void clearForgetsEveryPlayerInTheMine() {
+    MineOccupancy occupancy = new MineOccupancy(null);
+    Mine mine = new Mine(null);
+    UUID uuid = UUID.randomUUID();
+
+    occupancy.move(uuid, mine);
+    occupancy.clear(mine);
+
+    assertEquals(0, occupancy.getPlayerCount(mine));
+    assertNull(occupancy.getMine(uuid));
+  }
+
+  /**
+   * 200 players walk in and out of 10 mines and break blocks along the way, the counts have to
+   * match a plain map of where every player is after each step.
+   */
+  @Test
+  void keepsUpWithTwoHundredPlayers() {
+    MineOccupancy occupancy = new MineOccupancy(null);
+    List<Mine> mines = createMines();
+    List<UUID> players = createPlayers();
+    Map<UUID, Mine> expected = new HashMap<>();
+    Random random = new Random(42);
+
+    for (int step = 0; step < 100_000; step++) {
+      UUID uuid = players.get(random.nextInt(PLAYERS));
+      int action = random.nextInt(10);
+      if (action < 4) {
+        Mine mine = mines.get(random.nextInt(MINES));
+        occupancy.move(uuid, mine);
+        expected.put(uuid, mine);
+      } else if (action < 6) {
+        occupancy.move(uuid, null);
+        expected.remove(uuid);
+      } else if (action < 7) {
+        occupancy.remove(uuid);
+        expected.remove(uuid);
+      } else {
+        // A block break checks the mine the player is in, like the max players listener does.
+        Mine mine = expected.get(uuid);
+        if (mine != null) {
+          assertEquals(count(expected, mine), occupancy.getPlayerCount(mine));
+        }
+      }
+    }
+
+    for (Mine mine : mines) {
+      assertEquals(count(expected, mine), occupancy.getPlayerCount(mine));
+    }
+    for (UUID uuid : players) {
+      assertSame(expected.get(uuid), occupancy.getMine(uuid));
+    }
+  }
+
+  @Test
+  void keepsUpWithPlayersMovingOnSeveralThreads() throws Exception {
+    MineOccupancy occupancy = new MineOccupancy(null);
+    List<Mine> mines = createMines();
+    List<UUID> players = createPlayers();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    try {
+      // Every thread moves its own players, like the events of one player never overlap.
+      List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 4; thread++) {
+        int first = thread;
+        futures.add(executor.submit(() -> {
+          Random random = new Random(first);
+          for (int step = 0; step < 50_000; step++) {
+            UUID uuid = players.get(first + 4 * random.nextInt(PLAYERS / 4));
+            occupancy.move(uuid, random.nextBoolean() ? mines.get(random.nextInt(MINES)) : null);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    Map<UUID, Mine> actual = new HashMap<>();
+    for (UUID uuid : players) {
+      Mine mine = occupancy.getMine(uuid);
+      if (mine != null) {
+        actual.put(uuid, mine);
+      }
+    }
+    for (Mine mine : mines) {
+      assertEquals(count(actual, mine), occupancy.getPlayerCount(mine));
+    }
+  }
+
+  private static List<Mine> createMines() {
+    List<Mine> mines = new ArrayList<>(MINES);
+    for (int i = 0; i < MINES; i++) {
+      mines.add(new Mine(null));
+    }
+    return mines;
+  }
+
+  private static List<UUID> createPlayers() {
+    List<UUID> players = new ArrayList<>(PLAYERS);
+    for (int i = 0; i < PLAYERS; i++) {
+      players.add(UUID.randomUUID());
+    }
+    return players;
+  }
+
+  private static int count(Map<UUID, Mine> positions, Mine mine) {
+    int count = 0;
+    for (Mine value : positions.values()) {
+      if (value == mine) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,113 @@
+package me.untouchedodin0.privatemines.mine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TaxLedgerTest {
+
+  private static final Logger LOGGER = Logger.getLogger("TaxLedgerTest");
+
+  @TempDir
+  File directory;
+
+  @Test
+  void addsUpTheTaxOfEveryOwner() {
+    TaxLedger taxLedger = new TaxLedger(LOGGER, new File(directory, "taxes.yml"));
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+
+    taxLedger.record(first, 2.5);
+    taxLedger.record(first, 1.5);
+    taxLedger.record(second, 3.0);
+    taxLedger.record(second, 0);
+    taxLedger.record(second, -1.0);
+
+    assertEquals(4.0, taxLedger.getUnsettled(first));
+    assertEquals(3.0, taxLedger.getUnsettled(second));
+    assertEquals(0, taxLedger.getUnsettled(UUID.randomUUID()));
+  }
+
+  @Test
+  void recordsFromManyThreads() throws Exception {
+    TaxLedger taxLedger = new TaxLedger(LOGGER, new File(directory, "taxes.yml"));
+    UUID owner = UUID.randomUUID();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> {
+          for (int sale = 0; sale < 1000; sale++) {
+            taxLedger.record(owner, 0.5);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(4000.0, taxLedger.getUnsettled(owner));
+  }
+
+  @Test
+  void keepsTheFileUntilTheTaxIsPaid() throws Exception {
+    File file = new File(directory, "taxes.yml");
+    UUID owner = UUID.randomUUID();
+    YamlConfiguration yml = new YamlConfiguration();
+    yml.set(owner.toString(), 12.5);
+    yml.set("not-an-owner", 3.0);
+    yml.save(file);
+
+    TaxLedger taxLedger = new TaxLedger(LOGGER, file);
+    taxLedger.load();
+
+    assertEquals(12.5, taxLedger.getUnsettled(owner));
+    assertTrue(file.exists());
+  }
+
+  @Test
+  void writesTheUnpaidTaxOnShutdown() throws Exception {
+    File file = new File(directory, "taxes.yml");
+    UUID owner = UUID.randomUUID();
+    YamlConfiguration yml = new YamlConfiguration();
+    yml.set(owner.toString(), 12.5);
+    yml.save(file);
+
+    TaxLedger taxLedger = new TaxLedger(LOGGER, file);
+    taxLedger.load();
+    taxLedger.record(owner, 2.5);
+    taxLedger.shutdown();
+    assertEquals(0, taxLedger.getUnsettled(owner));
+
+    TaxLedger restarted = new TaxLedger(LOGGER, file);
+    restarted.load();
+    assertEquals(15.0, restarted.getUnsettled(owner));
+  }
+
+  @Test
+  void removesTheFileWhenNothingIsUnpaid() throws Exception {
+    File file = new File(directory, "taxes.yml");
+    new YamlConfiguration().save(file);
+
+    TaxLedger taxLedger = new TaxLedger(LOGGER, file);
+    taxLedger.load();
+    taxLedger.shutdown();
+
+    assertFalse(file.exists());
+  }
+}
@@ -0,0 +1,63 @@
+package me.untouchedodin0.privatemines.mine.pattern;
+
+import com.sk89q.worldedit.function.pattern.Pattern;
+import com.sk89q.worldedit.function.pattern.RandomPattern;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.world.block.BaseBlock;
+import com.sk89q.worldedit.world.block.BlockState;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Times sampling the blocks of a mine through {@link AliasBlockPattern} and through WorldEdit's
+ * {@link RandomPattern} with the same weights. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class AliasBlockPatternBenchmark {
+
+  private static final double[] WEIGHTS = {40, 20, 12.5, 10, 7.5, 5, 3, 1.5, 0.4, 0.1};
+  private static final int WARMUP = 2_000_000;
+  private static final int SAMPLES = 20_000_000;
+
+  @Test
+  void sameWeights() {
+    BaseBlock[] blocks = new BaseBlock[WEIGHTS.length];
+    RandomPattern randomPattern = new RandomPattern();
+    for (int i = 0; i < WEIGHTS.length; i++) {
+      // The blocks are only compared by identity, so they don't need the block registry.
+      BaseBlock block = new BaseBlock((BlockState) null) {
+      };
+      blocks[i] = block;
+      randomPattern.add(position -> block, WEIGHTS[i]);
+    }
+    AliasBlockPattern aliasPattern = new AliasBlockPattern(blocks, WEIGHTS);
+
+    run("AliasBlockPattern", aliasPattern, blocks[0]);
+    run("RandomPattern", randomPattern, blocks[0]);
+  }
+
+  private static void run(String name, Pattern pattern, BaseBlock first) {
+    sample(pattern, first, WARMUP);
+    long start = System.nanoTime();
+    long picked = sample(pattern, first, SAMPLES);
+    long nanos = System.nanoTime() - start;
+
+    System.out.printf("%s with %d blocks: %.1fns/block, first block share %.3f (expected %.3f)%n",
+        name, WEIGHTS.length, nanos / (double) SAMPLES, picked / (double) SAMPLES,
+        WEIGHTS[0] / 100);
+  }
+
+  /**
+   * Goes through a 100 by 100 region layer by layer like a reset does, counting the first block.
+   */
+  private static long sample(Pattern pattern, BaseBlock first, int samples) {
+    long picked = 0;
+    for (int i = 0; i < samples; i++) {
+      BlockVector3 position = BlockVector3.at(i % 100, i / 10_000 % 256, i / 100 % 100);
+      if (pattern.applyBlock(position) == first) {
+        picked++;
+      }
+    }
+    return picked;
+  }
+}
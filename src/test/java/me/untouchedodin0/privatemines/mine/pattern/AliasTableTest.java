@@ -0,0 +1,74 @@
+package me.untouchedodin0.privatemines.mine.pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class AliasTableTest {
+
+  @Test
+  void rejectsEmptyWeights() {
+    assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[0]));
+  }
+
+  @Test
+  void singleWeightIsAlwaysPicked() {
+    AliasTable table = new AliasTable(new double[]{3.5});
+    assertEquals(1.0, table.getProbability(0));
+    assertEquals(0, table.pick(0, 0.999));
+  }
+
+  /**
+   * Every weight has to be made up exactly by its own column and the columns that alias to it.
+   */
+  @Test
+  void columnsAddUpToTheWeights() {
+    double[] weights = {50, 25, 12.5, 10, 2.5};
+    AliasTable table = new AliasTable(weights);
+
+    double[] shares = new double[weights.length];
+    for (int column = 0; column < table.size(); column++) {
+      double probability = table.getProbability(column);
+      assertTrue(probability >= 0 && probability <= 1.0, "Column " + column);
+      shares[column] += probability;
+      shares[table.getAlias(column)] += 1.0 - probability;
+    }
+
+    double total = 100;
+    for (int i = 0; i < weights.length; i++) {
+      assertEquals(weights[i] / total, shares[i] / table.size(), 1e-9, "Weight " + i);
+    }
+  }
+
+  @Test
+  void samplesFollowTheWeights() {
+    double[] weights = {70, 20, 9, 1};
+    AliasTable table = new AliasTable(weights);
+    Random random = new Random(7);
+    int samples = 1_000_000;
+
+    int[] counts = new int[weights.length];
+    for (int i = 0; i < samples; i++) {
+      counts[table.pick(random.nextInt(table.size()), random.nextDouble())]++;
+    }
+
+    for (int i = 0; i < weights.length; i++) {
+      double expected = weights[i] / 100;
+      // Five standard deviations of a binomial with a million samples.
+      double tolerance = 5 * Math.sqrt(expected * (1 - expected) / samples);
+      assertEquals(expected, (double) counts[i] / samples, tolerance, "Weight " + i);
+    }
+  }
+
+  @Test
+  void zeroWeightIsNeverPicked() {
+    AliasTable table = new AliasTable(new double[]{1, 0, 1});
+    Random random = new Random(11);
+    for (int i = 0; i < 100_000; i++) {
+      assertTrue(table.pick(random.nextInt(table.size()), random.nextDouble()) != 1);
+    }
+  }
+}
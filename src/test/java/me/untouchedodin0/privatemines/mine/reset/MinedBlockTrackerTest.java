@@ -0,0 +1,85 @@
+package me.untouchedodin0.privatemines.mine.reset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import java.util.ArrayList;
+import java.util.List;
+import me.untouchedodin0.kotlin.mine.data.BlockBox;
+import org.junit.jupiter.api.Test;
+
+class MinedBlockTrackerTest {
+
+  private static final BlockBox REGION = BlockBox.of(-5, 10, 100, 4, 19, 109);
+
+  @Test
+  void countsEveryBlockOnce() {
+    MinedBlockTracker tracker = new MinedBlockTracker(REGION);
+
+    assertTrue(tracker.markMined(0, 15, 105));
+    assertFalse(tracker.markMined(0, 15, 105));
+    assertTrue(tracker.markMined(-5, 10, 100));
+    assertEquals(2, tracker.getMinedCount());
+
+    assertTrue(tracker.unmarkMined(0, 15, 105));
+    assertFalse(tracker.unmarkMined(0, 15, 105));
+    assertEquals(1, tracker.getMinedCount());
+  }
+
+  @Test
+  void ignoresBlocksOutsideTheRegion() {
+    MinedBlockTracker tracker = new MinedBlockTracker(REGION);
+
+    assertFalse(tracker.markMined(5, 15, 105));
+    assertFalse(tracker.markMined(0, 9, 105));
+    assertFalse(tracker.markMined(0, 15, 110));
+    assertEquals(0, tracker.getMinedCount());
+    assertEquals(1000, tracker.getVolume());
+  }
+
+  @Test
+  void drainsHighestLayerFirstAndClears() {
+    MinedBlockTracker tracker = new MinedBlockTracker(REGION);
+    assertFalse(tracker.isPrimed());
+
+    tracker.markMined(4, 10, 109);
+    tracker.markMined(-5, 19, 100);
+    tracker.markMined(0, 14, 103);
+
+    List<BlockVector3> drained = new ArrayList<>();
+    tracker.drain(drained::add);
+
+    assertEquals(List.of(BlockVector3.at(-5, 19, 100), BlockVector3.at(0, 14, 103),
+        BlockVector3.at(4, 10, 109)), drained);
+    assertEquals(0, tracker.getMinedCount());
+    assertTrue(tracker.isPrimed());
+  }
+
+  @Test
+  void coversOnlyTheSameRegion() {
+    MinedBlockTracker tracker = new MinedBlockTracker(REGION);
+
+    assertTrue(tracker.covers(BlockBox.of(4, 19, 109, -5, 10, 100)));
+    assertFalse(tracker.covers(REGION.expand(1)));
+  }
+
+  @Test
+  void fullResetAfterTheIntervalOfDrains() {
+    MinedBlockTracker tracker = new MinedBlockTracker(REGION);
+    assertFalse(tracker.canDrain(3));
+
+    tracker.clear();
+    for (int drain = 0; drain < 3; drain++) {
+      assertTrue(tracker.canDrain(3));
+      tracker.drain(position -> {
+      });
+    }
+    assertFalse(tracker.canDrain(3));
+    assertTrue(tracker.canDrain(0));
+
+    tracker.clear();
+    assertTrue(tracker.canDrain(3));
+  }
+}
@@ -0,0 +1,48 @@
+package me.untouchedodin0.privatemines.playershops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+class PriceTableTest {
+
+    @Test
+    void looksUpEveryPrice() {
+        Map<Material, Double> prices = new EnumMap<>(Material.class);
+        prices.put(Material.STONE, 1.5);
+        prices.put(Material.DIAMOND_ORE, 250.0);
+        PriceTable table = PriceTable.of(prices);
+
+        assertFalse(table.isEmpty());
+        assertEquals(1.5, table.get(Material.STONE));
+        assertEquals(250.0, table.get(Material.DIAMOND_ORE));
+        assertEquals(0, table.get(Material.DIRT));
+    }
+
+    @Test
+    void leavesOutWhatCantBeSold() {
+        Map<Material, Double> prices = new HashMap<>();
+        prices.put(Material.STONE, 0.0);
+        prices.put(Material.DIRT, -3.0);
+        prices.put(Material.COBBLESTONE, null);
+        prices.put(null, 5.0);
+        PriceTable table = PriceTable.of(prices);
+
+        assertTrue(table.isEmpty());
+        assertEquals(0, table.get(Material.STONE));
+        assertEquals(0, table.get(Material.DIRT));
+        assertEquals(0, table.get(Material.COBBLESTONE));
+    }
+
+    @Test
+    void noPricesIsEmpty() {
+        assertTrue(PriceTable.of(null).isEmpty());
+        assertTrue(PriceTable.of(Map.of()).isEmpty());
+    }
+}
@@ -0,0 +1,69 @@
+package me.untouchedodin0.privatemines.playershops;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+import me.untouchedodin0.privatemines.mine.TaxLedger;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Times the auto sell of 100 miners spread over 10 mines, one sell for every block broken the way
+ * the internal sell listener does it on the main thread. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class SellEngineBenchmark {
+
+    private static final int MINERS = 100;
+    private static final int MINES = 10;
+    private static final Material[] BLOCKS = {Material.STONE, Material.STONE, Material.STONE,
+            Material.COAL_ORE, Material.IRON_ORE, Material.DIRT};
+    private static final int WARMUP = 1_000_000;
+    private static final int BREAKS = 10_000_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void hundredMiners() {
+        TaxLedger taxLedger = new TaxLedger(Logger.getLogger("SellEngineBenchmark"),
+                directory.resolve("taxes.yml").toFile());
+        SellEngine sellEngine = new SellEngine(taxLedger);
+        PriceTable prices = PriceTable.of(Map.of(Material.STONE, 1.5, Material.COAL_ORE, 4.0,
+                Material.IRON_ORE, 10.0));
+        UUID[] owners = new UUID[MINES];
+        for (int mine = 0; mine < MINES; mine++) {
+            owners[mine] = UUID.randomUUID();
+        }
+        UUID[] miners = new UUID[MINERS];
+        for (int miner = 0; miner < MINERS; miner++) {
+            // The first miner of every mine is its owner, who doesn't pay tax.
+            miners[miner] = miner < MINES ? owners[miner] : UUID.randomUUID();
+        }
+
+        sell(sellEngine, prices, owners, miners, WARMUP);
+        long start = System.nanoTime();
+        long sold = sell(sellEngine, prices, owners, miners, BREAKS);
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("auto sell of %d miners in %d mines: %.1fns/block (%d sold)%n", MINERS,
+                MINES, nanos / (double) BREAKS, sold);
+    }
+
+    private static long sell(SellEngine sellEngine, PriceTable prices, UUID[] owners,
+            UUID[] miners, int breaks) {
+        long sold = 0;
+        for (int i = 0; i < breaks; i++) {
+            // The miners take turns, like their block breaks arrive on the main thread.
+            int miner = i % MINERS;
+            Material block = BLOCKS[(i / MINERS) % BLOCKS.length];
+            if (sellEngine.sellBlock(miners[miner], owners[miner % MINES], 5.0, prices, block)) {
+                sold++;
+            }
+        }
+        return sold;
+    }
+}
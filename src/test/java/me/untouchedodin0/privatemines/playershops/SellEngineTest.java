@@ -0,0 +1,78 @@
+package me.untouchedodin0.privatemines.playershops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+import me.untouchedodin0.privatemines.mine.TaxLedger;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SellEngineTest {
+
+    private static final PriceTable PRICES = PriceTable.of(Map.of(Material.STONE, 1.5,
+            Material.COAL_ORE, 4.0));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void sellsOnlyWhatTheMineBuys() {
+        ItemStack[] contents = new ItemStack[36];
+        contents[0] = new ItemStack(Material.STONE, 64);
+        contents[5] = new ItemStack(Material.DIRT, 32);
+        contents[35] = new ItemStack(Material.COAL_ORE, 10);
+
+        double total = SellEngine.sell(contents, PRICES);
+
+        assertEquals(64 * 1.5 + 10 * 4.0, total, 1e-9);
+        assertNull(contents[0]);
+        assertNotNull(contents[5]);
+        assertNull(contents[35]);
+    }
+
+    @Test
+    void nothingToSellIsWorthNothing() {
+        ItemStack[] contents = new ItemStack[36];
+        contents[3] = new ItemStack(Material.DIRT, 1);
+
+        assertEquals(0, SellEngine.sell(contents, PRICES));
+        assertEquals(0, SellEngine.sell(new ItemStack[36], PRICES));
+        assertNotNull(contents[3]);
+    }
+
+    @Test
+    void takesThePercentOfTheMine() {
+        assertEquals(5.0, SellEngine.getTax(100.0, 5.0), 1e-9);
+        assertEquals(1.25, SellEngine.getTax(12.5, 10.0), 1e-9);
+        assertEquals(100.0, SellEngine.getTax(100.0, 100.0), 1e-9);
+    }
+
+    @Test
+    void noTaxBelowZero() {
+        assertEquals(0, SellEngine.getTax(100.0, 0));
+        assertEquals(0, SellEngine.getTax(100.0, -5.0));
+    }
+
+    @Test
+    void blocksSoldByVisitorsAreTaxed() {
+        TaxLedger taxLedger = new TaxLedger(Logger.getLogger("SellEngineTest"),
+                directory.resolve("taxes.yml").toFile());
+        SellEngine sellEngine = new SellEngine(taxLedger);
+        UUID owner = UUID.randomUUID();
+
+        assertTrue(sellEngine.sellBlock(UUID.randomUUID(), owner, 10.0, PRICES, Material.COAL_ORE));
+        assertTrue(sellEngine.sellBlock(owner, owner, 10.0, PRICES, Material.COAL_ORE));
+        assertFalse(sellEngine.sellBlock(UUID.randomUUID(), owner, 10.0, PRICES, Material.DIRT));
+
+        assertEquals(0.4, taxLedger.getUnsettled(owner), 1e-9);
+    }
+}
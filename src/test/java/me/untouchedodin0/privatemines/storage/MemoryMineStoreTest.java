@@ -0,0 +1,11 @@
+package me.untouchedodin0.privatemines.storage;
+
+import java.nio.file.Path;
+
+class MemoryMineStoreTest extends MineStoreTest {
+
+  @Override
+  protected MineStore createStore(Path directory) {
+    return new MemoryMineStore();
+  }
+}
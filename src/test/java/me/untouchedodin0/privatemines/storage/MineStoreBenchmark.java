@@ -0,0 +1,102 @@
+package me.untouchedodin0.privatemines.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.kotlin.mine.type.MineType;
+import me.untouchedodin0.privatemines.TestMines;
+import me.untouchedodin0.privatemines.storage.sql.MineRepository;
+import org.bukkit.Material;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Measures the throughput and latency of every {@link MineStore}. Run with
+ * {@code ./gradlew benchmark}, {@code -Dbenchmark.mines=100000} changes the amount of mines.
+ */
+@Tag("benchmark")
+class MineStoreBenchmark {
+
+  private static final Logger LOGGER = Logger.getLogger("MineStoreBenchmark");
+  private static final MineType MINE_TYPE = TestMines.mineType("default",
+      Map.of(Material.STONE, 1.0));
+  private static final int LATENCY_SAMPLES = 500;
+
+  private static List<MineData> mines;
+
+  @TempDir
+  Path directory;
+
+  @BeforeAll
+  static void generate() {
+    mines = TestMines.mines(Integer.getInteger("benchmark.mines", 10_000), MINE_TYPE);
+  }
+
+  @Test
+  void memory() throws Exception {
+    benchmark("memory", new MemoryMineStore());
+  }
+
+  @Test
+  void yaml() throws Exception {
+    benchmark("yaml", new YamlMineStore(LOGGER, name -> MINE_TYPE, directory));
+  }
+
+  @Test
+  void sqlite() throws Exception {
+    MineRepository mineRepository = new MineRepository(LOGGER, name -> MINE_TYPE,
+        directory.resolve("benchmark.db").toFile());
+    mineRepository.open().get();
+    benchmark("sqlite", mineRepository);
+  }
+
+  private static void benchmark(String name, MineStore store) throws Exception {
+    try {
+      long start = System.nanoTime();
+      store.upsertAll(mines).get();
+      long saved = System.nanoTime();
+      int loaded = store.loadAll().get().size();
+      long finished = System.nanoTime();
+      assertEquals(mines.size(), loaded);
+
+      int samples = Math.min(LATENCY_SAMPLES, mines.size());
+      long[] upserts = new long[samples];
+      long[] loads = new long[samples];
+      for (int i = 0; i < samples; i++) {
+        MineData mineData = mines.get(i * mines.size() / samples);
+        long before = System.nanoTime();
+        store.upsert(mineData).get();
+        long between = System.nanoTime();
+        store.load(mineData.getMineOwner()).get();
+        upserts[i] = between - before;
+        loads[i] = System.nanoTime() - between;
+      }
+
+      System.out.printf("%s with %d mines: save %.0f/s, load %.0f/s, upsert p50 %.2fms "
+              + "p99 %.2fms, load one p50 %.2fms p99 %.2fms%n", name, mines.size(),
+          perSecond(mines.size(), saved - start), perSecond(loaded, finished - saved),
+          percentile(upserts, 0.5), percentile(upserts, 0.99), percentile(loads, 0.5),
+          percentile(loads, 0.99));
+    } finally {
+      store.close();
+    }
+  }
+
+  private static double perSecond(int amount, long nanos) {
+    return amount / (Math.max(1, nanos) / 1_000_000_000.0);
+  }
+
+  private static double percentile(long[] nanos, double percentile) {
+    long[] sorted = nanos.clone();
+    Arrays.sort(sorted);
+    int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+    return sorted[Math.max(0, index)] / 1_000_000.0;
+  }
+}
@@ -0,0 +1,126 @@
+package me.untouchedodin0.privatemines.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.kotlin.mine.type.MineType;
+import me.untouchedodin0.privatemines.TestMines;
+import org.bukkit.Material;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * What every {@link MineStore} has to do, each store has a subclass creating it.
+ */
+public abstract class MineStoreTest {
+
+  protected static final MineType MINE_TYPE = TestMines.mineType("default",
+      Map.of(Material.STONE, 1.0));
+  protected static final Function<String, MineType> MINE_TYPES =
+      name -> MINE_TYPE.getName().equals(name) ? MINE_TYPE : null;
+
+  @TempDir
+  protected Path directory;
+
+  private MineStore store;
+
+  protected abstract MineStore createStore(Path directory) throws Exception;
+
+  @BeforeEach
+  void open() throws Exception {
+    this.store = createStore(directory);
+  }
+
+  @AfterEach
+  void close() {
+    store.close();
+  }
+
+  @Test
+  void loadsWhatWasSaved() throws Exception {
+    List<MineData> mines = TestMines.mines(20, MINE_TYPE);
+    store.upsertAll(mines).get();
+
+    List<MineData> loaded = store.loadAll().get();
+    assertEquals(mines.size(), loaded.size());
+    for (MineData mineData : loaded) {
+      assertSameMine(mines.stream()
+          .filter(mine -> mine.getMineOwner().equals(mineData.getMineOwner())).findFirst()
+          .orElseThrow(), mineData);
+    }
+  }
+
+  @Test
+  void loadsOneMine() throws Exception {
+    MineData mineData = TestMines.mines(1, MINE_TYPE).get(0);
+    store.upsert(mineData).get();
+
+    MineData loaded = store.load(mineData.getMineOwner()).get();
+    assertNotNull(loaded);
+    assertSameMine(mineData, loaded);
+    assertNull(store.load(UUID.randomUUID()).get());
+  }
+
+  @Test
+  void upsertReplacesTheMine() throws Exception {
+    MineData mineData = TestMines.mines(1, MINE_TYPE).get(0);
+    store.upsert(mineData).get();
+
+    mineData.setTax(12.5);
+    mineData.setOpen(!mineData.isOpen());
+    mineData.getFriends().clear();
+    mineData.getBannedPlayers().add(UUID.randomUUID());
+    store.upsert(mineData).get();
+
+    assertSameMine(mineData, store.load(mineData.getMineOwner()).get());
+    assertEquals(1, store.loadAll().get().size());
+  }
+
+  @Test
+  void deletedMinesAreGone() throws Exception {
+    List<MineData> mines = TestMines.mines(3, MINE_TYPE);
+    store.upsertAll(mines).get();
+    store.delete(mines.get(1).getMineOwner()).get();
+
+    assertNull(store.load(mines.get(1).getMineOwner()).get());
+    assertEquals(2, store.loadAll().get().size());
+  }
+
+  @Test
+  void writesDontSeeLaterChanges() throws Exception {
+    MineData mineData = TestMines.mines(1, MINE_TYPE).get(0);
+    double tax = mineData.getTax();
+    CompletableFuture<Void> write = store.upsert(mineData);
+    mineData.setTax(tax + 1);
+    write.get();
+
+    assertEquals(tax, store.load(mineData.getMineOwner()).get().getTax());
+  }
+
+  protected static void assertSameMine(MineData expected, MineData actual) {
+    assertEquals(expected.getMineOwner(), actual.getMineOwner());
+    assertEquals(expected.getMineType().getName(), actual.getMineType().getName());
+    assertEquals(expected.getMiningRegion(), actual.getMiningRegion());
+    assertEquals(expected.getFullRegion(), actual.getFullRegion());
+    assertEquals(expected.getMinePosition(), actual.getMinePosition());
+    assertEquals(expected.getSpawnPosition(), actual.getSpawnPosition());
+    assertEquals(expected.isOpen(), actual.isOpen());
+    assertEquals(expected.getTax(), actual.getTax());
+    assertEquals(expected.getMaxPlayers(), actual.getMaxPlayers());
+    assertEquals(expected.getMaterials(), actual.getMaterials());
+    assertEquals(new HashSet<>(expected.getFriends()), new HashSet<>(actual.getFriends()));
+    assertEquals(new HashSet<>(expected.getBannedPlayers()),
+        new HashSet<>(actual.getBannedPlayers()));
+  }
+}
@@ -0,0 +1,102 @@
+package me.untouchedodin0.privatemines.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.privatemines.TestMines;
+import org.junit.jupiter.api.Test;
+
+class YamlMineStoreTest extends MineStoreTest {
+
+  private YamlMineStore store;
+
+  @Override
+  protected MineStore createStore(Path directory) {
+    this.store = new YamlMineStore(Logger.getLogger("YamlMineStoreTest"), MINE_TYPES, directory);
+    return store;
+  }
+
+  @Test
+  void writesOneFilePerMine() throws Exception {
+    List<MineData> mines = TestMines.mines(5, MINE_TYPE);
+    store.upsertAll(mines).get();
+
+    assertEquals(5, YamlMineStore.listMineFiles(directory).size());
+    try (var paths = Files.list(directory)) {
+      assertEquals(0, paths.filter(path -> path.toString().endsWith(".tmp")).count());
+    }
+  }
+
+  @Test
+  void skipsMinesOfUnknownTypes() throws Exception {
+    MineData mineData = TestMines.mines(1, MINE_TYPE).get(0);
+    Files.writeString(directory.resolve(mineData.getMineOwner() + ".yml"),
+        YamlMineStore.serialize(mineData).replace("mineType: default", "mineType: removed"));
+
+    assertEquals(0, store.loadAll().get().size());
+  }
+
+  @Test
+  void closeKeepsTheSnapshotUpToDate() throws Exception {
+    Path mines = Files.createDirectories(directory.resolve("mines"));
+    Path snapshotFile = directory.resolve("mines.snapshot");
+    List<MineData> saved = TestMines.mines(10, MINE_TYPE);
+    YamlMineStore first = snapshotStore(mines, snapshotFile, new ArrayList<>());
+    first.upsertAll(saved).get();
+    first.close();
+
+    // Parses the files and writes the snapshot, then changes one mine before shutting down.
+    List<String> messages = new ArrayList<>();
+    YamlMineStore second = snapshotStore(mines, snapshotFile, messages);
+    assertEquals(10, second.loadAll().get().size());
+    assertTrue(messages.stream().anyMatch(message -> message.startsWith("Parsed")));
+    MineData changed = saved.get(3);
+    changed.setTax(42.0);
+    second.upsert(changed).get();
+    second.close();
+
+    messages.clear();
+    YamlMineStore third = snapshotStore(mines, snapshotFile, messages);
+    try {
+      List<MineData> loaded = third.loadAll().get();
+      assertFalse(messages.stream().anyMatch(message -> message.startsWith("Parsed")),
+          "The snapshot wasn't used");
+      assertEquals(10, loaded.size());
+      assertSameMine(changed, loaded.stream()
+          .filter(mineData -> mineData.getMineOwner().equals(changed.getMineOwner()))
+          .findFirst().orElseThrow());
+    } finally {
+      third.close();
+    }
+  }
+
+  private static YamlMineStore snapshotStore(Path mines, Path snapshotFile,
+      List<String> messages) {
+    Logger logger = Logger.getAnonymousLogger();
+    logger.addHandler(new Handler() {
+      @Override
+      public void publish(LogRecord record) {
+        messages.add(record.getMessage());
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+    });
+    return new YamlMineStore(logger, MINE_TYPES, mines,
+        new MineSnapshot(logger, MINE_TYPES, snapshotFile));
+  }
+}
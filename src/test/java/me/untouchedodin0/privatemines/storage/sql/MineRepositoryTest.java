@@ -0,0 +1,37 @@
+package me.untouchedodin0.privatemines.storage.sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+import me.untouchedodin0.kotlin.mine.data.MineData;
+import me.untouchedodin0.privatemines.TestMines;
+import me.untouchedodin0.privatemines.storage.MineStore;
+import me.untouchedodin0.privatemines.storage.MineStoreTest;
+import org.junit.jupiter.api.Test;
+
+class MineRepositoryTest extends MineStoreTest {
+
+  private MineRepository repository;
+
+  @Override
+  protected MineStore createStore(Path directory) throws Exception {
+    this.repository = new MineRepository(Logger.getLogger("MineRepositoryTest"), MINE_TYPES,
+        directory.resolve("mines.db").toFile());
+    repository.open().get();
+    return repository;
+  }
+
+  @Test
+  void countsTheStoredMines() throws Exception {
+    List<MineData> mines = TestMines.mines(3, MINE_TYPE);
+    repository.upsertAll(mines).get();
+
+    assertEquals(3, repository.count().get());
+    assertEquals(2, repository.countExisting(
+        List.of(mines.get(0).getMineOwner(), mines.get(2).getMineOwner(), UUID.randomUUID()))
+        .get());
+  }
+}
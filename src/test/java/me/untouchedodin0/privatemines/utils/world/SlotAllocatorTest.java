@@ -0,0 +1,120 @@
+package me.untouchedodin0.privatemines.utils.world;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SlotAllocatorTest {
+
+  private static final Logger LOGGER = Logger.getLogger("SlotAllocatorTest");
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void spiralVisitsEveryCellOnce() {
+    Set<List<Long>> cells = new HashSet<>();
+    for (long slot = 0; slot < 100_000; slot++) {
+      long cellX = SlotAllocator.getCellX(slot);
+      long cellZ = SlotAllocator.getCellZ(slot);
+      assertEquals(slot, SlotAllocator.getSlot(cellX, cellZ));
+      assertTrue(cells.add(List.of(cellX, cellZ)), "Slot " + slot);
+
+      if (slot > 0) {
+        long step = Math.abs(cellX - SlotAllocator.getCellX(slot - 1))
+            + Math.abs(cellZ - SlotAllocator.getCellZ(slot - 1));
+        assertEquals(1, step, "Slot " + slot);
+      }
+    }
+    assertEquals(0, SlotAllocator.getCellX(0));
+    assertEquals(0, SlotAllocator.getCellZ(0));
+  }
+
+  @Test
+  void reusesTheLowestReleasedSlot() {
+    SlotAllocator allocator = create(slot -> false);
+    for (int i = 0; i < 5; i++) {
+      assertEquals(i, allocator.allocate());
+    }
+
+    allocator.release(3);
+    allocator.release(1);
+    assertEquals(2, allocator.getFreeCount());
+    assertEquals(1, allocator.allocate());
+    assertEquals(3, allocator.allocate());
+    assertEquals(5, allocator.allocate());
+  }
+
+  @Test
+  void skipsOccupiedSlots() {
+    SlotAllocator allocator = create(slot -> slot == 0 || slot == 2);
+
+    assertEquals(1, allocator.allocate());
+    assertEquals(3, allocator.allocate());
+  }
+
+  @Test
+  void claimTakesASlotBack() {
+    SlotAllocator allocator = create(slot -> false);
+    allocator.allocate();
+    allocator.release(0);
+    allocator.claim(0);
+    assertEquals(0, allocator.getFreeCount());
+
+    // Claiming past the end leaves the slots in between free.
+    allocator.claim(4);
+    assertEquals(5, allocator.getHighestSlot());
+    assertEquals(1, allocator.allocate());
+  }
+
+  @Test
+  void releasingTwiceOnlyFreesOnce() {
+    SlotAllocator allocator = create(slot -> false);
+    allocator.allocate();
+    allocator.release(0);
+    allocator.release(0);
+    allocator.release(7);
+
+    assertEquals(1, allocator.getFreeCount());
+  }
+
+  @Test
+  void stateSurvivesARestart() {
+    SlotAllocator allocator = create(slot -> false);
+    for (int i = 0; i < 10; i++) {
+      allocator.allocate();
+    }
+    allocator.release(4);
+    allocator.release(8);
+
+    SlotAllocator loaded = create(slot -> false);
+    loaded.load();
+    assertEquals(10, loaded.getHighestSlot());
+    assertEquals(4, loaded.allocate());
+    assertEquals(8, loaded.allocate());
+    assertEquals(10, loaded.allocate());
+  }
+
+  @Test
+  void brokenStateStartsOver() throws Exception {
+    Files.writeString(directory.resolve("slots.json"), "{ not json");
+    SlotAllocator allocator = create(slot -> false);
+    allocator.load();
+
+    assertEquals(0, allocator.allocate());
+  }
+
+  private SlotAllocator create(LongPredicate occupied) {
+    // Saved straight away so the file is written by the time the next allocator reads it.
+    return new SlotAllocator(directory.resolve("slots.json"), LOGGER, occupied, Runnable::run);
+  }
+}